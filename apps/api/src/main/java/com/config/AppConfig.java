@@ -1,13 +1,62 @@
 package com.config;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class AppConfig {
-  @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+
+    // Market data and LLM calls get separate HTTP clients so a slow or hung LLM provider
+    // cannot use up the in-flight slots that quote refreshes need
+    @Bean
+    public RestTemplate marketDataRestTemplate(
+            MeterRegistry meterRegistry,
+            @Value("${http.clients.market-data.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${http.clients.market-data.read-timeout-ms:5000}") long readTimeoutMs,
+            @Value("${http.clients.market-data.max-in-flight:16}") int maxInFlight,
+            @Value("${http.clients.market-data.acquire-timeout-ms:2000}") long acquireTimeoutMs) {
+        return limitedRestTemplate("market-data", meterRegistry, connectTimeoutMs, readTimeoutMs,
+                maxInFlight, acquireTimeoutMs);
+    }
+
+    @Bean
+    public RestTemplate llmRestTemplate(
+            MeterRegistry meterRegistry,
+            @Value("${http.clients.llm.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${http.clients.llm.read-timeout-ms:120000}") long readTimeoutMs,
+            @Value("${http.clients.llm.max-in-flight:8}") int maxInFlight,
+            @Value("${http.clients.llm.acquire-timeout-ms:5000}") long acquireTimeoutMs) {
+        return limitedRestTemplate("llm", meterRegistry, connectTimeoutMs, readTimeoutMs,
+                maxInFlight, acquireTimeoutMs);
+    }
+
+    // Builds a RestTemplate on its own JDK HttpClient, which keeps connections alive between requests in its own pool.
+    // The JDK client defaults to HTTP/2 and offers cleartext endpoints an h2c upgrade, so it is pinned to HTTP/1.1:
+    // every in-flight request then holds one connection, and the in-flight cap also bounds the client's connections.
+    // The JDK pool itself has no size setting or metrics, so the interceptor's gauges are the pool's metrics. The
+    // client's internal tasks stay on its default executor, so they never wait behind application work on the shared
+    // pools
+    static RestTemplate limitedRestTemplate(String name, MeterRegistry meterRegistry,
+            long connectTimeoutMs, long readTimeoutMs, int maxInFlight, long acquireTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(
+                new InFlightLimitInterceptor(name, maxInFlight, acquireTimeoutMs, meterRegistry));
+        return restTemplate;
     }
 }
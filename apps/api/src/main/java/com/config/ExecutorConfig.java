@@ -0,0 +1,93 @@
+package com.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ExecutorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutorConfig.class);
+    static final int DEFAULT_MAX_THREADS = 64;
+    static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    static final int DEFAULT_SSE_MAX_THREADS = 32;
+    static final int DEFAULT_SSE_QUEUE_CAPACITY = 10000;
+
+    // Shared executor for blocking outbound calls (quotes, hedged provider calls, cache refreshes). With
+    // spring.threads.virtual.enabled it runs one virtual thread per task. Otherwise it is a bounded pool of platform
+    // threads: up to max-threads workers, then up to queue-capacity waiting tasks, after which the submitting thread
+    // runs the task itself, which slows producers down instead of failing their calls.
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService outboundIoExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${outbound-io.platform.max-threads:" + DEFAULT_MAX_THREADS + "}") int maxThreads,
+            @Value("${outbound-io.platform.queue-capacity:" + DEFAULT_QUEUE_CAPACITY + "}") int queueCapacity) {
+        if (virtualThreads) {
+            log.info("Outbound I/O executor uses virtual threads");
+        } else {
+            log.info("Outbound I/O executor uses up to {} platform threads and queues up to {} tasks",
+                    maxThreads, queueCapacity);
+        }
+        return newOutboundIoExecutor(virtualThreads, maxThreads, queueCapacity);
+    }
+
+    // Server-Sent Events writes for the price and portfolio streams. A slow client blocks its send on the socket, so
+    // these never share threads with market data calls and never run on the publishing thread: once the platform pool
+    // and its queue are full a send is rejected, and the subscriber keeps its backlog for the next change or heartbeat.
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService sseSendExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${sse-send.platform.max-threads:" + DEFAULT_SSE_MAX_THREADS + "}") int maxThreads,
+            @Value("${sse-send.platform.queue-capacity:" + DEFAULT_SSE_QUEUE_CAPACITY + "}") int queueCapacity) {
+        if (!virtualThreads) {
+            log.info("SSE send executor uses up to {} platform threads and queues up to {} sends",
+                    maxThreads, queueCapacity);
+        }
+        return newSseSendExecutor(virtualThreads, maxThreads, queueCapacity);
+    }
+
+    static ExecutorService newOutboundIoExecutor(boolean virtualThreads) {
+        return newOutboundIoExecutor(virtualThreads, DEFAULT_MAX_THREADS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    static ExecutorService newOutboundIoExecutor(boolean virtualThreads, int maxThreads, int queueCapacity) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("outbound-io-", 0).factory());
+        }
+        return platformPool("outbound-io-", maxThreads, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    static ExecutorService newSseSendExecutor(boolean virtualThreads, int maxThreads, int queueCapacity) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-send-", 0).factory());
+        }
+        return platformPool("sse-send-", maxThreads, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static ExecutorService platformPool(String namePrefix, int maxThreads, int queueCapacity,
+            RejectedExecutionHandler whenFull) {
+        if (maxThreads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Executor thread and queue limits must be positive");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        // Core size equals max size so workers are added before tasks queue; idle workers still time out
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, whenFull);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
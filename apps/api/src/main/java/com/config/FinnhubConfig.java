@@ -0,0 +1,22 @@
+package com.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.external.finnhub.CircuitBreaker;
+
+@Configuration
+public class FinnhubConfig {
+
+    @Bean
+    public CircuitBreaker finnhubCircuitBreaker(
+            @Value("${finnhub.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${finnhub.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${finnhub.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${finnhub.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+            @Value("${finnhub.circuit-breaker.half-open-probes:3}") int halfOpenProbes) {
+        return new CircuitBreaker("finnhub", windowSize, minimumCalls, failureRateThreshold, openDurationMs,
+                halfOpenProbes);
+    }
+}
@@ -0,0 +1,196 @@
+package com.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Caps how many requests each named HTTP client has in flight at once.
+// This is a semaphore in front of the client, not its connection pool (the JDK HttpClient manages its connections
+// itself). A request holds its slot until the response is closed, so a provider that stops answering can only use up
+// its own client's slots; once they are all taken, further requests wait up to acquireTimeout and then fail fast.
+public class InFlightLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private enum Outcome {
+        SUCCESS, CLIENT_ERROR, SERVER_ERROR, IO_ERROR, UNKNOWN
+    }
+
+    private final String clientName;
+    private final int maxInFlight;
+    private final long acquireTimeoutNanos;
+    private final Semaphore slots;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Map<Outcome, Timer> requestTimers = new EnumMap<>(Outcome.class);
+    private final Timer acquireWait;
+    private final Counter rejected;
+
+    public InFlightLimitInterceptor(String clientName, int maxInFlight, long acquireTimeoutMs,
+            MeterRegistry meterRegistry) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("max-in-flight for HTTP client " + clientName + " must be positive");
+        }
+        this.clientName = clientName;
+        this.maxInFlight = maxInFlight;
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+        this.slots = new Semaphore(maxInFlight, true);
+        Gauge.builder("http.client.inflight.active", active, AtomicInteger::get)
+                .description("Requests currently in flight")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        Gauge.builder("http.client.inflight.pending", pending, AtomicInteger::get)
+                .description("Requests waiting for an in-flight slot")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        Gauge.builder("http.client.inflight.max", this, interceptor -> interceptor.maxInFlight)
+                .description("Requests the client may have in flight at once")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        this.acquireWait = Timer.builder("http.client.inflight.acquire")
+                .description("Time requests spent waiting for an in-flight slot")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("http.client.inflight.rejected")
+                .description("Requests rejected because no in-flight slot freed up in time")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        for (Outcome outcome : Outcome.values()) {
+            requestTimers.put(outcome, Timer.builder("http.client.inflight.requests")
+                    .description("Latency of outbound HTTP requests from sending to closing the response")
+                    .tag("client", clientName)
+                    .tag("outcome", outcome.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        acquireSlot(request);
+        active.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            return new SlotReleasingResponse(response, start);
+        } catch (IOException | RuntimeException e) {
+            releaseSlot(start, Outcome.IO_ERROR);
+            throw e;
+        }
+    }
+
+    private void acquireSlot(HttpRequest request) {
+        long waitStart = System.nanoTime();
+        pending.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlotUnavailableException("Interrupted while waiting for an in-flight slot for " + clientName);
+        } finally {
+            pending.decrementAndGet();
+            acquireWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new SlotUnavailableException("No free in-flight slot for " + clientName + " within "
+                    + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " ms: " + request.getMethod() + " "
+                    + request.getURI().getHost());
+        }
+    }
+
+    private void releaseSlot(long start, Outcome outcome) {
+        active.decrementAndGet();
+        slots.release();
+        requestTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static Outcome outcomeOf(HttpStatusCode status) {
+        if (status.is2xxSuccessful()) {
+            return Outcome.SUCCESS;
+        }
+        if (status.is4xxClientError()) {
+            return Outcome.CLIENT_ERROR;
+        }
+        if (status.is5xxServerError()) {
+            return Outcome.SERVER_ERROR;
+        }
+        return Outcome.UNKNOWN;
+    }
+
+    // Thrown before the request is sent, so callers can tell local back-pressure apart from an upstream failure
+    public static class SlotUnavailableException extends ResourceAccessException {
+        public SlotUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    // Callers always close the response once the body has been read, which is when the slot becomes free again
+    private final class SlotReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private SlotReleasingResponse(ClientHttpResponse delegate, long start) {
+            this.delegate = delegate;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            Outcome outcome = outcome();
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    releaseSlot(start, outcome);
+                }
+            }
+        }
+
+        private Outcome outcome() {
+            try {
+                return outcomeOf(delegate.getStatusCode());
+            } catch (IOException | RuntimeException e) {
+                return Outcome.UNKNOWN;
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.external.finnhub;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Count-based circuit breaker for calls to an upstream provider.
+// CLOSED records the outcome of the last windowSize calls and opens once enough of them failed or were rate limited.
+// OPEN rejects calls until openDuration has passed, then HALF_OPEN lets a few probe calls through:
+// if they all succeed the breaker closes again, and any failure reopens it.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public enum Outcome {
+        SUCCESS, FAILURE, RATE_LIMITED
+    }
+
+    private final String name;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Outcome[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int failures;
+    private int rateLimited;
+
+    private State state = State.CLOSED;
+    private long openUntilNanos;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold, long openDurationMs,
+            int halfOpenProbes) {
+        if (windowSize <= 0 || minimumCalls <= 0 || halfOpenProbes <= 0) {
+            throw new IllegalArgumentException("Circuit breaker window, minimum calls and probes must be positive");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("Circuit breaker failure rate threshold must be in (0, 1]");
+        }
+        this.name = name;
+        this.window = new Outcome[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Returns true when the caller may send a request. Every permitted call must be followed by
+    // record(outcome) or release() so half-open probe slots are given back.
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (state == State.OPEN && now - openUntilNanos >= 0) {
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probesSucceeded = 0;
+            }
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (probesInFlight + probesSucceeded >= halfOpenProbes) {
+                        yield false;
+                    }
+                    probesInFlight++;
+                    yield true;
+                }
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Gives back a permit for a call that was never sent
+    public void release() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && probesInFlight > 0) {
+                probesInFlight--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void record(Outcome outcome) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            switch (state) {
+                case CLOSED -> {
+                    addToWindow(outcome);
+                    if (windowCount >= minimumCalls && failureRateLocked() >= failureRateThreshold) {
+                        open(now, openDurationNanos);
+                    }
+                }
+                case HALF_OPEN -> {
+                    if (probesInFlight > 0) {
+                        probesInFlight--;
+                    }
+                    if (outcome == Outcome.SUCCESS) {
+                        probesSucceeded++;
+                        if (probesSucceeded >= halfOpenProbes) {
+                            close();
+                        }
+                    } else {
+                        open(now, openDurationNanos);
+                    }
+                }
+                case OPEN -> {
+                    // Late results from calls sent before the breaker opened do not change its state
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Keeps the breaker open for at least the given time, e.g. when the provider asked us to retry later
+    public void holdOpenFor(long nanos) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (state == State.OPEN && openUntilNanos - (now + nanos) >= 0) {
+                return;
+            }
+            open(now, Math.max(nanos, 0));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Share of failed or rate limited calls in the current window
+    public double getFailureRate() {
+        lock.lock();
+        try {
+            return failureRateLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addToWindow(Outcome outcome) {
+        Outcome evicted = window[windowIndex];
+        if (evicted != null) {
+            adjustCounts(evicted, -1);
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = outcome;
+        adjustCounts(outcome, 1);
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void adjustCounts(Outcome outcome, int delta) {
+        if (outcome == Outcome.FAILURE) {
+            failures += delta;
+        } else if (outcome == Outcome.RATE_LIMITED) {
+            rateLimited += delta;
+        }
+    }
+
+    private double failureRateLocked() {
+        return windowCount == 0 ? 0.0 : (double) (failures + rateLimited) / windowCount;
+    }
+
+    private void open(long now, long durationNanos) {
+        state = State.OPEN;
+        openUntilNanos = now + durationNanos;
+        probesInFlight = 0;
+        probesSucceeded = 0;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        Arrays.fill(window, null);
+        windowIndex = 0;
+        windowCount = 0;
+        failures = 0;
+        rateLimited = 0;
+    }
+}
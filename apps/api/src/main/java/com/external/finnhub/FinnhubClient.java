@@ -3,7 +3,14 @@ package com.external.finnhub;
 import java.util.Map;
 import java.util.Optional;
 
+import com.external.marketdata.MarketQuote;
+
 public interface FinnhubClient {
     Optional<Double> getQuote(String symbol);
     Map<String, Double> getQuotes(String symbols);
+    Map<String, MarketQuote> getFullQuotes(String symbols);
+
+    // Quote requests Finnhub answered since startup; requests failed fast, skipped or left without a response are not
+    // counted
+    long getRequestsSent();
 }
@@ -1,37 +1,316 @@
 package com.external.finnhub;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.config.InFlightLimitInterceptor;
+import com.external.marketdata.MarketQuote;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Component
 public class FinnhubClientImpl implements FinnhubClient {
 
     private static final Logger log = LoggerFactory.getLogger(FinnhubClientImpl.class);
     private static final String FINNHUB_BASE_URL = "https://finnhub.io/api/v1";
+    private static final long INITIAL_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
 
     private final String apiKey;
     private final RestTemplate restTemplate;
-
-    public FinnhubClientImpl(RestTemplate restTemplate, @Value("${finnhub.api.key:}") String apiKey) {
+    private final SlidingWindowRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final long maxBackoffNanos;
+    private final AtomicLong currentBackoffNanos = new AtomicLong();
+    private final ExecutorService outboundIoExecutor;
+    private final Semaphore concurrencyLimit;
+    private final LongAdder requestsSent = new LongAdder();
+    private final int maxConcurrency;
+    private final Timer quoteLatency;
+    private final Timer rateLimiterWait;
+    private final Counter rateLimiterWaits;
+    private final Counter coalescedRequests;
+    private final Counter rejectedRequests;
+    private final Counter rateLimitedResponses;
+    private final Map<String, CompletableFuture<Optional<MarketQuote>>> inFlightQuotes = new ConcurrentHashMap<>();
+
+    public FinnhubClientImpl(
+            @Qualifier("marketDataRestTemplate") RestTemplate restTemplate,
+            MeterRegistry meterRegistry,
+            CircuitBreaker finnhubCircuitBreaker,
+            @Qualifier("outboundIoExecutor") ExecutorService outboundIoExecutor,
+            @Value("${finnhub.api.key:}") String apiKey,
+            @Value("${finnhub.quotes.max-concurrency:8}") int maxConcurrency,
+            @Value("${finnhub.quotes.requests-per-second:30}") int requestsPerSecond,
+            @Value("${finnhub.quotes.requests-per-minute:60}") int requestsPerMinute,
+            @Value("${finnhub.backoff.max-ms:60000}") long maxBackoffMs) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("finnhub.quotes.max-concurrency must be positive");
+        }
         this.restTemplate = restTemplate;
         this.apiKey = apiKey;
+        this.maxConcurrency = maxConcurrency;
+        this.rateLimiter = new SlidingWindowRateLimiter(requestsPerSecond, requestsPerMinute);
+        this.circuitBreaker = finnhubCircuitBreaker;
+        this.maxBackoffNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(maxBackoffMs), INITIAL_BACKOFF_NANOS);
+        this.outboundIoExecutor = outboundIoExecutor;
+        this.concurrencyLimit = new Semaphore(maxConcurrency);
+        this.quoteLatency = Timer.builder("finnhub.quote.latency")
+                .description("Latency of a single Finnhub quote request, excluding rate limiter waits")
+                .register(meterRegistry);
+        this.rateLimiterWait = Timer.builder("finnhub.ratelimiter.wait")
+                .description("Time quote requests spent waiting for a rate limiter token")
+                .register(meterRegistry);
+        this.rateLimiterWaits = Counter.builder("finnhub.ratelimiter.waits")
+                .description("Quote requests that had to wait for a rate limiter token")
+                .register(meterRegistry);
+        this.coalescedRequests = Counter.builder("finnhub.quote.coalesced")
+                .description("Quote requests served by an in-flight request for the same symbol instead of a new upstream call")
+                .register(meterRegistry);
+        this.rejectedRequests = Counter.builder("finnhub.circuit.rejected")
+                .description("Quote requests failed fast because the Finnhub circuit breaker was open")
+                .register(meterRegistry);
+        this.rateLimitedResponses = Counter.builder("finnhub.quote.ratelimited")
+                .description("Quote requests rejected by Finnhub with HTTP 429")
+                .register(meterRegistry);
+        // One gauge per state reporting 1 for the current state, so dashboards can plot time spent in each
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("finnhub.circuit.state", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                    .description("Current state of the Finnhub circuit breaker")
+                    .tag("state", state.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("finnhub.circuit.failure.rate", circuitBreaker, CircuitBreaker::getFailureRate)
+                .description("Share of recent Finnhub quote requests that failed or were rate limited")
+                .register(meterRegistry);
+        Gauge.builder("finnhub.backoff", currentBackoffNanos, backoff -> backoff.get() / 1_000_000.0)
+                .description("Current backoff in milliseconds applied after Finnhub rate limited us")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
     }
 
     @Override
     public Optional<Double> getQuote(String symbol) {
+        return getQuote(symbol, new LongAdder(), new AtomicBoolean()).map(MarketQuote::price);
+    }
+
+    @Override
+    public Map<String, Double> getQuotes(String symbols) {
+        Map<String, Double> prices = new HashMap<>();
+        getFullQuotes(symbols).forEach((symbol, quote) -> prices.put(symbol, quote.price()));
+        return prices;
+    }
+
+    @Override
+    public Map<String, MarketQuote> getFullQuotes(String symbols) {
+        List<String> symbolList = Arrays.stream(symbols.split(","))
+                .map(String::trim)
+                .filter(symbol -> !symbol.isEmpty())
+                .distinct()
+                .toList();
+
+        long start = System.nanoTime();
+        LongAdder limiterWaits = new LongAdder();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        Map<String, CompletableFuture<Optional<MarketQuote>>> pending = new LinkedHashMap<>();
+        // A symbol's task is only submitted once it holds one of the maxConcurrency permits, so a large refresh never
+        // parks more than maxConcurrency threads of the shared outbound executor; the shared rate limiter then decides
+        // when each request may actually be sent. If the caller is interrupted (a hedged request lost the race),
+        // nothing more is submitted and tasks that have not sent yet skip the request.
+        for (String symbol : symbolList) {
+            try {
+                concurrencyLimit.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandoned.set(true);
+                break;
+            }
+            try {
+                pending.put(symbol, CompletableFuture.supplyAsync(
+                        () -> getQuoteWithPermit(symbol, limiterWaits, abandoned), outboundIoExecutor));
+            } catch (RejectedExecutionException e) {
+                concurrencyLimit.release();
+                throw e;
+            }
+        }
+
+        Map<String, MarketQuote> result = new HashMap<>();
+        for (Map.Entry<String, CompletableFuture<Optional<MarketQuote>>> entry : pending.entrySet()) {
+            if (abandoned.get()) {
+                break;
+            }
+            Optional<MarketQuote> quote;
+            try {
+                quote = entry.getValue().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandoned.set(true);
+                break;
+            } catch (ExecutionException e) {
+                log.error("Failed to fetch quote for {}: {}", entry.getKey(), e.getCause().getMessage());
+                quote = Optional.empty();
+            }
+
+            if (quote.isPresent()) {
+                result.put(entry.getKey().toUpperCase(), quote.get());
+            } else {
+                log.warn("Failed to get price for symbol: {}", entry.getKey());
+            }
+        }
+
+        if (abandoned.get()) {
+            log.warn("Quote fetch interrupted after {}/{} quotes; skipping requests not yet sent",
+                    result.size(), symbolList.size());
+        }
+        log.info("Fetched {}/{} quotes in {} ms with up to {} requests in flight; {} requests waited on the rate limiter",
+                result.size(), symbolList.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                maxConcurrency, limiterWaits.sum());
+        return result;
+    }
+
+    @Override
+    public long getRequestsSent() {
+        return requestsSent.sum();
+    }
+
+    // Runs with a permit taken by getFullQuotes and always gives it back
+    private Optional<MarketQuote> getQuoteWithPermit(String symbol, LongAdder limiterWaits, AtomicBoolean abandoned) {
+        try {
+            if (abandoned.get()) {
+                return Optional.empty();
+            }
+            return getQuote(symbol, limiterWaits, abandoned);
+        } finally {
+            concurrencyLimit.release();
+        }
+    }
+
+    private Optional<MarketQuote> getQuote(String symbol, LongAdder limiterWaits, AtomicBoolean abandoned) {
         if (apiKey == null || apiKey.isBlank()) {
             log.warn("Finnhub API key is not configured; skipping quote fetch for {}", symbol);
             return Optional.empty();
         }
 
+        // Single-flight: concurrent callers asking for the same symbol share one upstream request
+        String normalizedSymbol = symbol.toUpperCase();
+        while (true) {
+            CompletableFuture<Optional<MarketQuote>> call = new CompletableFuture<>();
+            CompletableFuture<Optional<MarketQuote>> inFlight = inFlightQuotes.putIfAbsent(normalizedSymbol, call);
+            if (inFlight == null) {
+                return fetchShared(normalizedSymbol, call, limiterWaits, abandoned);
+            }
+            coalescedRequests.increment();
+            Optional<MarketQuote> shared = awaitInFlightQuote(normalizedSymbol, inFlight);
+            if (shared != null) {
+                return shared;
+            }
+            // The leading caller gave up before it had an answer; unless this caller has too, it asks again itself
+            if (abandoned.get() || Thread.currentThread().isInterrupted()) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    // Followers only see the outcome of a fetch that ran to completion. When the leader was cancelled (a hedged batch
+    // that lost, or an interrupted caller) before it got a quote, its empty result says nothing about the symbol, so the
+    // shared call fails and each follower retries on its own behalf instead of inheriting the cancellation.
+    private Optional<MarketQuote> fetchShared(String symbol, CompletableFuture<Optional<MarketQuote>> call,
+            LongAdder limiterWaits, AtomicBoolean abandoned) {
+        Optional<MarketQuote> quote = Optional.empty();
+        boolean answered = false;
+        try {
+            quote = fetchQuote(symbol, limiterWaits, abandoned);
+            answered = quote.isPresent() || !(abandoned.get() || Thread.currentThread().isInterrupted());
+            return quote;
+        } finally {
+            inFlightQuotes.remove(symbol, call);
+            if (answered) {
+                call.complete(quote);
+            } else {
+                call.completeExceptionally(new CancellationException("Quote request for " + symbol + " was abandoned"));
+            }
+        }
+    }
+
+    // Null when the leading request was abandoned without an answer
+    private Optional<MarketQuote> awaitInFlightQuote(String symbol, CompletableFuture<Optional<MarketQuote>> inFlight) {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for in-flight quote for {}", symbol);
+            return Optional.empty();
+        } catch (CancellationException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    private Optional<MarketQuote> fetchQuote(String symbol, LongAdder limiterWaits, AtomicBoolean abandoned) {
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedRequests.increment();
+            log.debug("Finnhub circuit breaker is {}; failing fast for {}", circuitBreaker.getState(), symbol);
+            return Optional.empty();
+        }
+
+        try {
+            long waitedNanos = rateLimiter.acquire();
+            if (waitedNanos > 0) {
+                limiterWaits.increment();
+                rateLimiterWaits.increment();
+                rateLimiterWait.record(waitedNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.release();
+            log.warn("Rate limiter wait interrupted; skipping quote fetch for {}", symbol);
+            return Optional.empty();
+        }
+
+        // The caller may have given up, or the breaker opened, while this request was queued behind the rate limiter
+        if (abandoned.get()) {
+            circuitBreaker.release();
+            return Optional.empty();
+        }
+        if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            circuitBreaker.release();
+            rejectedRequests.increment();
+            return Optional.empty();
+        }
+
+        long start = System.nanoTime();
         try {
             String url = UriComponentsBuilder.fromUriString(FINNHUB_BASE_URL)
                     .path("/quote")
@@ -41,54 +320,90 @@ public class FinnhubClientImpl implements FinnhubClient {
                     .toUriString();
 
             FinnhubQuoteResponse response = restTemplate.getForObject(url, FinnhubQuoteResponse.class);
+            requestsSent.increment();
+            // Finnhub answered, so the provider is healthy even if it has no price for this symbol
+            circuitBreaker.record(CircuitBreaker.Outcome.SUCCESS);
+            currentBackoffNanos.set(0);
 
             if (response == null || response.getC() == null || response.getC() == 0) {
                 log.warn("Invalid quote data for symbol: {}", symbol);
                 return Optional.empty();
             }
 
-            return Optional.of(response.getC());
+            return Optional.of(toMarketQuote(symbol, response));
+        } catch (InFlightLimitInterceptor.SlotUnavailableException e) {
+            // Our own HTTP client had no free slot, so nothing reached Finnhub and nothing counts against it
+            circuitBreaker.release();
+            log.warn("Skipping quote fetch for {}: {}", symbol, e.getMessage());
+            return Optional.empty();
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            requestsSent.increment();
+            rateLimitedResponses.increment();
+            circuitBreaker.record(CircuitBreaker.Outcome.RATE_LIMITED);
+            long backoffNanos = nextBackoffNanos(e.getResponseHeaders());
+            circuitBreaker.holdOpenFor(backoffNanos);
+            log.warn("Finnhub rate limited the quote request for {}; backing off for {} ms",
+                    symbol, TimeUnit.NANOSECONDS.toMillis(backoffNanos));
+            return Optional.empty();
+        } catch (RestClientResponseException e) {
+            // Finnhub answered with an error status, so the request was sent and counts against the quota
+            requestsSent.increment();
+            circuitBreaker.record(CircuitBreaker.Outcome.FAILURE);
+            log.error("Failed to fetch quote for {}: {}", symbol, e.getMessage());
+            return Optional.empty();
         } catch (Exception e) {
+            // No response came back, so it is not known to have reached Finnhub and is not counted as sent
+            if (Thread.currentThread().isInterrupted()) {
+                // Cancelled by the caller, which says nothing about Finnhub's health
+                circuitBreaker.release();
+                log.debug("Quote request for {} was interrupted", symbol);
+                return Optional.empty();
+            }
+            circuitBreaker.record(CircuitBreaker.Outcome.FAILURE);
             log.error("Failed to fetch quote for {}: {}", symbol, e.getMessage());
             return Optional.empty();
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            quoteLatency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            log.debug("Quote request for {} took {} ms", symbol, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
         }
     }
 
-    @Override
-    public Map<String, Double> getQuotes(String symbols) {
-        Map<String, Double> result = new HashMap<>();
-        String[] symbolList = symbols.split(",");
-
-        for (int i = 0; i < symbolList.length; i++) {
-            String symbol = symbolList[i];
-            String trimmedSymbol = symbol.trim();
-            if (trimmedSymbol.isEmpty()) {
-                continue;
-            }
-
-            Optional<Double> price = getQuote(trimmedSymbol);
-            if (price.isPresent()) {
-                result.put(trimmedSymbol.toUpperCase(), price.get());
-            } else {
-                log.warn("Failed to get price for symbol: {}", trimmedSymbol);
-            }
-
-            if (i < symbolList.length - 1) {
-                try {
-                    sleepBetweenRequests();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.warn("Rate limiting sleep interrupted");
-                    break;
-                }
-            }
-        }
+    private static MarketQuote toMarketQuote(String symbol, FinnhubQuoteResponse response) {
+        // Finnhub reports the quote time as epoch seconds; fall back to now when it is missing
+        Instant quotedAt = response.getT() == null || response.getT() == 0
+                ? Instant.now()
+                : Instant.ofEpochSecond(response.getT());
+        return new MarketQuote(symbol.toUpperCase(), response.getC(), response.getO(), response.getH(), response.getL(),
+                response.getPc(), response.getD(), response.getDp(), quotedAt);
+    }
 
-        return result;
+    // Honours Retry-After when Finnhub sends it; otherwise doubles the previous backoff up to the configured maximum
+    private long nextBackoffNanos(HttpHeaders headers) {
+        Optional<Long> retryAfter = parseRetryAfterNanos(headers);
+        long backoff = currentBackoffNanos.updateAndGet(previous -> retryAfter
+                .orElseGet(() -> previous == 0 ? INITIAL_BACKOFF_NANOS : Math.min(previous * 2, maxBackoffNanos)));
+        return Math.min(backoff, maxBackoffNanos);
     }
 
-    protected void sleepBetweenRequests() throws InterruptedException {
-        Thread.sleep(1100);
+    static Optional<Long> parseRetryAfterNanos(HttpHeaders headers) {
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(TimeUnit.SECONDS.toNanos(Math.max(Long.parseLong(value.trim()), 0)));
+        } catch (NumberFormatException e) {
+            // Retry-After may also be an HTTP date
+        }
+        try {
+            ZonedDateTime retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt);
+            return Optional.of(Math.max(delay.toNanos(), 0));
+        } catch (DateTimeParseException e) {
+            log.debug("Ignoring unparseable Retry-After header: {}", value);
+            return Optional.empty();
+        }
     }
 
     static class FinnhubQuoteResponse {
@@ -0,0 +1,272 @@
+package com.external.finnhub;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+// WebSocket client for the Finnhub trade feed.
+// Keeps one connection open, re-subscribes after reconnects and forwards every trade tick to the registered listeners.
+@Component
+@ConditionalOnProperty(name = "market-data.mode", havingValue = "streaming")
+public class FinnhubTradeStreamClient implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(FinnhubTradeStreamClient.class);
+    private static final long MAX_RECONNECT_DELAY_SECONDS = 60;
+
+    // Receives a single trade tick from the stream
+    @FunctionalInterface
+    public interface TradeListener {
+        void onTrade(String symbol, double price, long timestampMillis);
+    }
+
+    private final String streamUrl;
+    private final String apiKey;
+    private final HttpClient httpClient;
+    private final JsonMapper jsonMapper;
+    private final Set<String> subscribedSymbols = ConcurrentHashMap.newKeySet();
+    private final List<TradeListener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService reconnectScheduler;
+    private final ReentrantLock sendLock = new ReentrantLock();
+
+    private volatile boolean running;
+    private volatile WebSocket webSocket;
+    private CompletableFuture<WebSocket> sendChain = CompletableFuture.completedFuture(null);
+    private int reconnectAttempts;
+
+    public FinnhubTradeStreamClient(
+            @Value("${finnhub.stream.url:wss://ws.finnhub.io}") String streamUrl,
+            @Value("${finnhub.api.key:}") String apiKey,
+            JsonMapper jsonMapper) {
+        this.streamUrl = streamUrl;
+        this.apiKey = apiKey;
+        this.jsonMapper = jsonMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.reconnectScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "finnhub-stream-reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void addTradeListener(TradeListener listener) {
+        listeners.add(listener);
+    }
+
+    // Replaces the subscribed symbol set, sending subscribe/unsubscribe messages only for the difference
+    public void updateSubscriptions(Collection<String> symbols) {
+        Set<String> target = symbols.stream()
+                .map(symbol -> symbol.trim().toUpperCase())
+                .filter(symbol -> !symbol.isEmpty())
+                .collect(Collectors.toSet());
+
+        for (String symbol : Set.copyOf(subscribedSymbols)) {
+            if (!target.contains(symbol) && subscribedSymbols.remove(symbol)) {
+                send(subscriptionMessage("unsubscribe", symbol));
+            }
+        }
+        for (String symbol : target) {
+            if (subscribedSymbols.add(symbol)) {
+                send(subscriptionMessage("subscribe", symbol));
+            }
+        }
+    }
+
+    public boolean isConnected() {
+        return webSocket != null;
+    }
+
+    @Override
+    public void start() {
+        if (apiKey == null || apiKey.isBlank()) {
+            log.warn("Finnhub API key is not configured; trade stream will not connect");
+            return;
+        }
+        running = true;
+        connect();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        reconnectScheduler.shutdownNow();
+        WebSocket current = webSocket;
+        webSocket = null;
+        if (current != null) {
+            current.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void connect() {
+        if (!running) {
+            return;
+        }
+        URI uri = UriComponentsBuilder.fromUriString(streamUrl)
+                .queryParam("token", apiKey)
+                .build()
+                .toUri();
+
+        httpClient.newWebSocketBuilder()
+                .buildAsync(uri, new StreamListener())
+                .whenComplete((ws, error) -> {
+                    if (error != null) {
+                        log.warn("Failed to connect to trade stream {}: {}", streamUrl, error.getMessage());
+                        scheduleReconnect();
+                    }
+                });
+    }
+
+    private void scheduleReconnect() {
+        if (!running) {
+            return;
+        }
+        long delaySeconds;
+        sendLock.lock();
+        try {
+            delaySeconds = Math.min(MAX_RECONNECT_DELAY_SECONDS, 1L << Math.min(reconnectAttempts, 6));
+            reconnectAttempts++;
+        } finally {
+            sendLock.unlock();
+        }
+        log.info("Reconnecting to trade stream in {} s", delaySeconds);
+        reconnectScheduler.schedule(this::connect, delaySeconds, TimeUnit.SECONDS);
+    }
+
+    private void send(String message) {
+        sendLock.lock();
+        try {
+            WebSocket current = webSocket;
+            if (current == null) {
+                // Subscriptions are replayed in onOpen once a connection is available
+                return;
+            }
+            // The JDK WebSocket rejects overlapping sends, so messages are chained one after another
+            sendChain = sendChain
+                    .thenCompose(ignored -> current.sendText(message, true))
+                    .exceptionally(error -> {
+                        log.warn("Failed to send trade stream message: {}", error.getMessage());
+                        return current;
+                    });
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private String subscriptionMessage(String type, String symbol) {
+        return jsonMapper.writeValueAsString(new SubscriptionMessage(type, symbol));
+    }
+
+    void handleMessage(String message) {
+        StreamMessage parsed;
+        try {
+            parsed = jsonMapper.readValue(message, StreamMessage.class);
+        } catch (JacksonException e) {
+            log.warn("Ignoring unreadable trade stream message: {}", e.getOriginalMessage());
+            return;
+        }
+
+        if (!"trade".equals(parsed.type()) || parsed.data() == null) {
+            return;
+        }
+
+        for (TradeTick trade : parsed.data()) {
+            if (trade == null || trade.s() == null || trade.s().isEmpty() || trade.p() == null || trade.p() <= 0) {
+                continue;
+            }
+            long timestamp = trade.t() == null ? System.currentTimeMillis() : trade.t();
+            for (TradeListener listener : listeners) {
+                listener.onTrade(trade.s(), trade.p(), timestamp);
+            }
+        }
+    }
+
+    private record SubscriptionMessage(String type, String symbol) {
+    }
+
+    // Finnhub's trade message: {"type":"trade","data":[{"s":symbol,"p":price,"t":epoch millis,"v":volume}]}
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record StreamMessage(String type, List<TradeTick> data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record TradeTick(String s, Double p, Long t) {
+    }
+
+    private final class StreamListener implements WebSocket.Listener {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public void onOpen(WebSocket ws) {
+            sendLock.lock();
+            try {
+                webSocket = ws;
+                sendChain = CompletableFuture.completedFuture(ws);
+                reconnectAttempts = 0;
+            } finally {
+                sendLock.unlock();
+            }
+            log.info("Connected to trade stream; subscribing to {} symbols", subscribedSymbols.size());
+            subscribedSymbols.forEach(symbol -> send(subscriptionMessage("subscribe", symbol)));
+            ws.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                String message = buffer.toString();
+                buffer.setLength(0);
+                handleMessage(message);
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            log.warn("Trade stream closed ({}): {}", statusCode, reason);
+            webSocket = null;
+            scheduleReconnect();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            log.warn("Trade stream error: {}", error.getMessage());
+            webSocket = null;
+            scheduleReconnect();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.external.finnhub;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Enforces a per-second and a per-minute request quota at the same time with a sliding-window log for each.
+// A window remembers when its last quota-many permits were granted, and a request may only proceed once the oldest of
+// them is a full period old in both windows. No rolling second or minute can therefore carry more than its quota,
+// however long the limiter sat idle before a burst; a token bucket would allow its capacity plus the refill.
+public class SlidingWindowRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    private final Window secondWindow;
+    private final Window minuteWindow;
+    private final LongSupplier clock;
+    private final Sleeper sleeper;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public SlidingWindowRateLimiter(int requestsPerSecond, int requestsPerMinute) {
+        this(requestsPerSecond, requestsPerMinute, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    SlidingWindowRateLimiter(int requestsPerSecond, int requestsPerMinute, LongSupplier clock, Sleeper sleeper) {
+        if (requestsPerSecond <= 0 || requestsPerMinute <= 0) {
+            throw new IllegalArgumentException("Rate limits must be positive");
+        }
+        this.secondWindow = new Window(requestsPerSecond, NANOS_PER_SECOND);
+        this.minuteWindow = new Window(requestsPerMinute, NANOS_PER_MINUTE);
+        this.clock = clock;
+        this.sleeper = sleeper;
+    }
+
+    // Blocks until both windows have room and returns the time spent waiting in nanoseconds
+    public long acquire() throws InterruptedException {
+        long start = clock.getAsLong();
+        boolean waited = false;
+        while (true) {
+            long waitNanos;
+            lock.lock();
+            try {
+                long now = clock.getAsLong();
+                waitNanos = Math.max(secondWindow.nanosUntilPermit(now), minuteWindow.nanosUntilPermit(now));
+                if (waitNanos <= 0) {
+                    secondWindow.record(now);
+                    minuteWindow.record(now);
+                    return waited ? now - start : 0;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Sleep outside the lock so other callers can compute their own waits
+            sleeper.sleep(waitNanos);
+            waited = true;
+        }
+    }
+
+    // Ring buffer of the last limit grant times; once full, next points at the oldest
+    private static final class Window {
+        private final long[] grants;
+        private final long periodNanos;
+        private int next;
+        private int count;
+
+        private Window(int limit, long periodNanos) {
+            this.grants = new long[limit];
+            this.periodNanos = periodNanos;
+        }
+
+        private long nanosUntilPermit(long now) {
+            if (count < grants.length) {
+                return 0;
+            }
+            return grants[next] + periodNanos - now;
+        }
+
+        private void record(long now) {
+            grants[next] = now;
+            next = (next + 1) % grants.length;
+            if (count < grants.length) {
+                count++;
+            }
+        }
+    }
+}
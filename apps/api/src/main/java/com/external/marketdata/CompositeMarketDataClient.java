@@ -0,0 +1,288 @@
+package com.external.marketdata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Routes quote requests across every registered MarketDataProvider.
+// Providers are tried in priority order, demoting any whose recent error rate is too high. If the chosen provider
+// has not answered within the latency budget, a hedged request goes to the next provider and the first useful answer wins.
+// The hedge delay is the provider's tail latency per symbol scaled to the batch size, so a one-symbol request is not
+// held to the threshold of a hundred-symbol refresh. The losing call is interrupted as soon as the other one answers,
+// which stops it before it sends any upstream request it has not sent yet.
+// Symbols that a provider could not price fail over to the next provider.
+@Primary
+@Component
+public class CompositeMarketDataClient implements MarketDataClient {
+
+    private static final Logger log = LoggerFactory.getLogger(CompositeMarketDataClient.class);
+    private static final int STATS_WINDOW = 200;
+    private static final int MIN_SAMPLES_FOR_ROUTING = 20;
+
+    private final List<ProviderHandle> providers;
+    private final long latencyBudgetNanos;
+    private final double maxErrorRate;
+    private final ExecutorService hedgeExecutor;
+    private final Counter hedgedRequests;
+
+    public CompositeMarketDataClient(
+            List<MarketDataProvider> providers,
+            MeterRegistry meterRegistry,
+            @Qualifier("outboundIoExecutor") ExecutorService outboundIoExecutor,
+            @Value("${market-data.hedge.latency-budget-ms:5000}") long latencyBudgetMs,
+            @Value("${market-data.hedge.max-error-rate:0.5}") double maxErrorRate) {
+        if (providers.isEmpty()) {
+            throw new IllegalStateException("At least one market data provider must be configured");
+        }
+        this.providers = providers.stream()
+                .map(provider -> new ProviderHandle(provider, meterRegistry))
+                .toList();
+        this.latencyBudgetNanos = TimeUnit.MILLISECONDS.toNanos(latencyBudgetMs);
+        this.maxErrorRate = maxErrorRate;
+        this.hedgeExecutor = outboundIoExecutor;
+        this.hedgedRequests = Counter.builder("marketdata.provider.hedged")
+                .description("Hedged requests sent because the preferred provider exceeded its latency budget")
+                .register(meterRegistry);
+        log.info("Market data providers: {}", this.providers.stream()
+                .map(handle -> handle.provider.getProviderName() + "(priority " + handle.provider.getPriority() + ")")
+                .toList());
+    }
+
+    @Override
+    public Map<String, MarketQuote> getQuotes(String symbols) {
+        List<String> remaining = Arrays.stream(symbols.split(","))
+                .map(symbol -> symbol.trim().toUpperCase())
+                .filter(symbol -> !symbol.isEmpty())
+                .distinct()
+                .toList();
+        Map<String, MarketQuote> quotes = new HashMap<>();
+        List<ProviderHandle> candidates = new ArrayList<>(route());
+
+        while (!remaining.isEmpty() && !candidates.isEmpty()) {
+            ProviderHandle primary = candidates.remove(0);
+            ProviderHandle secondary = candidates.isEmpty() ? null : candidates.get(0);
+
+            HedgedResult answer = fetchHedged(primary, secondary, remaining);
+            if (answer.secondaryAsked()) {
+                candidates.remove(secondary);
+            }
+            quotes.putAll(answer.quotes());
+            remaining = remaining.stream()
+                    .filter(symbol -> !answer.quotes().containsKey(symbol))
+                    .toList();
+            if (!remaining.isEmpty() && !candidates.isEmpty()) {
+                log.info("Failing over {} unpriced symbols to the next provider", remaining.size());
+            }
+        }
+        return quotes;
+    }
+
+    @Override
+    public long getUpstreamRequests() {
+        return providers.stream().mapToLong(handle -> handle.provider.getUpstreamRequests()).sum();
+    }
+
+    // Providers ordered by health first, then configured priority, then observed median latency
+    List<MarketDataProvider> routingOrder() {
+        return route().stream().map(handle -> handle.provider).toList();
+    }
+
+    private List<ProviderHandle> route() {
+        Map<ProviderHandle, ProviderStats.Snapshot> snapshots = new LinkedHashMap<>();
+        providers.forEach(handle -> snapshots.put(handle, handle.stats.snapshot()));
+        return providers.stream()
+                .sorted(Comparator
+                        .comparing((ProviderHandle handle) -> isUnhealthy(snapshots.get(handle)))
+                        .thenComparingInt(handle -> handle.provider.getPriority())
+                        .thenComparingLong(handle -> snapshots.get(handle).p50Nanos()))
+                .toList();
+    }
+
+    private boolean isUnhealthy(ProviderStats.Snapshot snapshot) {
+        return snapshot.samples() >= MIN_SAMPLES_FOR_ROUTING && snapshot.errorRate() > maxErrorRate;
+    }
+
+    private HedgedResult fetchHedged(ProviderHandle primary, ProviderHandle secondary, List<String> symbols) {
+        String joined = String.join(",", symbols);
+        Call primaryCall = start(primary, joined, symbols.size());
+
+        if (secondary == null) {
+            return new HedgedResult(await(primaryCall.result()), false);
+        }
+
+        try {
+            Map<String, MarketQuote> quotes =
+                    primaryCall.result().get(hedgeDelayNanos(primary, symbols.size()), TimeUnit.NANOSECONDS);
+            return new HedgedResult(quotes, false);
+        } catch (TimeoutException e) {
+            log.info("Provider {} exceeded its latency budget for {} symbols; hedging with {}",
+                    primary.provider.getProviderName(), symbols.size(), secondary.provider.getProviderName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primaryCall.cancel();
+            return new HedgedResult(Map.of(), false);
+        } catch (ExecutionException e) {
+            return new HedgedResult(Map.of(), false);
+        }
+
+        hedgedRequests.increment();
+        Call secondaryCall = start(secondary, joined, symbols.size());
+
+        // First non-empty answer wins and the other call is cancelled; if both come back empty or partial, merge
+        // whatever arrived. secondaryAsked tells the caller whether the secondary has already been used for these symbols.
+        CompletableFuture<HedgedResult> winner = new CompletableFuture<>();
+        primaryCall.result().thenAccept(quotes -> {
+            if (completeIfUseful(winner, new HedgedResult(quotes, false))) {
+                secondaryCall.cancel();
+            }
+        });
+        secondaryCall.result().thenAccept(quotes -> {
+            if (completeIfUseful(winner, new HedgedResult(quotes, true))) {
+                primaryCall.cancel();
+            }
+        });
+        CompletableFuture.allOf(primaryCall.result(), secondaryCall.result()).whenComplete((ignored, error) -> {
+            Map<String, MarketQuote> merged = new HashMap<>();
+            merged.putAll(primaryCall.result().getNow(Map.of()));
+            merged.putAll(secondaryCall.result().getNow(Map.of()));
+            winner.complete(new HedgedResult(merged, true));
+        });
+        try {
+            return winner.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primaryCall.cancel();
+            secondaryCall.cancel();
+            return new HedgedResult(Map.of(), true);
+        } catch (ExecutionException e) {
+            return new HedgedResult(Map.of(), true);
+        }
+    }
+
+    private Call start(ProviderHandle handle, String symbols, int symbolCount) {
+        CompletableFuture<Map<String, MarketQuote>> result = new CompletableFuture<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Future<?> task = hedgeExecutor.submit(() -> result.complete(handle.fetch(symbols, symbolCount, cancelled)));
+        return new Call(result, task, cancelled);
+    }
+
+    // Package-private so tests can check how the delay scales with the batch size
+    long hedgeDelayNanos(MarketDataProvider provider, int symbolCount) {
+        return providers.stream()
+                .filter(handle -> handle.provider == provider)
+                .findFirst()
+                .map(handle -> hedgeDelayNanos(handle, symbolCount))
+                .orElse(latencyBudgetNanos);
+    }
+
+    private long hedgeDelayNanos(ProviderHandle provider, int symbolCount) {
+        ProviderStats.Snapshot snapshot = provider.stats.snapshot();
+        if (snapshot.samples() < MIN_SAMPLES_FOR_ROUTING) {
+            return latencyBudgetNanos;
+        }
+        // Hedge at the provider's own tail latency for a batch this size when it is normally faster than the budget
+        long expected = snapshot.p99Nanos() > latencyBudgetNanos / symbolCount
+                ? latencyBudgetNanos
+                : snapshot.p99Nanos() * symbolCount;
+        return Math.min(latencyBudgetNanos, Math.max(expected, 1));
+    }
+
+    private static boolean completeIfUseful(CompletableFuture<HedgedResult> winner, HedgedResult result) {
+        return !result.quotes().isEmpty() && winner.complete(result);
+    }
+
+    private static Map<String, MarketQuote> await(CompletableFuture<Map<String, MarketQuote>> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Map.of();
+        } catch (ExecutionException e) {
+            return Map.of();
+        }
+    }
+
+    private record HedgedResult(Map<String, MarketQuote> quotes, boolean secondaryAsked) {
+    }
+
+    // A provider call running on the hedge executor; cancelling interrupts it and completes it with no quotes
+    private record Call(CompletableFuture<Map<String, MarketQuote>> result, Future<?> task, AtomicBoolean cancelled) {
+
+        private void cancel() {
+            if (!result.isDone() && cancelled.compareAndSet(false, true)) {
+                task.cancel(true);
+                result.complete(Map.of());
+            }
+        }
+    }
+
+    private static final class ProviderHandle {
+        private final MarketDataProvider provider;
+        private final ProviderStats stats = new ProviderStats(STATS_WINDOW);
+        private final Timer latency;
+        private final Counter errors;
+
+        private ProviderHandle(MarketDataProvider provider, MeterRegistry meterRegistry) {
+            this.provider = provider;
+            String name = provider.getProviderName();
+            this.latency = Timer.builder("marketdata.provider.latency")
+                    .description("Latency of quote requests per market data provider")
+                    .tag("provider", name)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            this.errors = Counter.builder("marketdata.provider.errors")
+                    .description("Quote requests that failed or returned no quotes, per provider")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            Gauge.builder("marketdata.provider.error.rate", stats, s -> s.snapshot().errorRate())
+                    .description("Error rate over the provider's recent requests")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+        }
+
+        private Map<String, MarketQuote> fetch(String symbols, int symbolCount, AtomicBoolean cancelled) {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Map<String, MarketQuote> quotes = provider.getQuotes(symbols);
+                failed = quotes.isEmpty();
+                return quotes;
+            } catch (Exception e) {
+                log.warn("Provider {} failed: {}", provider.getProviderName(), e.getMessage());
+                return Map.of();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                // A call cut short by the hedge took at least this long, but its empty answer is not a provider error
+                boolean counted = failed && !cancelled.get();
+                stats.record(elapsed / Math.max(symbolCount, 1), counted);
+                latency.record(elapsed, TimeUnit.NANOSECONDS);
+                if (counted) {
+                    errors.increment();
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,19 @@
 package com.external.marketdata;
 
+import java.util.HashMap;
 import java.util.Map;
 
 public interface MarketDataClient {
-    Map<String, Double> getPrices(String symbols);
-}
+    Map<String, MarketQuote> getQuotes(String symbols);
+
+    // Quote requests sent upstream since startup; cache hits and streamed prices cost nothing and are not counted
+    default long getUpstreamRequests() {
+        return 0;
+    }
 
+    default Map<String, Double> getPrices(String symbols) {
+        Map<String, Double> prices = new HashMap<>();
+        getQuotes(symbols).forEach((symbol, quote) -> prices.put(symbol, quote.price()));
+        return prices;
+    }
+}
@@ -1,35 +1,148 @@
 package com.external.marketdata;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import com.external.finnhub.FinnhubClient;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Component
-public class MarketDataClientImpl implements MarketDataClient {
+@ConditionalOnProperty(name = "market-data.mode", havingValue = "rest", matchIfMissing = true)
+public class MarketDataClientImpl implements MarketDataProvider {
 
     private static final Logger log = LoggerFactory.getLogger(MarketDataClientImpl.class);
 
     private final FinnhubClient finnhubClient;
+    private final int priority;
+    private final QuoteCache quoteCache;
+    private final Set<String> refreshingSymbols = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter cacheStaleHits;
 
-    public MarketDataClientImpl(FinnhubClient finnhubClient) {
+    public MarketDataClientImpl(
+            FinnhubClient finnhubClient,
+            MeterRegistry meterRegistry,
+            @Qualifier("outboundIoExecutor") ExecutorService outboundIoExecutor,
+            @Value("${market-data.cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${market-data.cache.max-stale-seconds:900}") long maxStaleSeconds,
+            @Value("${market-data.cache.max-entries:10000}") int maxEntries,
+            @Value("${market-data.providers.finnhub.priority:0}") int priority) {
         this.finnhubClient = finnhubClient;
+        this.priority = priority;
+        this.quoteCache = new QuoteCache(maxEntries, ttlSeconds, maxStaleSeconds);
+        this.refreshExecutor = outboundIoExecutor;
+        this.cacheHits = cacheRequests(meterRegistry, "hit");
+        this.cacheMisses = cacheRequests(meterRegistry, "miss");
+        this.cacheStaleHits = cacheRequests(meterRegistry, "stale");
+        Gauge.builder("marketdata.cache.size", quoteCache, QuoteCache::size)
+                .description("Quotes currently held in the market data cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getProviderName() {
+        return "finnhub";
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public long getUpstreamRequests() {
+        return finnhubClient.getRequestsSent();
     }
 
     @Override
-    public Map<String, Double> getPrices(String symbols) {
+    public Map<String, MarketQuote> getQuotes(String symbols) {
+        Map<String, MarketQuote> quotes = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+
+        for (String symbol : parseSymbols(symbols)) {
+            QuoteCache.Lookup cached = quoteCache.get(symbol);
+            if (cached == null) {
+                cacheMisses.increment();
+                missing.add(symbol);
+                continue;
+            }
+            quotes.put(symbol, cached.quote());
+            if (cached.stale()) {
+                cacheStaleHits.increment();
+                // Only the first caller to see a stale entry schedules its refresh
+                if (refreshingSymbols.add(symbol)) {
+                    stale.add(symbol);
+                }
+            } else {
+                cacheHits.increment();
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            refreshInBackground(stale);
+        }
+
+        if (missing.isEmpty()) {
+            log.info("Served {} quotes from cache", quotes.size());
+            return quotes;
+        }
+
         try {
-            log.info("Fetching prices for symbols: {}", symbols);
-            Map<String, Double> prices = finnhubClient.getQuotes(symbols);
-            log.info("Fetched {} prices", prices.size());
-            return prices;
+            String missingSymbols = String.join(",", missing);
+            log.info("Fetching prices for symbols: {}", missingSymbols);
+            Map<String, MarketQuote> fetched = finnhubClient.getFullQuotes(missingSymbols);
+            quoteCache.putAll(fetched);
+            quotes.putAll(fetched);
+            log.info("Fetched {} quotes, {} served from cache", fetched.size(), quotes.size() - fetched.size());
         } catch (Exception e) {
             log.error("Failed to fetch prices from Finnhub: {}", e.getMessage(), e);
-            return Collections.emptyMap();
         }
+        return quotes;
+    }
+
+    private void refreshInBackground(List<String> symbols) {
+        refreshExecutor.execute(() -> {
+            try {
+                quoteCache.putAll(finnhubClient.getFullQuotes(String.join(",", symbols)));
+            } catch (Exception e) {
+                log.warn("Background quote refresh failed for {} symbols: {}", symbols.size(), e.getMessage());
+            } finally {
+                symbols.forEach(refreshingSymbols::remove);
+            }
+        });
+    }
+
+    private static List<String> parseSymbols(String symbols) {
+        return Arrays.stream(symbols.split(","))
+                .map(symbol -> symbol.trim().toUpperCase())
+                .filter(symbol -> !symbol.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static Counter cacheRequests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("marketdata.cache.requests")
+                .description("Market data cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,9 @@
+package com.external.marketdata;
+
+// A single upstream source of market data that the composite client can route between.
+// Lower priority values are preferred.
+public interface MarketDataProvider extends MarketDataClient {
+    String getProviderName();
+
+    int getPriority();
+}
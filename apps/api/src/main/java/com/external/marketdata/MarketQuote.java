@@ -0,0 +1,21 @@
+package com.external.marketdata;
+
+import java.time.Instant;
+
+// Full quote for one symbol. Only price is always present; providers that cannot supply the
+// daily open/high/low, previous close or change leave them null.
+public record MarketQuote(
+        String symbol,
+        double price,
+        Double open,
+        Double high,
+        Double low,
+        Double previousClose,
+        Double change,
+        Double changePercent,
+        Instant quotedAt) {
+
+    public static MarketQuote ofPrice(String symbol, double price, Instant quotedAt) {
+        return new MarketQuote(symbol, price, null, null, null, null, null, null, quotedAt);
+    }
+}
@@ -0,0 +1,62 @@
+package com.external.marketdata;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Rolling latency and error statistics over a provider's most recent calls; latencies are per symbol requested
+class ProviderStats {
+
+    record Snapshot(int samples, long p50Nanos, long p99Nanos, double errorRate) {
+    }
+
+    private final long[] latencies;
+    private final boolean[] failures;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int next;
+    private int count;
+
+    ProviderStats(int windowSize) {
+        this.latencies = new long[windowSize];
+        this.failures = new boolean[windowSize];
+    }
+
+    void record(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            latencies[next] = latencyNanos;
+            failures[next] = failed;
+            next = (next + 1) % latencies.length;
+            count = Math.min(count + 1, latencies.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Snapshot snapshot() {
+        long[] window;
+        int failed = 0;
+        lock.lock();
+        try {
+            window = Arrays.copyOf(latencies, count);
+            for (int i = 0; i < count; i++) {
+                if (failures[i]) {
+                    failed++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (window.length == 0) {
+            return new Snapshot(0, 0, 0, 0.0);
+        }
+        Arrays.sort(window);
+        return new Snapshot(window.length, percentile(window, 0.50), percentile(window, 0.99),
+                (double) failed / window.length);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
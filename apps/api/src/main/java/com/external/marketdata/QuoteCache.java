@@ -0,0 +1,76 @@
+package com.external.marketdata;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded, least-recently-used quote cache keyed by upper-case symbol.
+// Entries are fresh for ttl, then served as stale for up to maxStale while a refresh runs, then dropped.
+class QuoteCache {
+
+    record Lookup(MarketQuote quote, boolean stale) {
+    }
+
+    private record Entry(MarketQuote quote, long storedAtNanos) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries;
+
+    QuoteCache(int maxEntries, long ttlSeconds, long maxStaleSeconds) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Quote cache size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxStaleNanos = TimeUnit.SECONDS.toNanos(maxStaleSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > QuoteCache.this.maxEntries;
+            }
+        };
+    }
+
+    // Returns the cached quote, or null when the symbol is unknown or too old to be served even as stale
+    Lookup get(String symbol) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(symbol);
+            if (entry == null) {
+                return null;
+            }
+            long age = System.nanoTime() - entry.storedAtNanos();
+            if (age > ttlNanos + maxStaleNanos) {
+                entries.remove(symbol);
+                return null;
+            }
+            return new Lookup(entry.quote(), age > ttlNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void putAll(Map<String, MarketQuote> quotes) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            quotes.forEach((symbol, quote) -> entries.put(symbol, new Entry(quote, now)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
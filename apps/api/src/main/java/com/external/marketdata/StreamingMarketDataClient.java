@@ -0,0 +1,113 @@
+package com.external.marketdata;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.external.finnhub.FinnhubTradeStreamClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Market data client backed by the streaming trade feed instead of REST quotes.
+// Keeps the last traded price per symbol and a coalesced set of quotes that changed since the last drain.
+@Component
+@ConditionalOnProperty(name = "market-data.mode", havingValue = "streaming")
+public class StreamingMarketDataClient implements MarketDataProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingMarketDataClient.class);
+
+    private final FinnhubTradeStreamClient streamClient;
+    private final int priority;
+    private final Map<String, MarketQuote> latestQuotes = new ConcurrentHashMap<>();
+    private final Map<String, MarketQuote> pendingQuotes = new ConcurrentHashMap<>();
+    private final Counter ticksReceived;
+    private final Counter ticksCoalesced;
+
+    public StreamingMarketDataClient(
+            FinnhubTradeStreamClient streamClient,
+            MeterRegistry meterRegistry,
+            @Value("${market-data.providers.finnhub-stream.priority:0}") int priority) {
+        this.streamClient = streamClient;
+        this.priority = priority;
+        this.ticksReceived = Counter.builder("marketdata.stream.ticks")
+                .description("Trade ticks received from the streaming feed")
+                .register(meterRegistry);
+        this.ticksCoalesced = Counter.builder("marketdata.stream.ticks.coalesced")
+                .description("Trade ticks that replaced a pending price before it was written")
+                .register(meterRegistry);
+        streamClient.addTradeListener(this::onTrade);
+    }
+
+    @Override
+    public String getProviderName() {
+        return "finnhub-stream";
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public Map<String, MarketQuote> getQuotes(String symbols) {
+        Map<String, MarketQuote> quotes = new HashMap<>();
+        Arrays.stream(symbols.split(","))
+                .map(symbol -> symbol.trim().toUpperCase())
+                .filter(symbol -> !symbol.isEmpty())
+                .forEach(symbol -> {
+                    MarketQuote quote = latestQuotes.get(symbol);
+                    if (quote != null) {
+                        quotes.put(symbol, quote);
+                    }
+                });
+        log.debug("Served {} streamed quotes", quotes.size());
+        return quotes;
+    }
+
+    public void subscribe(Collection<String> symbols) {
+        streamClient.updateSubscriptions(symbols);
+    }
+
+    // Removes and returns up to maxSymbols quotes that changed since the previous drain.
+    // Symbols left behind stay pending and keep being coalesced until the next drain.
+    public Map<String, MarketQuote> drainPendingQuotes(int maxSymbols) {
+        Map<String, MarketQuote> drained = new HashMap<>();
+        for (String symbol : pendingQuotes.keySet()) {
+            if (drained.size() >= maxSymbols) {
+                break;
+            }
+            MarketQuote quote = pendingQuotes.remove(symbol);
+            if (quote != null) {
+                drained.put(symbol, quote);
+            }
+        }
+        return drained;
+    }
+
+    // Puts back quotes whose write failed so the next drain retries them.
+    // A symbol that ticked again since the drain keeps its newer quote
+    public void requeue(Map<String, MarketQuote> quotes) {
+        quotes.forEach(pendingQuotes::putIfAbsent);
+    }
+
+    void onTrade(String symbol, double price, long timestampMillis) {
+        String normalized = symbol.toUpperCase();
+        ticksReceived.increment();
+        // Trades carry only a price, so streamed quotes have no open/high/low or change
+        MarketQuote quote = MarketQuote.ofPrice(normalized, price, Instant.ofEpochMilli(timestampMillis));
+        latestQuotes.put(normalized, quote);
+        if (pendingQuotes.put(normalized, quote) != null) {
+            ticksCoalesced.increment();
+        }
+    }
+}
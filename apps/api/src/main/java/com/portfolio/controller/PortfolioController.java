@@ -2,6 +2,8 @@ package com.portfolio.controller;
 
 import java.util.List;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.exception.ApiResponse;
 import com.portfolio.dto.PortfolioAnalysisRequestDto;
@@ -17,6 +20,7 @@ import com.portfolio.dto.PortfolioAnalysisResponseDto;
 import com.portfolio.dto.PortfolioResponseDto;
 import com.portfolio.service.PortfolioAnalysisService;
 import com.portfolio.service.PortfolioService;
+import com.portfolio.service.PortfolioStreamService;
 import com.security.CurrentUserService;
 
 @RestController
@@ -25,14 +29,17 @@ public class PortfolioController {
     private final PortfolioService portfolioService;
     private final PortfolioAnalysisService portfolioAnalysisService;
     private final CurrentUserService currentUserService;
+    private final PortfolioStreamService portfolioStreamService;
 
     public PortfolioController(
             PortfolioService portfolioService,
             PortfolioAnalysisService portfolioAnalysisService,
-            CurrentUserService currentUserService) {
+            CurrentUserService currentUserService,
+            PortfolioStreamService portfolioStreamService) {
         this.portfolioService = portfolioService;
         this.portfolioAnalysisService = portfolioAnalysisService;
         this.currentUserService = currentUserService;
+        this.portfolioStreamService = portfolioStreamService;
     }
 
     @GetMapping
@@ -43,6 +50,20 @@ public class PortfolioController {
         return ResponseEntity.ok(ApiResponse.success(portfolioService.getUserPortfolio(resolvedUserId), "Portfolio retrieved successfully"));
     }
 
+    // Server-Sent Events: a "snapshot" of every position first, then "positions" events with only the positions whose
+    // price changed; a new snapshot follows each trade
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPortfolio(
+            @RequestParam(required = false) Long userId,
+            Authentication authentication) {
+        Long resolvedUserId = currentUserService.resolveUserId(authentication, userId);
+        try {
+            return ResponseEntity.ok(portfolioStreamService.subscribe(resolvedUserId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     @GetMapping("/analysis-report/latest")
     public ResponseEntity<ApiResponse<PortfolioAnalysisResponseDto>> getLatestPortfolioAnalysisReport(
             @RequestParam(required = false) Long userId,
@@ -0,0 +1,8 @@
+package com.portfolio.dto;
+
+import java.math.BigDecimal;
+
+// One position joined with its stock, read in a single query by the portfolio views and held by the portfolio stream
+public record PortfolioHolding(Long stockId, String symbol, String name, Integer quantity, BigDecimal avgCost,
+        BigDecimal realizedPnl, BigDecimal price) {
+}
@@ -4,10 +4,40 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
+import com.portfolio.dto.PortfolioHolding;
 import com.portfolio.entity.Portfolio;
 
+import jakarta.persistence.LockModeType;
+
 public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
     List<Portfolio> findByUserId(Long userId);
     Optional<Portfolio> findByUserIdAndStockId(Long userId, Long stockId);
+
+    // SELECT ... FOR UPDATE: holds the position row until the trade's transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Portfolio p where p.user.id = :userId and p.stock.id = :stockId")
+    Optional<Portfolio> findForUpdate(Long userId, Long stockId);
+
+    // Positions with quantity > 0, projected with their stock's symbol, name and price in one query
+    @Query("""
+            select new com.portfolio.dto.PortfolioHolding(s.id, s.symbol, s.name, p.quantity, p.avgCost, p.realizedPnl,
+                s.price)
+            from Portfolio p join p.stock s
+            where p.user.id = :userId and p.quantity > 0
+            order by s.symbol
+            """)
+    List<PortfolioHolding> findActiveHoldings(Long userId);
+
+    // Every position, including cleared ones kept for their realized P/L
+    @Query("""
+            select new com.portfolio.dto.PortfolioHolding(s.id, s.symbol, s.name, p.quantity, p.avgCost, p.realizedPnl,
+                s.price)
+            from Portfolio p join p.stock s
+            where p.user.id = :userId
+            order by s.symbol
+            """)
+    List<PortfolioHolding> findHoldings(Long userId);
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -49,7 +50,7 @@ public class PortfolioAnalysisService {
             PortfolioService portfolioService,
             PortfolioAnalysisReportRepository reportRepository,
             UserRepository userRepository,
-            RestTemplate restTemplate) {
+            @Qualifier("llmRestTemplate") RestTemplate restTemplate) {
         this.portfolioService = portfolioService;
         this.reportRepository = reportRepository;
         this.userRepository = userRepository;
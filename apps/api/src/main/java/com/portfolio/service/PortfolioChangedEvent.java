@@ -0,0 +1,5 @@
+package com.portfolio.service;
+
+// Published after a trade changes a user's holdings, so live portfolio streams can reload them
+public record PortfolioChangedEvent(Long userId) {
+}
@@ -8,96 +8,93 @@ import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.portfolio.dto.PortfolioHolding;
 import com.portfolio.dto.PortfolioResponseDto;
-import com.portfolio.entity.Portfolio;
 import com.portfolio.repository.PortfolioRepository;
-import com.stock.entity.Stock;
-import com.stock.repository.StockRepository;
 
 @Service
 public class PortfolioService {
     private final PortfolioRepository portfolioRepository;
-    private final StockRepository stockRepository;
 
-
-    public PortfolioService(PortfolioRepository portfolioRepository, StockRepository stockRepository) {
+    public PortfolioService(PortfolioRepository portfolioRepository) {
         this.portfolioRepository = portfolioRepository;
-        this.stockRepository = stockRepository;
     }
 
-    // Get user's portfolio with profit/loss calculations (only active holdings)
+    // Get user's portfolio with profit/loss calculations (only active holdings).
+    // One query projects each position with its stock's symbol, name and current price; no entity or lazy loads
     @Transactional(readOnly = true)
     public List<PortfolioResponseDto> getUserPortfolio(Long userId) {
-        List<Portfolio> portfolios = portfolioRepository.findByUserId(userId);
+        return portfolioRepository.findActiveHoldings(userId).stream()
+                .map(this::toPositionDto)
+                .collect(Collectors.toList());
+    }
 
-        return portfolios.stream()
-            // Only show active holdings (quantity > 0)
-            .filter(p -> p.getQuantity() > 0)
-            .map(p -> {
+    // Profit/loss for one position at the stock price read with it
+    public PortfolioResponseDto toPositionDto(PortfolioHolding holding) {
+        return toPositionDto(holding, priceOrZero(holding));
+    }
 
-            // Get current price from latest stock price
-            BigDecimal currentPrice = stockRepository.findById(p.getStock().getId())
-            .map(Stock::getPrice)
-            .orElse(BigDecimal.ZERO);
+    // Profit/loss for one position at the given price
+    public PortfolioResponseDto toPositionDto(PortfolioHolding holding, BigDecimal currentPrice) {
+        return toPositionDto(holding.symbol(), holding.name(), holding.quantity(), holding.avgCost(),
+                holding.realizedPnl(), currentPrice);
+    }
 
-            BigDecimal qty = BigDecimal.valueOf(p.getQuantity());
+    private PortfolioResponseDto toPositionDto(String symbol, String name, Integer quantity, BigDecimal avgCost,
+            BigDecimal realizedPnl, BigDecimal currentPrice) {
+        BigDecimal qty = BigDecimal.valueOf(quantity);
 
-            // Calculate unrealized profit/loss = (currentPrice - avgCost) × quantity
-            BigDecimal unrealized = currentPrice
-            .subtract(p.getAvgCost())
+        // Calculate unrealized profit/loss = (currentPrice - avgCost) × quantity
+        BigDecimal unrealized = currentPrice
+            .subtract(avgCost)
             .multiply(qty)
             .setScale(2, RoundingMode.HALF_UP);
 
-            // Get realized profit/loss from trade history
-            BigDecimal realized = p.getRealizedPnl().setScale(2, RoundingMode.HALF_UP);
-
-            // Total profit = realized + unrealized
-            BigDecimal total = realized.add(unrealized);
-
-            // Build response DTO
-            PortfolioResponseDto dto = new PortfolioResponseDto();
-            dto.setSymbol(p.getStock().getSymbol());
-            dto.setName(p.getStock().getName());
-            dto.setQuantity(p.getQuantity());
-            dto.setAvgCost(p.getAvgCost().setScale(2, RoundingMode.HALF_UP));
-            dto.setCurrentPrice(currentPrice.setScale(2, RoundingMode.HALF_UP));
-            dto.setRealizedProfit(realized);
-            dto.setUnrealizedProfit(unrealized);
-            dto.setTotalProfit(total);
-
-            return dto;
-        }).collect(Collectors.toList());
+        // Get realized profit/loss from trade history
+        BigDecimal realized = realizedPnl.setScale(2, RoundingMode.HALF_UP);
+
+        // Total profit = realized + unrealized
+        BigDecimal total = realized.add(unrealized);
+
+        // Build response DTO
+        PortfolioResponseDto dto = new PortfolioResponseDto();
+        dto.setSymbol(symbol);
+        dto.setName(name);
+        dto.setQuantity(quantity);
+        dto.setAvgCost(avgCost.setScale(2, RoundingMode.HALF_UP));
+        dto.setCurrentPrice(currentPrice.setScale(2, RoundingMode.HALF_UP));
+        dto.setRealizedProfit(realized);
+        dto.setUnrealizedProfit(unrealized);
+        dto.setTotalProfit(total);
+        return dto;
     }
-    
+
     // Calculate total profit including cleared positions
     @Transactional(readOnly = true)
     public BigDecimal getTotalProfit(Long userId) {
-        List<Portfolio> allPortfolios = portfolioRepository.findByUserId(userId);
-        
         BigDecimal totalProfit = BigDecimal.ZERO;
-        
+
         // Sum profit from all portfolios (both active and cleared positions)
-        for (Portfolio portfolio : allPortfolios) {
-            // Get current price for active positions
-            BigDecimal currentPrice = stockRepository.findById(portfolio.getStock().getId())
-                .map(Stock::getPrice)
-                .orElse(BigDecimal.ZERO);
-            
-            BigDecimal qty = BigDecimal.valueOf(portfolio.getQuantity());
-            
+        for (PortfolioHolding holding : portfolioRepository.findHoldings(userId)) {
+            BigDecimal qty = BigDecimal.valueOf(holding.quantity());
+
             // Unrealized profit for active positions
-            BigDecimal unrealized = currentPrice
-                .subtract(portfolio.getAvgCost())
+            BigDecimal unrealized = priceOrZero(holding)
+                .subtract(holding.avgCost())
                 .multiply(qty)
                 .setScale(2, RoundingMode.HALF_UP);
-            
+
             // Realized profit from trades
-            BigDecimal realized = portfolio.getRealizedPnl().setScale(2, RoundingMode.HALF_UP);
-            
+            BigDecimal realized = holding.realizedPnl().setScale(2, RoundingMode.HALF_UP);
+
             // Add to total
             totalProfit = totalProfit.add(realized).add(unrealized);
         }
-        
+
         return totalProfit.setScale(2, RoundingMode.HALF_UP);
     }
+
+    private static BigDecimal priceOrZero(PortfolioHolding holding) {
+        return holding.price() == null ? BigDecimal.ZERO : holding.price();
+    }
 }
@@ -0,0 +1,220 @@
+package com.portfolio.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.portfolio.dto.PortfolioHolding;
+import com.portfolio.dto.PortfolioResponseDto;
+import com.portfolio.repository.PortfolioRepository;
+import com.stock.service.CoalescingEmitter;
+import com.stock.service.PriceChangeEventBus;
+import com.stock.service.PriceDelta;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Live portfolio valuation over Server-Sent Events.
+// Each connection keeps its user's active holdings in memory, and an index from stock id to the connections holding it
+// means a price delta only touches the positions it affects: no portfolio reload, no per-user scan. A new connection
+// first gets a "snapshot" event with every position; after that each "positions" event carries only the recomputed
+// positions, coalesced per symbol while a slow client's previous send is in flight. A trade reloads that user's
+// holdings once and sends a fresh snapshot. Sends run on the SSE send executor, never on the price refresh thread.
+@Service
+public class PortfolioStreamService {
+
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String POSITIONS_EVENT = "positions";
+
+    final class Session {
+        private final Long userId;
+        private CoalescingEmitter<String, PortfolioResponseDto> out;
+        private volatile Map<Long, PortfolioHolding> holdings = Map.of();
+        // Guarded by registry; a closed session is never indexed again
+        private boolean closed;
+
+        private Session(Long userId) {
+            this.userId = userId;
+        }
+    }
+
+    private final PortfolioRepository portfolioRepository;
+    private final PortfolioService portfolioService;
+    private final ExecutorService sendExecutor;
+    private final int maxSubscribers;
+    private final long emitterTimeoutMs;
+    private final Map<Long, Set<Session>> sessionsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Session>> sessionsByStock = new ConcurrentHashMap<>();
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    // Serializes changes to the session maps so the subscriber limit, a reload's index update and an unregister
+    // each apply as a whole; price deltas read the concurrent maps without taking it
+    private final ReentrantLock registry = new ReentrantLock();
+    private final Counter positionsSent;
+    private final Counter resyncs;
+
+    public PortfolioStreamService(
+            PortfolioRepository portfolioRepository,
+            PortfolioService portfolioService,
+            PriceChangeEventBus priceChangeEventBus,
+            @Qualifier("sseSendExecutor") ExecutorService sendExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${portfolio.stream.max-subscribers:5000}") int maxSubscribers,
+            @Value("${portfolio.stream.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        if (maxSubscribers <= 0) {
+            throw new IllegalArgumentException("Portfolio stream subscriber limit must be positive");
+        }
+        this.portfolioRepository = portfolioRepository;
+        this.portfolioService = portfolioService;
+        this.sendExecutor = sendExecutor;
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.positionsSent = Counter.builder("portfolio.stream.positions")
+                .description("Recomputed positions sent to portfolio stream subscribers")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("portfolio.stream.resyncs")
+                .description("Portfolio stream subscribers told to reload because they fell too far behind")
+                .register(meterRegistry);
+        Gauge.builder("portfolio.stream.subscribers", sessions, Set::size)
+                .description("Open /api/portfolio/stream connections")
+                .register(meterRegistry);
+        priceChangeEventBus.addListener(this::onPriceDeltas);
+    }
+
+    // Opens a stream for the user; rejected with IllegalStateException once max-subscribers streams are open
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        register(userId, emitter);
+        return emitter;
+    }
+
+    Session register(Long userId, SseEmitter emitter) {
+        Session session = new Session(userId);
+        // A user's positions are keyed by symbol, so the backlog can never exceed their number of holdings
+        session.out = new CoalescingEmitter<>(emitter, sendExecutor, POSITIONS_EVENT, PortfolioResponseDto::getSymbol,
+                (older, newer) -> newer, Integer.MAX_VALUE, closed -> unregister(session), positionsSent, resyncs);
+        registry.lock();
+        try {
+            if (sessions.size() >= maxSubscribers) {
+                throw new IllegalStateException("Too many open portfolio streams");
+            }
+            sessions.add(session);
+            sessionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(session);
+        } finally {
+            registry.unlock();
+        }
+        reload(session, portfolioRepository.findActiveHoldings(userId));
+        return session;
+    }
+
+    public int subscriberCount() {
+        return sessions.size();
+    }
+
+    // Runs on the price refresh thread: cost is proportional to the holdings of the changed stocks
+    void onPriceDeltas(List<PriceDelta> deltas) {
+        Map<Session, List<PortfolioResponseDto>> updates = new HashMap<>();
+        for (PriceDelta delta : deltas) {
+            Set<Session> holders = sessionsByStock.get(delta.stockId());
+            if (holders == null || delta.newPrice() == null) {
+                continue;
+            }
+            for (Session session : holders) {
+                PortfolioHolding holding = session.holdings.get(delta.stockId());
+                if (holding != null) {
+                    updates.computeIfAbsent(session, s -> new ArrayList<>())
+                            .add(portfolioService.toPositionDto(holding, delta.newPrice()));
+                }
+            }
+        }
+        updates.forEach((session, positions) -> session.out.offer(positions));
+    }
+
+    // Holdings only change through trades; reload them once per affected user after the trade commits
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        Set<Session> userSessions = sessionsByUser.get(event.userId());
+        if (userSessions == null || userSessions.isEmpty()) {
+            return;
+        }
+        List<PortfolioHolding> holdings = portfolioRepository.findActiveHoldings(event.userId());
+        for (Session session : userSessions) {
+            reload(session, holdings);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.stream.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        for (Session session : sessions) {
+            session.out.heartbeat();
+        }
+    }
+
+    private void reload(Session session, List<PortfolioHolding> holdings) {
+        Map<Long, PortfolioHolding> next = holdings.stream()
+                .collect(Collectors.toUnmodifiableMap(PortfolioHolding::stockId, Function.identity()));
+        registry.lock();
+        try {
+            // The stream may have closed while the holdings were loaded; indexing it now would leak it
+            if (session.closed) {
+                return;
+            }
+            Map<Long, PortfolioHolding> previous = session.holdings;
+            session.holdings = next;
+            for (Long stockId : previous.keySet()) {
+                if (!next.containsKey(stockId)) {
+                    unindex(stockId, session);
+                }
+            }
+            for (Long stockId : next.keySet()) {
+                sessionsByStock.computeIfAbsent(stockId, id -> ConcurrentHashMap.newKeySet()).add(session);
+            }
+        } finally {
+            registry.unlock();
+        }
+
+        // Priced from the stocks row read with the holdings, exactly as GET /api/portfolio values them
+        List<PortfolioResponseDto> snapshot = holdings.stream()
+                .map(portfolioService::toPositionDto)
+                .toList();
+        session.out.sendControl(SNAPSHOT_EVENT, snapshot);
+    }
+
+    private void unregister(Session session) {
+        registry.lock();
+        try {
+            session.closed = true;
+            sessions.remove(session);
+            sessionsByUser.computeIfPresent(session.userId, (id, set) -> {
+                set.remove(session);
+                return set.isEmpty() ? null : set;
+            });
+            for (Long stockId : session.holdings.keySet()) {
+                unindex(stockId, session);
+            }
+        } finally {
+            registry.unlock();
+        }
+    }
+
+    private void unindex(Long stockId, Session session) {
+        sessionsByStock.computeIfPresent(stockId, (id, set) -> {
+            set.remove(session);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
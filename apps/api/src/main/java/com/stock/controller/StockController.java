@@ -1,7 +1,13 @@
 package com.stock.controller;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,14 +16,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.exception.ApiResponse;
 import com.stock.dto.PriceUpdateResultDto;
+import com.stock.dto.StockCandleDto;
+import com.stock.dto.StockPageDto;
+import com.stock.dto.StockPriceHistoryDto;
 import com.stock.dto.StockRequestDto;
 import com.stock.dto.StockResponseDto;
+import com.stock.dto.StockSearchResultDto;
+import com.stock.service.PriceChangeEventBus;
 import com.stock.service.PriceUpdateService;
+import com.stock.service.StockCatalogReader;
+import com.stock.service.StockCatalogSnapshot;
 import com.stock.service.StockService;
 
 @RestController
@@ -25,15 +42,83 @@ import com.stock.service.StockService;
 public class StockController {
     private final StockService stockService;
     private final PriceUpdateService priceUpdateService;
+    private final StockCatalogSnapshot catalogSnapshot;
+    private final StockCatalogReader catalogReader;
+    private final PriceChangeEventBus priceChangeEventBus;
 
-    public StockController(StockService stockService, PriceUpdateService priceUpdateService) {
+    public StockController(StockService stockService, PriceUpdateService priceUpdateService,
+            StockCatalogSnapshot catalogSnapshot, StockCatalogReader catalogReader,
+            PriceChangeEventBus priceChangeEventBus) {
         this.stockService = stockService;
         this.priceUpdateService = priceUpdateService;
+        this.catalogSnapshot = catalogSnapshot;
+        this.catalogReader = catalogReader;
+        this.priceChangeEventBus = priceChangeEventBus;
     }
 
+    // Serves the cached catalog bytes; a matching If-None-Match gets 304 without a body
     @GetMapping
-    public ResponseEntity<ApiResponse<List<StockResponseDto>>> getAll() {
-        return ResponseEntity.ok(ApiResponse.success(stockService.findAll(), "Stocks retrieved successfully"));
+    public ResponseEntity<byte[]> getAll(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        StockCatalogSnapshot.Snapshot snapshot = catalogSnapshot.current();
+        if (matches(ifNoneMatch, snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.body());
+    }
+
+    // Keyset page ordered by symbol (default) or id; pass the previous page's nextCursor as after
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<StockPageDto>> getPage(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String symbolPrefix,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
+        StockCatalogReader.Filter filter = new StockCatalogReader.Filter(symbolPrefix, minPrice, maxPrice);
+        return ResponseEntity.ok(ApiResponse.success(
+                catalogReader.page(StockCatalogReader.Sort.parse(sort), filter, after, limit),
+                "Stocks retrieved successfully"));
+    }
+
+    // Whole catalog as newline-delimited JSON, written row by row from a database cursor
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String symbolPrefix,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
+        StockCatalogReader.Sort order = StockCatalogReader.Sort.parse(sort);
+        StockCatalogReader.Filter filter = new StockCatalogReader.Filter(symbolPrefix, minPrice, maxPrice);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> catalogReader.stream(order, filter, out));
+    }
+
+    // Server-Sent Events: a "prices" event carries a batch of coalesced deltas after each stored refresh,
+    // "resync" means the client fell too far behind and should reload GET /api/stocks
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPrices() {
+        try {
+            return ResponseEntity.ok(priceChangeEventBus.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<StockSearchResultDto>>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(stockService.search(q, limit), "Stocks found successfully"));
     }
 
     @GetMapping("/{id}")
@@ -41,6 +126,26 @@ public class StockController {
         return ResponseEntity.ok(ApiResponse.success(stockService.findById(id), "Stock retrieved successfully"));
     }
 
+    @GetMapping("/{id}/history")
+    public ResponseEntity<ApiResponse<List<StockPriceHistoryDto>>> getPriceHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        return ResponseEntity.ok(ApiResponse.success(stockService.findPriceHistory(id, from, to),
+                "Price history retrieved successfully"));
+    }
+
+    @GetMapping("/{id}/candles")
+    public ResponseEntity<ApiResponse<List<StockCandleDto>>> getCandles(
+            @PathVariable Long id,
+            @RequestParam(required = false) String interval,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) Integer maxPoints) {
+        return ResponseEntity.ok(ApiResponse.success(stockService.findCandles(id, interval, from, to, maxPoints),
+                "Candles retrieved successfully"));
+    }
+
     @GetMapping("/symbol/{symbol}")
     public ResponseEntity<ApiResponse<StockResponseDto>> getStockBySymbol(@PathVariable String symbol) {
         return ResponseEntity.ok(ApiResponse.success(stockService.findBySymbol(symbol), "Stock retrieved successfully"));
@@ -71,7 +176,8 @@ public class StockController {
         PriceUpdateResultDto result = priceUpdateService.updateAllPrices();
 
         if (result.getTotalStocks() == 0) {
-            return ResponseEntity.ok(ApiResponse.success(result, "No stocks available to update."));
+            return ResponseEntity.ok(ApiResponse.success(result, "No stocks are due for a price update; "
+                    + result.getRemainingStocks() + " stock(s) are planned for later runs."));
         }
 
         if (!result.hasAnyUpdates()) {
@@ -89,4 +195,20 @@ public class StockController {
         return ResponseEntity.ok(ApiResponse.success(result,
                 "Prices updated successfully for " + result.getUpdatedCount() + " stock(s)."));
     }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -7,6 +7,10 @@ public class PriceUpdateResultDto {
     private int updatedCount;
     private int failedCount;
     private List<String> failedSymbols;
+    private int remainingStocks;
+    private int rowsWritten;
+    private int rowsSkipped;
+    private int upstreamRequests;
 
     public int getTotalStocks() {
         return totalStocks;
@@ -40,6 +44,38 @@ public class PriceUpdateResultDto {
         this.failedSymbols = failedSymbols;
     }
 
+    public int getRemainingStocks() {
+        return remainingStocks;
+    }
+
+    public void setRemainingStocks(int remainingStocks) {
+        this.remainingStocks = remainingStocks;
+    }
+
+    public int getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public void setRowsWritten(int rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public int getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public void setRowsSkipped(int rowsSkipped) {
+        this.rowsSkipped = rowsSkipped;
+    }
+
+    public int getUpstreamRequests() {
+        return upstreamRequests;
+    }
+
+    public void setUpstreamRequests(int upstreamRequests) {
+        this.upstreamRequests = upstreamRequests;
+    }
+
     public boolean hasAnyUpdates() {
         return updatedCount > 0;
     }
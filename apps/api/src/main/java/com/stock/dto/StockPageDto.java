@@ -0,0 +1,33 @@
+package com.stock.dto;
+
+import java.util.List;
+
+public class StockPageDto {
+    private List<StockResponseDto> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public List<StockResponseDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<StockResponseDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
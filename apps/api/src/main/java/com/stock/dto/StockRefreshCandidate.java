@@ -0,0 +1,7 @@
+package com.stock.dto;
+
+import java.time.LocalDateTime;
+
+// Stock id, symbol, last price update and the number of portfolios currently holding it, as read by the refresh planner
+public record StockRefreshCandidate(Long stockId, String symbol, LocalDateTime updatedAt, long holders) {
+}
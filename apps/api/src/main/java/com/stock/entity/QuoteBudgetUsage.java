@@ -0,0 +1,50 @@
+package com.stock.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Quotes spent on one exchange-local trading day. Rows are written with JDBC by DailyQuoteBudget; the entity is only
+// used for reads.
+@Entity
+@Table(name = "quote_budget_usage")
+public class QuoteBudgetUsage {
+    @Id
+    @Column(name = "trading_day")
+    private LocalDate tradingDay;
+
+    @Column(name = "quotes_used", nullable = false)
+    private int quotesUsed;
+
+    // When the day's latest scheduled refresh finished; null if only admin-triggered refreshes ran
+    @Column(name = "last_run_at")
+    private Instant lastRunAt;
+
+    public LocalDate getTradingDay() {
+        return tradingDay;
+    }
+
+    public void setTradingDay(LocalDate tradingDay) {
+        this.tradingDay = tradingDay;
+    }
+
+    public int getQuotesUsed() {
+        return quotesUsed;
+    }
+
+    public void setQuotesUsed(int quotesUsed) {
+        this.quotesUsed = quotesUsed;
+    }
+
+    public Instant getLastRunAt() {
+        return lastRunAt;
+    }
+
+    public void setLastRunAt(Instant lastRunAt) {
+        this.lastRunAt = lastRunAt;
+    }
+}
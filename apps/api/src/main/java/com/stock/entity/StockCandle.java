@@ -0,0 +1,141 @@
+package com.stock.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// One OHLC bucket. Rows are written with JDBC by CandleAggregator; the entity is only used for reads.
+@Entity
+@Table(name = "stock_candles", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_candles_bucket", columnNames = {"stock_id", "interval_code", "bucket_start"})
+})
+public class StockCandle {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stock_id", nullable = false)
+    private Long stockId;
+
+    @Column(name = "interval_code", nullable = false, length = 8)
+    private String intervalCode;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "open_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal openPrice;
+
+    @Column(name = "high_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal highPrice;
+
+    @Column(name = "low_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal lowPrice;
+
+    @Column(name = "close_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal closePrice;
+
+    @Column(name = "open_at", nullable = false)
+    private Instant openAt;
+
+    @Column(name = "close_at", nullable = false)
+    private Instant closeAt;
+
+    @Column(name = "sample_count", nullable = false)
+    private int sampleCount;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getStockId() {
+        return stockId;
+    }
+
+    public void setStockId(Long stockId) {
+        this.stockId = stockId;
+    }
+
+    public String getIntervalCode() {
+        return intervalCode;
+    }
+
+    public void setIntervalCode(String intervalCode) {
+        this.intervalCode = intervalCode;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(Instant bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public BigDecimal getOpenPrice() {
+        return openPrice;
+    }
+
+    public void setOpenPrice(BigDecimal openPrice) {
+        this.openPrice = openPrice;
+    }
+
+    public BigDecimal getHighPrice() {
+        return highPrice;
+    }
+
+    public void setHighPrice(BigDecimal highPrice) {
+        this.highPrice = highPrice;
+    }
+
+    public BigDecimal getLowPrice() {
+        return lowPrice;
+    }
+
+    public void setLowPrice(BigDecimal lowPrice) {
+        this.lowPrice = lowPrice;
+    }
+
+    public BigDecimal getClosePrice() {
+        return closePrice;
+    }
+
+    public void setClosePrice(BigDecimal closePrice) {
+        this.closePrice = closePrice;
+    }
+
+    public Instant getOpenAt() {
+        return openAt;
+    }
+
+    public void setOpenAt(Instant openAt) {
+        this.openAt = openAt;
+    }
+
+    public Instant getCloseAt() {
+        return closeAt;
+    }
+
+    public void setCloseAt(Instant closeAt) {
+        this.closeAt = closeAt;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(int sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+}
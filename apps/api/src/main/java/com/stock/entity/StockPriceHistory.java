@@ -0,0 +1,152 @@
+package com.stock.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// One captured quote. Rows are inserted in JDBC batches by PriceHistoryWriter; the entity is only used for reads.
+@Entity
+@Table(name = "stock_price_history", indexes = {
+        @Index(name = "idx_stock_price_history_stock_captured", columnList = "stock_id, captured_at")
+})
+public class StockPriceHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stock_id", nullable = false)
+    private Long stockId;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal price;
+
+    @Column(name = "open_price", precision = 19, scale = 4)
+    private BigDecimal openPrice;
+
+    @Column(name = "high_price", precision = 19, scale = 4)
+    private BigDecimal highPrice;
+
+    @Column(name = "low_price", precision = 19, scale = 4)
+    private BigDecimal lowPrice;
+
+    @Column(name = "previous_close", precision = 19, scale = 4)
+    private BigDecimal previousClose;
+
+    @Column(name = "price_change", precision = 19, scale = 4)
+    private BigDecimal priceChange;
+
+    @Column(name = "change_percent", precision = 19, scale = 4)
+    private BigDecimal changePercent;
+
+    @Column(name = "quoted_at")
+    private Instant quotedAt;
+
+    @Column(name = "captured_at", nullable = false)
+    private Instant capturedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getStockId() {
+        return stockId;
+    }
+
+    public void setStockId(Long stockId) {
+        this.stockId = stockId;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getOpenPrice() {
+        return openPrice;
+    }
+
+    public void setOpenPrice(BigDecimal openPrice) {
+        this.openPrice = openPrice;
+    }
+
+    public BigDecimal getHighPrice() {
+        return highPrice;
+    }
+
+    public void setHighPrice(BigDecimal highPrice) {
+        this.highPrice = highPrice;
+    }
+
+    public BigDecimal getLowPrice() {
+        return lowPrice;
+    }
+
+    public void setLowPrice(BigDecimal lowPrice) {
+        this.lowPrice = lowPrice;
+    }
+
+    public BigDecimal getPreviousClose() {
+        return previousClose;
+    }
+
+    public void setPreviousClose(BigDecimal previousClose) {
+        this.previousClose = previousClose;
+    }
+
+    public BigDecimal getPriceChange() {
+        return priceChange;
+    }
+
+    public void setPriceChange(BigDecimal priceChange) {
+        this.priceChange = priceChange;
+    }
+
+    public BigDecimal getChangePercent() {
+        return changePercent;
+    }
+
+    public void setChangePercent(BigDecimal changePercent) {
+        this.changePercent = changePercent;
+    }
+
+    public Instant getQuotedAt() {
+        return quotedAt;
+    }
+
+    public void setQuotedAt(Instant quotedAt) {
+        this.quotedAt = quotedAt;
+    }
+
+    public Instant getCapturedAt() {
+        return capturedAt;
+    }
+
+    public void setCapturedAt(Instant capturedAt) {
+        this.capturedAt = capturedAt;
+    }
+}
@@ -0,0 +1,11 @@
+package com.stock.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.stock.entity.MarketHoliday;
+
+public interface MarketHolidayRepository extends JpaRepository<MarketHoliday, Long> {
+    List<MarketHoliday> findByExchange(String exchange);
+}
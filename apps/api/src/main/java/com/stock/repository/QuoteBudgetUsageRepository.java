@@ -0,0 +1,12 @@
+package com.stock.repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.stock.entity.QuoteBudgetUsage;
+
+public interface QuoteBudgetUsageRepository extends JpaRepository<QuoteBudgetUsage, LocalDate> {
+    Optional<QuoteBudgetUsage> findFirstByLastRunAtNotNullOrderByLastRunAtDesc();
+}
@@ -0,0 +1,14 @@
+package com.stock.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.stock.entity.StockCandle;
+
+public interface StockCandleRepository extends JpaRepository<StockCandle, Long> {
+    List<StockCandle> findByStockIdAndIntervalCodeAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+            Long stockId, String intervalCode, Instant from, Instant to, Limit limit);
+}
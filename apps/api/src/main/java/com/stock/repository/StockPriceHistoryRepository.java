@@ -0,0 +1,14 @@
+package com.stock.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.stock.entity.StockPriceHistory;
+
+public interface StockPriceHistoryRepository extends JpaRepository<StockPriceHistory, Long> {
+    List<StockPriceHistory> findByStockIdAndCapturedAtGreaterThanEqualAndCapturedAtLessThanOrderByCapturedAtAsc(
+            Long stockId, Instant from, Instant to, Limit limit);
+}
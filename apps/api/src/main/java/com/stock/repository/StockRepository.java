@@ -1,9 +1,25 @@
 package com.stock.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import com.stock.dto.StockRefreshCandidate;
 import com.stock.entity.Stock;
 
 public interface StockRepository extends JpaRepository<Stock, Long> {
     java.util.Optional<Stock> findBySymbol(String symbol);
+
+    java.util.Optional<Stock> findFirstBySymbolIgnoreCase(String symbol);
+
+    java.util.List<Stock> findBySymbolIn(java.util.Collection<String> symbols);
+
+    @Query("select s.symbol from Stock s")
+    java.util.List<String> findAllSymbols();
+
+    @Query("""
+            select new com.stock.dto.StockRefreshCandidate(s.id, s.symbol, s.updatedAt, count(p.id))
+            from Stock s left join com.portfolio.entity.Portfolio p on p.stock = s and p.quantity > 0
+            group by s.id, s.symbol, s.updatedAt
+            """)
+    java.util.List<StockRefreshCandidate> findRefreshCandidates();
 }
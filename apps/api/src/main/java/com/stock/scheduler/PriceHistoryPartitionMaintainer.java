@@ -0,0 +1,71 @@
+package com.stock.scheduler;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Creates the monthly stock_price_history partitions ahead of time so rows never land in the default partition.
+// Only PostgreSQL has the partitioned table; on other databases (H2 in tests) this does nothing.
+@Component
+public class PriceHistoryPartitionMaintainer {
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryPartitionMaintainer.class);
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private volatile Boolean postgres;
+
+    public PriceHistoryPartitionMaintainer(
+            JdbcTemplate jdbcTemplate,
+            @Value("${market-data.history.partition-months-ahead:2}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    // Runs once at startup and then daily, well before each month boundary
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 3 * * *", zone = "UTC")
+    public void ensureUpcomingPartitions() {
+        if (!isPostgres()) {
+            return;
+        }
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String sql = "CREATE TABLE IF NOT EXISTS stock_price_history_" + month.format(SUFFIX)
+                + " PARTITION OF stock_price_history FOR VALUES FROM ('" + month.atDay(1) + " 00:00:00+00')"
+                + " TO ('" + month.plusMonths(1).atDay(1) + " 00:00:00+00')";
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (DataAccessException e) {
+            // Typically the default partition already holds rows for this month; they must be moved by hand
+            log.warn("Could not create price history partition for {}: {}", month, e.getMessage());
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            cached = "PostgreSQL".equalsIgnoreCase(product);
+            postgres = cached;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,101 @@
+package com.stock.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.stereotype.Component;
+
+import com.stock.service.DailyQuoteBudget;
+import com.stock.service.ExchangeCalendar;
+
+// Decides when the next scheduled price refresh runs.
+// While the exchange is open the remaining daily quote budget is spread evenly over the rest of the session, clamped
+// between the minimum and maximum open interval. Once the budget is spent, or the session ends, one more run captures
+// closing prices shortly after the close; after that nothing runs until the next session opens.
+@Component
+public class PriceRefreshTrigger implements Trigger {
+
+    private final ExchangeCalendar calendar;
+    private final DailyQuoteBudget quoteBudget;
+    private final int quotesPerRun;
+    private final Duration minOpenInterval;
+    private final Duration maxOpenInterval;
+    private final Duration postCloseDelay;
+    private final Duration initialDelay;
+
+    public PriceRefreshTrigger(
+            ExchangeCalendar calendar,
+            DailyQuoteBudget quoteBudget,
+            @Value("${market-data.refresh.budget-per-run:50}") int quotesPerRun,
+            @Value("${market-data.schedule.min-open-interval-seconds:60}") long minOpenIntervalSeconds,
+            @Value("${market-data.schedule.max-open-interval-seconds:900}") long maxOpenIntervalSeconds,
+            @Value("${market-data.schedule.post-close-delay-seconds:300}") long postCloseDelaySeconds,
+            @Value("${market-data.refresh.initial-delay-ms:30000}") long initialDelayMs) {
+        if (minOpenIntervalSeconds <= 0 || maxOpenIntervalSeconds < minOpenIntervalSeconds) {
+            throw new IllegalArgumentException("Open refresh interval bounds must be positive and ordered");
+        }
+        this.calendar = calendar;
+        this.quoteBudget = quoteBudget;
+        this.quotesPerRun = Math.max(quotesPerRun, 1);
+        this.minOpenInterval = Duration.ofSeconds(minOpenIntervalSeconds);
+        this.maxOpenInterval = Duration.ofSeconds(maxOpenIntervalSeconds);
+        this.postCloseDelay = Duration.ofSeconds(postCloseDelaySeconds);
+        this.initialDelay = Duration.ofMillis(initialDelayMs);
+    }
+
+    @Override
+    public Instant nextExecution(TriggerContext triggerContext) {
+        Instant now = triggerContext.getClock().instant();
+        if (triggerContext.lastScheduledExecution() == null) {
+            return firstRun(now);
+        }
+        return nextRun(now, triggerContext.lastCompletion());
+    }
+
+    // After a restart only an open session gets a run right after the initial delay. Otherwise the schedule continues
+    // from the last recorded scheduled run, so a restart after the closing prices were captured waits for the next open
+    Instant firstRun(Instant now) {
+        Instant earliest = now.plus(initialDelay);
+        if (calendar.currentSession(now).isPresent()) {
+            return earliest;
+        }
+        Instant next = nextRun(now, quoteBudget.lastRun().orElse(null));
+        return next.isBefore(earliest) ? earliest : next;
+    }
+
+    Instant nextRun(Instant now, Instant lastRun) {
+        Optional<ExchangeCalendar.Session> current = calendar.currentSession(now);
+        if (current.isPresent()) {
+            Instant close = current.get().close().toInstant();
+            Instant postClose = close.plus(postCloseDelay);
+            int remainingRuns = quoteBudget.remaining(now) / quotesPerRun;
+            if (remainingRuns == 0) {
+                return postClose;
+            }
+            Duration interval = Duration.between(now, close).dividedBy(remainingRuns);
+            if (interval.compareTo(minOpenInterval) < 0) {
+                interval = minOpenInterval;
+            } else if (interval.compareTo(maxOpenInterval) > 0) {
+                interval = maxOpenInterval;
+            }
+            Instant next = now.plus(interval);
+            return next.isBefore(close) ? next : postClose;
+        }
+
+        // Closed: catch the closing prices once, then sleep until the next open
+        Optional<ExchangeCalendar.Session> lastSession = calendar.lastClosedSession(now);
+        if (lastSession.isPresent()) {
+            Instant postClose = lastSession.get().close().toInstant().plus(postCloseDelay);
+            if (lastRun == null || lastRun.isBefore(postClose)) {
+                return postClose.isAfter(now) ? postClose : now;
+            }
+        }
+        return calendar.nextSession(now)
+                .map(session -> session.open().toInstant())
+                .orElse(now.plus(maxOpenInterval));
+    }
+}
@@ -1,32 +1,52 @@
 package com.stock.scheduler;
 
+import java.time.Instant;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
+import com.stock.dto.PriceUpdateResultDto;
+import com.stock.service.DailyQuoteBudget;
 import com.stock.service.StockService;
 
 @Component
-public class StockPriceScheduler {
+public class StockPriceScheduler implements SchedulingConfigurer {
     private static final Logger log = LoggerFactory.getLogger(StockPriceScheduler.class);
 
     private final StockService stockService;
+    private final PriceRefreshTrigger refreshTrigger;
+    private final DailyQuoteBudget quoteBudget;
 
-    public StockPriceScheduler(StockService stockService) {
+    public StockPriceScheduler(StockService stockService, PriceRefreshTrigger refreshTrigger,
+            DailyQuoteBudget quoteBudget) {
         this.stockService = stockService;
+        this.refreshTrigger = refreshTrigger;
+        this.quoteBudget = quoteBudget;
+    }
+
+    // Runs are timed by PriceRefreshTrigger: frequent while the exchange is open, once after the close, then idle
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(this::scheduledPriceUpdate, refreshTrigger);
     }
 
-    // Scheduled to run at 5:00 PM every Monday through Friday in America/New_York timezone
-    // This corresponds to after US stock market close (NYSE/NASDAQ close at 4:00 PM ET)
-    @Scheduled(cron = "0 0 17 * * MON-FRI", zone = "America/New_York")
+    // Runs one planner batch; StockService charges the quote requests it sent upstream against the daily budget.
+    // Stocks the planner skips this time (recently refreshed, or beyond the budget) are handled on later runs.
+    // The finish time is persisted so the trigger can resume the schedule after a restart
     public void scheduledPriceUpdate() {
-        log.info("Starting scheduled stock price update after market close");
         try {
-            stockService.updateAllStockPrices();
-            log.info("Scheduled stock price update completed successfully");
+            PriceUpdateResultDto result = stockService.updateAllStockPrices();
+            if (result.getTotalStocks() > 0) {
+                log.info("Scheduled price refresh updated {} of {} planned stocks with {} upstream requests, {} left "
+                        + "in the plan", result.getUpdatedCount(), result.getTotalStocks(), result.getUpstreamRequests(),
+                        result.getRemainingStocks());
+            }
         } catch (Exception e) {
             log.error("Scheduled stock price update failed", e);
         }
+        quoteBudget.recordRun(Instant.now());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.stock.scheduler;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.external.marketdata.MarketQuote;
+import com.external.marketdata.StreamingMarketDataClient;
+import com.stock.repository.StockRepository;
+import com.stock.service.StockService;
+
+// Writes streamed prices to the stocks table in bounded batches.
+// Ticks are coalesced per symbol between flushes, so a busy symbol costs one row update per flush interval.
+@Component
+@ConditionalOnProperty(name = "market-data.mode", havingValue = "streaming")
+public class StreamingPriceIngestor {
+    private static final Logger log = LoggerFactory.getLogger(StreamingPriceIngestor.class);
+
+    private final StreamingMarketDataClient streamingClient;
+    private final StockRepository stockRepository;
+    private final StockService stockService;
+    private final int maxSymbolsPerFlush;
+
+    public StreamingPriceIngestor(
+            StreamingMarketDataClient streamingClient,
+            StockRepository stockRepository,
+            StockService stockService,
+            @Value("${market-data.streaming.max-symbols-per-flush:500}") int maxSymbolsPerFlush) {
+        this.streamingClient = streamingClient;
+        this.stockRepository = stockRepository;
+        this.stockService = stockService;
+        this.maxSymbolsPerFlush = maxSymbolsPerFlush;
+    }
+
+    // Keep the stream subscribed to exactly the symbols in the catalog, including stocks added after startup
+    @Scheduled(fixedDelayString = "${market-data.streaming.subscription-sync-interval-ms:60000}")
+    public void syncSubscriptions() {
+        // Reads the symbols from the database rather than SymbolDirectory: the first sync runs before the directory is
+        // loaded on ApplicationReadyEvent, and stocks inserted outside StockService only reach it once looked up
+        streamingClient.subscribe(stockRepository.findAllSymbols());
+    }
+
+    @Scheduled(fixedDelayString = "${market-data.streaming.flush-interval-ms:1000}")
+    public void flushPendingPrices() {
+        Map<String, MarketQuote> quotes = streamingClient.drainPendingQuotes(maxSymbolsPerFlush);
+        if (quotes.isEmpty()) {
+            return;
+        }
+        try {
+            int updated = stockService.applyStreamedQuotes(quotes);
+            log.debug("Flushed {} streamed prices, {} stocks updated", quotes.size(), updated);
+        } catch (Exception e) {
+            // The drain already removed these quotes; without a requeue they would be lost until the symbol ticks again
+            streamingClient.requeue(quotes);
+            log.error("Failed to write streamed prices, {} quotes requeued for the next flush", quotes.size(), e);
+        }
+    }
+}
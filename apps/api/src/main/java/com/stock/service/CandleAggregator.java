@@ -0,0 +1,168 @@
+package com.stock.service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.external.marketdata.MarketQuote;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Rolls captured quotes up into stock_candles as they are written, so chart reads never rescan the raw history.
+// Each batch is first folded in memory to one candle per stock, interval and bucket; the folded candles are then
+// upserted with one batched MERGE that updates existing buckets and inserts new ones in a single round trip.
+// MERGE rather than INSERT ... ON CONFLICT DO UPDATE because H2, used by the tests, only supports the latter's DO NOTHING
+// form. MERGE does not retry a unique violation from a concurrent insert, which is safe here: it runs on the price
+// history writer's single thread, so two merges of the same bucket never race.
+// Quotes are bucketed by their quote time. Day candles also take the provider's session open, high and low when the
+// quote carries them, so a stock first priced mid-session still gets a correct daily range.
+@Component
+public class CandleAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(CandleAggregator.class);
+    static final String MERGE_SQL = "MERGE INTO stock_candles c USING (VALUES (CAST(? AS BIGINT), "
+            + "CAST(? AS VARCHAR(8)), CAST(? AS TIMESTAMP WITH TIME ZONE), CAST(? AS NUMERIC(19, 4)), "
+            + "CAST(? AS NUMERIC(19, 4)), CAST(? AS NUMERIC(19, 4)), CAST(? AS NUMERIC(19, 4)), "
+            + "CAST(? AS TIMESTAMP WITH TIME ZONE), CAST(? AS TIMESTAMP WITH TIME ZONE), CAST(? AS INTEGER))) "
+            + "AS q (stock_id, interval_code, bucket_start, open_price, high_price, low_price, close_price, open_at, "
+            + "close_at, sample_count) "
+            + "ON c.stock_id = q.stock_id AND c.interval_code = q.interval_code AND c.bucket_start = q.bucket_start "
+            + "WHEN MATCHED THEN UPDATE SET "
+            + "open_price = CASE WHEN q.open_at < c.open_at THEN q.open_price ELSE c.open_price END, "
+            + "open_at = CASE WHEN q.open_at < c.open_at THEN q.open_at ELSE c.open_at END, "
+            + "high_price = GREATEST(c.high_price, q.high_price), "
+            + "low_price = LEAST(c.low_price, q.low_price), "
+            + "close_price = CASE WHEN q.close_at >= c.close_at THEN q.close_price ELSE c.close_price END, "
+            + "close_at = CASE WHEN q.close_at >= c.close_at THEN q.close_at ELSE c.close_at END, "
+            + "sample_count = c.sample_count + q.sample_count "
+            + "WHEN NOT MATCHED THEN INSERT "
+            + "(stock_id, interval_code, bucket_start, open_price, high_price, low_price, close_price, open_at, "
+            + "close_at, sample_count) VALUES (q.stock_id, q.interval_code, q.bucket_start, q.open_price, "
+            + "q.high_price, q.low_price, q.close_price, q.open_at, q.close_at, q.sample_count)";
+
+    private record BucketKey(long stockId, CandleInterval interval, Instant bucketStart) {
+    }
+
+    static final class Candle {
+        final BucketKey key;
+        BigDecimal open;
+        Instant openAt;
+        BigDecimal high;
+        BigDecimal low;
+        BigDecimal close;
+        Instant closeAt;
+        int samples;
+
+        private Candle(BucketKey key, BigDecimal price, Instant at) {
+            this.key = key;
+            this.open = price;
+            this.openAt = at;
+            this.high = price;
+            this.low = price;
+            this.close = price;
+            this.closeAt = at;
+        }
+
+        void add(BigDecimal price, Instant at) {
+            if (at.isBefore(openAt)) {
+                open = price;
+                openAt = at;
+            }
+            if (!at.isBefore(closeAt)) {
+                close = price;
+                closeAt = at;
+            }
+            high = high.max(price);
+            low = low.min(price);
+            samples++;
+        }
+
+        // Session open, high and low reported by the provider; the open is pinned to the start of the bucket
+        void addSessionRange(MarketQuote quote) {
+            if (quote.open() != null && quote.open() > 0) {
+                open = BigDecimal.valueOf(quote.open());
+                openAt = key.bucketStart();
+            }
+            if (quote.high() != null && quote.high() > 0) {
+                high = high.max(BigDecimal.valueOf(quote.high()));
+            }
+            if (quote.low() != null && quote.low() > 0) {
+                low = low.min(BigDecimal.valueOf(quote.low()));
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExchangeCalendar calendar;
+    private final Timer aggregateLatency;
+
+    public CandleAggregator(JdbcTemplate jdbcTemplate, ExchangeCalendar calendar, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.calendar = calendar;
+        this.aggregateLatency = Timer.builder("stock.candle.aggregate")
+                .description("Time to merge one batch of captured quotes into candles")
+                .register(meterRegistry);
+    }
+
+    public void aggregate(List<PriceHistoryWriter.Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Candle> candles = fold(entries);
+        jdbcTemplate.batchUpdate(MERGE_SQL, candles, candles.size(), CandleAggregator::bind);
+        long elapsed = System.nanoTime() - start;
+        aggregateLatency.record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Merged {} quotes into {} candles in {} ms", entries.size(), candles.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    List<Candle> fold(List<PriceHistoryWriter.Entry> entries) {
+        Map<BucketKey, Candle> candles = new LinkedHashMap<>();
+        for (PriceHistoryWriter.Entry entry : entries) {
+            MarketQuote quote = entry.quote();
+            Instant at = quote.quotedAt() != null ? quote.quotedAt() : entry.capturedAt();
+            BigDecimal price = BigDecimal.valueOf(quote.price());
+            for (CandleInterval interval : CandleInterval.values()) {
+                BucketKey key = new BucketKey(entry.stockId(), interval, interval.bucketStart(at, calendar.getZone()));
+                Candle candle = candles.computeIfAbsent(key, k -> new Candle(k, price, at));
+                candle.add(price, at);
+                if (interval == CandleInterval.ONE_DAY) {
+                    candle.addSessionRange(quote);
+                }
+            }
+        }
+        return new ArrayList<>(candles.values());
+    }
+
+    private static void bind(PreparedStatement statement, Candle candle) throws SQLException {
+        statement.setLong(1, candle.key.stockId());
+        statement.setString(2, candle.key.interval().getCode());
+        statement.setObject(3, timestamp(candle.key.bucketStart()));
+        statement.setBigDecimal(4, candle.open);
+        statement.setBigDecimal(5, candle.high);
+        statement.setBigDecimal(6, candle.low);
+        statement.setBigDecimal(7, candle.close);
+        statement.setObject(8, timestamp(candle.openAt));
+        statement.setObject(9, timestamp(candle.closeAt));
+        statement.setInt(10, candle.samples);
+    }
+
+    private static OffsetDateTime timestamp(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
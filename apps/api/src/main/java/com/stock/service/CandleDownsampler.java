@@ -0,0 +1,42 @@
+package com.stock.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.stock.dto.StockCandleDto;
+
+// Merges runs of consecutive candles so a chart never receives more than maxPoints of them.
+// Every output candle covers the same number of input candles: open of the first, close of the last, highest high and
+// lowest low, so price extremes survive the reduction.
+final class CandleDownsampler {
+
+    private CandleDownsampler() {
+    }
+
+    static List<StockCandleDto> downsample(List<StockCandleDto> candles, int maxPoints) {
+        if (candles.size() <= maxPoints) {
+            return candles;
+        }
+        int groupSize = (candles.size() + maxPoints - 1) / maxPoints;
+        List<StockCandleDto> merged = new ArrayList<>(maxPoints);
+        for (int from = 0; from < candles.size(); from += groupSize) {
+            List<StockCandleDto> group = candles.subList(from, Math.min(from + groupSize, candles.size()));
+            StockCandleDto first = group.getFirst();
+            StockCandleDto out = new StockCandleDto();
+            out.setBucketStart(first.getBucketStart());
+            out.setOpen(first.getOpen());
+            out.setHigh(first.getHigh());
+            out.setLow(first.getLow());
+            out.setClose(group.getLast().getClose());
+            int samples = 0;
+            for (StockCandleDto candle : group) {
+                out.setHigh(out.getHigh().max(candle.getHigh()));
+                out.setLow(out.getLow().min(candle.getLow()));
+                samples += candle.getSamples();
+            }
+            out.setSamples(samples);
+            merged.add(out);
+        }
+        return merged;
+    }
+}
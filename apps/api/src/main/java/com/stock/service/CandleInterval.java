@@ -0,0 +1,53 @@
+package com.stock.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+// Candle widths served by /api/stocks/{id}/candles. Intraday buckets are aligned to the epoch; daily buckets start at
+// midnight in the exchange's time zone so a day candle covers one trading date.
+public enum CandleInterval {
+    ONE_MINUTE("1m", Duration.ofMinutes(1), Duration.ofDays(1)),
+    FIVE_MINUTES("5m", Duration.ofMinutes(5), Duration.ofDays(5)),
+    ONE_HOUR("1h", Duration.ofHours(1), Duration.ofDays(30)),
+    ONE_DAY("1d", Duration.ofDays(1), Duration.ofDays(365));
+
+    private final String code;
+    private final Duration width;
+    private final Duration defaultWindow;
+
+    CandleInterval(String code, Duration width, Duration defaultWindow) {
+        this.code = code;
+        this.width = width;
+        this.defaultWindow = defaultWindow;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Duration getDefaultWindow() {
+        return defaultWindow;
+    }
+
+    public Instant bucketStart(Instant at, ZoneId exchangeZone) {
+        if (this == ONE_DAY) {
+            return LocalDate.ofInstant(at, exchangeZone).atStartOfDay(exchangeZone).toInstant();
+        }
+        long widthMillis = width.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(at.toEpochMilli(), widthMillis) * widthMillis);
+    }
+
+    public static CandleInterval parse(String code) {
+        if (code == null || code.isBlank()) {
+            return ONE_MINUTE;
+        }
+        for (CandleInterval interval : values()) {
+            if (interval.code.equalsIgnoreCase(code.trim())) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported candle interval: " + code + " (use 1m, 5m, 1h or 1d)");
+    }
+}
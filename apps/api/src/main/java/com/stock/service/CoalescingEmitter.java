@@ -0,0 +1,169 @@
+package com.stock.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+
+// One Server-Sent Events client with a bounded, coalescing backlog.
+// offer() merges values into a pending map by key and never blocks; at most one send per client runs on the executor,
+// and everything that arrives while it is blocked is merged into the next event. If the executor rejects the send,
+// the backlog is kept and goes out with the next offer, control event or heartbeat. A control event (a full snapshot,
+// or a resync request once the backlog exceeds maxPending keys) replaces the backlog and is sent before later values.
+public final class CoalescingEmitter<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingEmitter.class);
+    public static final String RESYNC_EVENT = "resync";
+
+    private record ControlEvent(String name, Object data) {
+    }
+
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final String eventName;
+    private final Function<V, K> keyOf;
+    private final BinaryOperator<V> merge;
+    private final int maxPending;
+    private final Consumer<CoalescingEmitter<K, V>> onClosed;
+    private final Counter valuesSent;
+    private final Counter resyncs;
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<K, V> pending = new LinkedHashMap<>();
+    private ControlEvent control;
+    private boolean heartbeat;
+
+    public CoalescingEmitter(SseEmitter emitter, Executor executor, String eventName, Function<V, K> keyOf,
+            BinaryOperator<V> merge, int maxPending, Consumer<CoalescingEmitter<K, V>> onClosed, Counter valuesSent,
+            Counter resyncs) {
+        this.emitter = emitter;
+        this.executor = executor;
+        this.eventName = eventName;
+        this.keyOf = keyOf;
+        this.merge = merge;
+        this.maxPending = maxPending;
+        this.onClosed = onClosed;
+        this.valuesSent = valuesSent;
+        this.resyncs = resyncs;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(error -> close());
+    }
+
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    public void offer(Iterable<? extends V> values) {
+        lock.lock();
+        try {
+            for (V value : values) {
+                pending.merge(keyOf.apply(value), value, merge);
+            }
+            if (pending.size() > maxPending) {
+                pending = new LinkedHashMap<>();
+                control = new ControlEvent(RESYNC_EVENT, "reload");
+                resyncs.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        scheduleSend();
+    }
+
+    // Replaces anything pending with one event, e.g. a full snapshot after the client's underlying data changed
+    public void sendControl(String name, Object data) {
+        lock.lock();
+        try {
+            pending = new LinkedHashMap<>();
+            control = new ControlEvent(name, data);
+        } finally {
+            lock.unlock();
+        }
+        scheduleSend();
+    }
+
+    // Comment lines keep idle connections open through proxies and reveal clients that have gone away
+    public void heartbeat() {
+        lock.lock();
+        try {
+            heartbeat = true;
+        } finally {
+            lock.unlock();
+        }
+        scheduleSend();
+    }
+
+    private void scheduleSend() {
+        if (!closed.get() && sending.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                sending.set(false);
+            }
+        }
+    }
+
+    // Sends until nothing is pending; values that arrive during a send are picked up by the next loop
+    private void drain() {
+        while (true) {
+            ControlEvent controlEvent;
+            List<V> values = List.of();
+            boolean sendHeartbeat;
+            lock.lock();
+            try {
+                controlEvent = control;
+                control = null;
+                if (controlEvent == null && !pending.isEmpty()) {
+                    values = new ArrayList<>(pending.values());
+                    pending = new LinkedHashMap<>();
+                }
+                sendHeartbeat = heartbeat && controlEvent == null && values.isEmpty();
+                heartbeat = false;
+                if (controlEvent == null && values.isEmpty() && !sendHeartbeat) {
+                    sending.set(false);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                if (controlEvent != null) {
+                    emitter.send(SseEmitter.event().name(controlEvent.name()).data(controlEvent.data()));
+                } else if (sendHeartbeat) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    emitter.send(SseEmitter.event().name(eventName).data(values));
+                    valuesSent.increment(values.size());
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping {} stream subscriber: {}", eventName, e.getMessage());
+                close();
+                emitter.completeWithError(e);
+                sending.set(false);
+                return;
+            }
+        }
+    }
+
+    private void close() {
+        if (closed.compareAndSet(false, true)) {
+            onClosed.accept(this);
+        }
+    }
+}
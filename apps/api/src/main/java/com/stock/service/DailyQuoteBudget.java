@@ -0,0 +1,136 @@
+package com.stock.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.stock.entity.QuoteBudgetUsage;
+import com.stock.repository.QuoteBudgetUsageRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Quotes price refreshes may spend per exchange-local day. Every refresh is charged, scheduled or triggered by an admin,
+// but only the scheduler paces itself by what remains. Usage resets when the exchange date changes.
+// Each charge is also added to the day's row in quote_budget_usage, and the day's usage is read back from there when
+// the date changes (including the first use after startup), so a restart does not hand out the day's budget again.
+// The same row keeps when the latest scheduled refresh finished, which PriceRefreshTrigger resumes from after a restart.
+@Component
+public class DailyQuoteBudget {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyQuoteBudget.class);
+    static final String ADD_USAGE_SQL = "UPDATE quote_budget_usage SET quotes_used = quotes_used + ?, "
+            + "last_run_at = COALESCE(CAST(? AS TIMESTAMP WITH TIME ZONE), last_run_at) WHERE trading_day = ?";
+    static final String INSERT_USAGE_SQL = "INSERT INTO quote_budget_usage (trading_day, quotes_used, last_run_at) "
+            + "VALUES (?, ?, CAST(? AS TIMESTAMP WITH TIME ZONE))";
+
+    private final ExchangeCalendar calendar;
+    private final QuoteBudgetUsageRepository usageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int dailyLimit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private LocalDate day;
+    private int used;
+
+    public DailyQuoteBudget(
+            ExchangeCalendar calendar,
+            QuoteBudgetUsageRepository usageRepository,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${market-data.schedule.daily-quote-budget:20000}") int dailyLimit) {
+        if (dailyLimit <= 0) {
+            throw new IllegalArgumentException("Daily quote budget must be positive");
+        }
+        this.calendar = calendar;
+        this.usageRepository = usageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dailyLimit = dailyLimit;
+        Gauge.builder("marketdata.quota.remaining", this, budget -> budget.remaining(Instant.now()))
+                .description("Quotes price refreshes may still spend today")
+                .register(meterRegistry);
+    }
+
+    public void recordUsage(int quotes, Instant now) {
+        LocalDate today;
+        lock.lock();
+        try {
+            rollOver(now);
+            used += quotes;
+            today = day;
+        } finally {
+            lock.unlock();
+        }
+        persistUsage(today, quotes, null);
+    }
+
+    // Called by the scheduler once a scheduled refresh has finished, whether or not it spent any quotes
+    public void recordRun(Instant finishedAt) {
+        persistUsage(LocalDate.ofInstant(finishedAt, calendar.getZone()), 0, finishedAt);
+    }
+
+    public int remaining(Instant now) {
+        lock.lock();
+        try {
+            rollOver(now);
+            return Math.max(dailyLimit - used, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // When the latest scheduled refresh finished, as recorded by recordRun; empty if none was ever recorded
+    public Optional<Instant> lastRun() {
+        try {
+            return usageRepository.findFirstByLastRunAtNotNullOrderByLastRunAtDesc().map(QuoteBudgetUsage::getLastRunAt);
+        } catch (DataAccessException e) {
+            log.warn("Could not read when the last scheduled price refresh ran: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void rollOver(Instant now) {
+        LocalDate today = LocalDate.ofInstant(now, calendar.getZone());
+        if (!today.equals(day)) {
+            day = today;
+            used = loadUsage(today);
+        }
+    }
+
+    private int loadUsage(LocalDate today) {
+        try {
+            return usageRepository.findById(today).map(QuoteBudgetUsage::getQuotesUsed).orElse(0);
+        } catch (DataAccessException e) {
+            log.warn("Could not read quote budget usage for {}; counting from zero: {}", today, e.getMessage());
+            return 0;
+        }
+    }
+
+    // Adds the quotes to the day's row and, when finishedAt is set, records it as the day's latest scheduled run
+    private void persistUsage(LocalDate today, int quotes, Instant finishedAt) {
+        OffsetDateTime refreshedAt = finishedAt == null ? null : finishedAt.atOffset(ZoneOffset.UTC);
+        try {
+            if (jdbcTemplate.update(ADD_USAGE_SQL, quotes, refreshedAt, today) > 0) {
+                return;
+            }
+            try {
+                jdbcTemplate.update(INSERT_USAGE_SQL, today, quotes, refreshedAt);
+            } catch (DuplicateKeyException e) {
+                // Another instance created the day's row first
+                jdbcTemplate.update(ADD_USAGE_SQL, quotes, refreshedAt, today);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not persist quote budget usage for {}: {}", today, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.stock.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.stock.entity.MarketHoliday;
+import com.stock.repository.MarketHolidayRepository;
+
+// Regular trading sessions for one exchange: weekdays between the configured open and close, minus the holidays in
+// market_holidays. Half days keep their open and close at the holiday's early_close time.
+// The holiday table is cached and re-read periodically so newly added holidays are picked up without a restart.
+@Component
+public class ExchangeCalendar {
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeCalendar.class);
+    private static final int MAX_DAYS_TO_SEARCH = 14;
+    private static final long HOLIDAY_RELOAD_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    public record Session(ZonedDateTime open, ZonedDateTime close) {
+
+        public boolean contains(Instant instant) {
+            return !instant.isBefore(open.toInstant()) && instant.isBefore(close.toInstant());
+        }
+    }
+
+    private record Holidays(Map<LocalDate, MarketHoliday> byDate, long loadedAtNanos) {
+    }
+
+    private final MarketHolidayRepository holidayRepository;
+    private final String exchange;
+    private final ZoneId zone;
+    private final LocalTime openTime;
+    private final LocalTime closeTime;
+    private volatile Holidays holidays;
+
+    public ExchangeCalendar(
+            MarketHolidayRepository holidayRepository,
+            @Value("${market-data.schedule.exchange:US}") String exchange,
+            @Value("${market-data.schedule.zone:America/New_York}") String zone,
+            @Value("${market-data.schedule.open:09:30}") String openTime,
+            @Value("${market-data.schedule.close:16:00}") String closeTime) {
+        this.holidayRepository = holidayRepository;
+        this.exchange = exchange;
+        this.zone = ZoneId.of(zone);
+        this.openTime = LocalTime.parse(openTime);
+        this.closeTime = LocalTime.parse(closeTime);
+        if (!this.openTime.isBefore(this.closeTime)) {
+            throw new IllegalArgumentException("Exchange open time must be before its close time");
+        }
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // The trading session on the given exchange-local date, or empty on weekends and full holidays
+    public Optional<Session> sessionOn(LocalDate date) {
+        if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            return Optional.empty();
+        }
+        LocalTime close = closeTime;
+        MarketHoliday holiday = holidays().get(date);
+        if (holiday != null) {
+            if (holiday.getEarlyClose() == null) {
+                return Optional.empty();
+            }
+            close = holiday.getEarlyClose();
+        }
+        return Optional.of(new Session(date.atTime(openTime).atZone(zone), date.atTime(close).atZone(zone)));
+    }
+
+    // The session in progress at the given instant, if the market is open
+    public Optional<Session> currentSession(Instant now) {
+        return sessionOn(LocalDate.ofInstant(now, zone)).filter(session -> session.contains(now));
+    }
+
+    // The first session that opens after the given instant
+    public Optional<Session> nextSession(Instant now) {
+        LocalDate date = LocalDate.ofInstant(now, zone);
+        for (int i = 0; i <= MAX_DAYS_TO_SEARCH; i++) {
+            Optional<Session> session = sessionOn(date.plusDays(i));
+            if (session.isPresent() && session.get().open().toInstant().isAfter(now)) {
+                return session;
+            }
+        }
+        return Optional.empty();
+    }
+
+    // The most recent session that has already closed at the given instant
+    public Optional<Session> lastClosedSession(Instant now) {
+        LocalDate date = LocalDate.ofInstant(now, zone);
+        for (int i = 0; i <= MAX_DAYS_TO_SEARCH; i++) {
+            Optional<Session> session = sessionOn(date.minusDays(i));
+            if (session.isPresent() && !session.get().close().toInstant().isAfter(now)) {
+                return session;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Map<LocalDate, MarketHoliday> holidays() {
+        Holidays cached = holidays;
+        if (cached == null || System.nanoTime() - cached.loadedAtNanos() > HOLIDAY_RELOAD_NANOS) {
+            try {
+                Map<LocalDate, MarketHoliday> byDate = holidayRepository.findByExchange(exchange).stream()
+                        .collect(Collectors.toMap(MarketHoliday::getHolidayDate, Function.identity(), (a, b) -> a));
+                cached = new Holidays(byDate, System.nanoTime());
+                holidays = cached;
+            } catch (RuntimeException e) {
+                if (cached == null) {
+                    throw e;
+                }
+                log.warn("Could not reload {} market holidays, keeping the previous calendar: {}", exchange,
+                        e.getMessage());
+                cached = new Holidays(cached.byDate(), System.nanoTime());
+                holidays = cached;
+            }
+        }
+        return cached.byDate();
+    }
+}
@@ -0,0 +1,118 @@
+package com.stock.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Pushes stored price changes to Server-Sent Events subscribers without blocking the price refresh.
+// publish() only merges the batch into each subscriber's pending map, keyed by symbol, and schedules a send if none is
+// in flight (see CoalescingEmitter) on the dedicated SSE send executor; a send that executor rejects stays pending
+// rather than running on the publishing thread. Each subscriber has at most one send running, so a slow client never
+// holds up the others: while its send is blocked, later changes for the same symbol coalesce into one delta. When a
+// subscriber falls more than max-pending-symbols distinct symbols behind, its pending changes are dropped and it is
+// sent a "resync" event telling it to reload GET /api/stocks instead.
+// In-process listeners registered with addListener() see every batch first, on the publishing thread.
+@Component
+public class PriceChangeEventBus {
+
+    static final String PRICES_EVENT = "prices";
+
+    private final ExecutorService sendExecutor;
+    private final int maxSubscribers;
+    private final int maxPendingSymbols;
+    private final long emitterTimeoutMs;
+    private final Set<CoalescingEmitter<String, PriceDelta>> subscribers = ConcurrentHashMap.newKeySet();
+    // Makes the subscriber limit check and the add one step, so concurrent connects cannot overshoot it
+    private final ReentrantLock registry = new ReentrantLock();
+    private final List<Consumer<List<PriceDelta>>> listeners = new CopyOnWriteArrayList<>();
+    private final Counter deltasSent;
+    private final Counter resyncs;
+
+    public PriceChangeEventBus(
+            @Qualifier("sseSendExecutor") ExecutorService sendExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${stocks.stream.max-subscribers:5000}") int maxSubscribers,
+            @Value("${stocks.stream.max-pending-symbols:1000}") int maxPendingSymbols,
+            @Value("${stocks.stream.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        if (maxSubscribers <= 0 || maxPendingSymbols <= 0) {
+            throw new IllegalArgumentException("Price stream subscriber and pending limits must be positive");
+        }
+        this.sendExecutor = sendExecutor;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPendingSymbols = maxPendingSymbols;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.deltasSent = Counter.builder("stock.price.stream.deltas")
+                .description("Price deltas sent to stream subscribers after coalescing")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("stock.price.stream.resyncs")
+                .description("Stream subscribers that fell too far behind and were told to reload the catalog")
+                .register(meterRegistry);
+        Gauge.builder("stock.price.stream.subscribers", subscribers, Set::size)
+                .description("Open /api/stocks/stream connections")
+                .register(meterRegistry);
+    }
+
+    // Opens a new stream; rejected with IllegalStateException once max-subscribers streams are open
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        register(emitter);
+        return emitter;
+    }
+
+    CoalescingEmitter<String, PriceDelta> register(SseEmitter emitter) {
+        CoalescingEmitter<String, PriceDelta> subscriber = new CoalescingEmitter<>(emitter, sendExecutor, PRICES_EVENT,
+                PriceDelta::symbol, PriceDelta::then, maxPendingSymbols, subscribers::remove, deltasSent, resyncs);
+        registry.lock();
+        try {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new IllegalStateException("Too many open price streams");
+            }
+            subscribers.add(subscriber);
+        } finally {
+            registry.unlock();
+        }
+        return subscriber;
+    }
+
+    // Listeners run synchronously on the refresh thread and must not block
+    public void addListener(Consumer<List<PriceDelta>> listener) {
+        listeners.add(listener);
+    }
+
+    public void publish(List<PriceDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        for (Consumer<List<PriceDelta>> listener : listeners) {
+            listener.accept(deltas);
+        }
+        for (CoalescingEmitter<String, PriceDelta> subscriber : subscribers) {
+            subscriber.offer(deltas);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${stocks.stream.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        for (CoalescingEmitter<String, PriceDelta> subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+}
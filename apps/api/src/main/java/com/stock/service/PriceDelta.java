@@ -0,0 +1,13 @@
+package com.stock.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One stored price change, as pushed to /api/stocks/stream subscribers
+public record PriceDelta(Long stockId, String symbol, BigDecimal oldPrice, BigDecimal newPrice, LocalDateTime updatedAt) {
+
+    // Folds a later change for the same stock into this one, keeping the oldest starting price
+    PriceDelta then(PriceDelta later) {
+        return new PriceDelta(stockId, later.symbol(), oldPrice, later.newPrice(), later.updatedAt());
+    }
+}
@@ -0,0 +1,229 @@
+package com.stock.service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.external.marketdata.MarketQuote;
+import com.stock.entity.Stock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Appends captured quotes to stock_price_history off the refresh path.
+// Callers only enqueue; a single writer thread drains the bounded queue and inserts rows with JDBC batches.
+// When the queue is full new rows are dropped and counted rather than slowing down the price refresh.
+// A quote that is not newer than the last one recorded for its stock is skipped: cached quotes and streamed ticks
+// that were already written come back on later refreshes, and each would otherwise add a duplicate row and candle sample.
+// Each written batch is then handed to CandleAggregator on the same thread.
+@Component
+public class PriceHistoryWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryWriter.class);
+    private static final long POLL_INTERVAL_MS = 200;
+    static final String INSERT_SQL = "INSERT INTO stock_price_history "
+            + "(stock_id, symbol, price, open_price, high_price, low_price, previous_close, price_change, "
+            + "change_percent, quoted_at, captured_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    record Entry(long stockId, MarketQuote quote, Instant capturedAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CandleAggregator candleAggregator;
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+    private final long shutdownTimeoutMs;
+    private final Counter rowsWritten;
+    private final Counter rowsDropped;
+    private final Counter rowsSkipped;
+    private final Map<Long, Instant> lastQuotedAt = new ConcurrentHashMap<>();
+    private final Counter rowsFailed;
+    private final Timer batchLatency;
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    public PriceHistoryWriter(
+            JdbcTemplate jdbcTemplate,
+            CandleAggregator candleAggregator,
+            MeterRegistry meterRegistry,
+            @Value("${market-data.history.queue-capacity:100000}") int queueCapacity,
+            @Value("${market-data.history.batch-size:500}") int batchSize,
+            @Value("${market-data.history.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        if (queueCapacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Price history queue capacity and batch size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.candleAggregator = candleAggregator;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.rowsWritten = rows(meterRegistry, "written", "Price history rows inserted");
+        this.rowsDropped = rows(meterRegistry, "dropped", "Price history rows dropped because the write queue was full");
+        this.rowsSkipped = rows(meterRegistry, "skipped", "Price history rows skipped because the quote was already recorded");
+        this.rowsFailed = rows(meterRegistry, "failed", "Price history rows lost to failed batch inserts");
+        this.batchLatency = Timer.builder("stock.price.history.batch")
+                .description("Time to insert one batch of price history rows")
+                .register(meterRegistry);
+        Gauge.builder("stock.price.history.queue", queue, BlockingQueue::size)
+                .description("Price history rows waiting to be written")
+                .register(meterRegistry);
+    }
+
+    // Queues one captured quote; returns false when the quote was already recorded or the queue is full
+    public boolean record(Stock stock, MarketQuote quote, Instant capturedAt) {
+        Long stockId = stock.getId();
+        Instant quotedAt = quote.quotedAt();
+        if (quotedAt != null) {
+            Instant previous = lastQuotedAt.get(stockId);
+            boolean newer = previous == null
+                    ? lastQuotedAt.putIfAbsent(stockId, quotedAt) == null
+                    : quotedAt.isAfter(previous) && lastQuotedAt.replace(stockId, previous, quotedAt);
+            if (!newer) {
+                rowsSkipped.increment();
+                return false;
+            }
+        }
+        if (queue.offer(new Entry(stockId, quote, capturedAt))) {
+            return true;
+        }
+        // Nothing was written, so the same quote may still be recorded by a later refresh
+        if (quotedAt != null) {
+            lastQuotedAt.remove(stockId, quotedAt);
+        }
+        rowsDropped.increment();
+        return false;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "price-history-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    // Stops accepting work from the loop and waits for rows already queued to be flushed
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writerThread;
+        writerThread = null;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Price history writer stopped with {} rows still queued", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writerThread != null;
+    }
+
+    // Stop after the web server and schedulers so that late refreshes still reach the queue before the final flush
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void writeBatch(List<Entry> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), PriceHistoryWriter::bind);
+            rowsWritten.increment(batch.size());
+        } catch (RuntimeException e) {
+            rowsFailed.increment(batch.size());
+            log.error("Failed to write {} price history rows: {}", batch.size(), e.getMessage(), e);
+            return;
+        } finally {
+            batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            candleAggregator.aggregate(batch);
+        } catch (RuntimeException e) {
+            log.error("Failed to merge {} price history rows into candles: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Entry entry) throws SQLException {
+        MarketQuote quote = entry.quote();
+        statement.setLong(1, entry.stockId());
+        statement.setString(2, quote.symbol());
+        statement.setBigDecimal(3, BigDecimal.valueOf(quote.price()));
+        statement.setBigDecimal(4, decimal(quote.open()));
+        statement.setBigDecimal(5, decimal(quote.high()));
+        statement.setBigDecimal(6, decimal(quote.low()));
+        statement.setBigDecimal(7, decimal(quote.previousClose()));
+        statement.setBigDecimal(8, decimal(quote.change()));
+        statement.setBigDecimal(9, decimal(quote.changePercent()));
+        setTimestamp(statement, 10, quote.quotedAt());
+        setTimestamp(statement, 11, entry.capturedAt());
+    }
+
+    private static BigDecimal decimal(Double value) {
+        return value == null ? null : BigDecimal.valueOf(value);
+    }
+
+    private static void setTimestamp(PreparedStatement statement, int index, Instant instant) throws SQLException {
+        if (instant == null) {
+            statement.setNull(index, Types.TIMESTAMP_WITH_TIMEZONE);
+        } else {
+            statement.setObject(index, OffsetDateTime.ofInstant(instant, ZoneOffset.UTC));
+        }
+    }
+
+    private static Counter rows(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("stock.price.history.rows")
+                .description(description)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,174 @@
+package com.stock.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.stock.dto.StockRefreshCandidate;
+import com.stock.repository.StockRepository;
+
+// Decides which stocks the next price refresh should spend its quote budget on.
+// Stocks are ranked by how many portfolios hold them, how stale their price is and how recently a user viewed them;
+// stocks refreshed within the minimum interval are left out. Each call hands out the next budget-sized slice of the
+// ranked plan and remembers its position, so a refresh that stops part-way continues from there on the next run.
+// The plan is ranked again once it is exhausted or older than plan-max-age.
+// Staleness and the minimum interval count from the later of the stored price's updated_at and this instance's last
+// quote attempt for the stock: updated_at only moves when the price changes, so a flat or unquotable stock would
+// otherwise look maximally stale and be re-quoted on every run.
+@Component
+public class PriceRefreshPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceRefreshPlanner.class);
+
+    public record Batch(List<StockRefreshCandidate> stocks, int remaining) {
+    }
+
+    record ScoredCandidate(StockRefreshCandidate candidate, double score) {
+    }
+
+    private final StockRepository stockRepository;
+    private final StockViewTracker viewTracker;
+    private final int budgetPerRun;
+    private final Duration minInterval;
+    private final Duration planMaxAge;
+    private final Duration stalenessScale;
+    private final Duration viewHalfLife;
+    private final double holderWeight;
+    private final double stalenessWeight;
+    private final double viewWeight;
+    private final Map<Long, LocalDateTime> lastAttempts = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<StockRefreshCandidate> plan = List.of();
+    private int cursor;
+    private long plannedAtNanos;
+
+    public PriceRefreshPlanner(
+            StockRepository stockRepository,
+            StockViewTracker viewTracker,
+            @Value("${market-data.refresh.budget-per-run:50}") int budgetPerRun,
+            @Value("${market-data.refresh.min-interval-seconds:900}") long minIntervalSeconds,
+            @Value("${market-data.refresh.plan-max-age-seconds:3600}") long planMaxAgeSeconds,
+            @Value("${market-data.refresh.staleness-scale-minutes:60}") long stalenessScaleMinutes,
+            @Value("${market-data.refresh.view-half-life-minutes:30}") long viewHalfLifeMinutes,
+            @Value("${market-data.refresh.weights.holders:1.0}") double holderWeight,
+            @Value("${market-data.refresh.weights.staleness:1.0}") double stalenessWeight,
+            @Value("${market-data.refresh.weights.views:2.0}") double viewWeight) {
+        if (budgetPerRun <= 0) {
+            throw new IllegalArgumentException("Price refresh budget must be positive");
+        }
+        this.stockRepository = stockRepository;
+        this.viewTracker = viewTracker;
+        this.budgetPerRun = budgetPerRun;
+        this.minInterval = Duration.ofSeconds(minIntervalSeconds);
+        this.planMaxAge = Duration.ofSeconds(planMaxAgeSeconds);
+        this.stalenessScale = Duration.ofMinutes(Math.max(stalenessScaleMinutes, 1));
+        this.viewHalfLife = Duration.ofMinutes(Math.max(viewHalfLifeMinutes, 1));
+        this.holderWeight = holderWeight;
+        this.stalenessWeight = stalenessWeight;
+        this.viewWeight = viewWeight;
+    }
+
+    // Next slice of the current plan, at most budgetPerRun stocks; ranks a new plan when needed
+    public Batch nextBatch() {
+        lock.lock();
+        try {
+            boolean expired = System.nanoTime() - plannedAtNanos > planMaxAge.toNanos();
+            if (cursor >= plan.size() || expired) {
+                replan();
+            }
+            int end = Math.min(cursor + budgetPerRun, plan.size());
+            List<StockRefreshCandidate> batch = List.copyOf(plan.subList(cursor, end));
+            cursor = end;
+            return new Batch(batch, plan.size() - cursor);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called once the given stocks have been sent for quotes, whether or not a price came back or changed
+    public void recordAttempts(Collection<Long> stockIds) {
+        recordAttempts(stockIds, LocalDateTime.now());
+    }
+
+    void recordAttempts(Collection<Long> stockIds, LocalDateTime attemptedAt) {
+        stockIds.forEach(stockId -> lastAttempts.put(stockId, attemptedAt));
+    }
+
+    public void forget(Long stockId) {
+        lastAttempts.remove(stockId);
+    }
+
+    // Drops the current plan so the next batch is ranked from fresh data
+    public void reset() {
+        lock.lock();
+        try {
+            plan = List.of();
+            cursor = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void replan() {
+        LocalDateTime now = LocalDateTime.now();
+        plan = rank(stockRepository.findRefreshCandidates(), now, System.currentTimeMillis()).stream()
+                .map(ScoredCandidate::candidate)
+                .toList();
+        cursor = 0;
+        plannedAtNanos = System.nanoTime();
+        log.info("Planned price refresh for {} stocks, {} per run", plan.size(), budgetPerRun);
+    }
+
+    // Highest score first; stocks refreshed within the minimum interval are not planned at all
+    List<ScoredCandidate> rank(List<StockRefreshCandidate> candidates, LocalDateTime now, long nowMillis) {
+        return candidates.stream()
+                .filter(candidate -> {
+                    LocalDateTime refreshedAt = lastRefreshedAt(candidate);
+                    return refreshedAt == null || !refreshedAt.isAfter(now.minus(minInterval));
+                })
+                .map(candidate -> new ScoredCandidate(candidate, score(candidate, now, nowMillis)))
+                .sorted(Comparator.comparingDouble(ScoredCandidate::score).reversed()
+                        .thenComparing(scored -> scored.candidate().stockId()))
+                .toList();
+    }
+
+    double score(StockRefreshCandidate candidate, LocalDateTime now, long nowMillis) {
+        // Holders count with diminishing returns so one popular stock cannot starve the rest
+        double holders = Math.log1p(candidate.holders());
+
+        // Staleness is capped at two scales; stocks that were never priced or quoted count as maximally stale
+        LocalDateTime refreshedAt = lastRefreshedAt(candidate);
+        double staleness = refreshedAt == null
+                ? 2.0
+                : (double) Duration.between(refreshedAt, now).toMillis() / stalenessScale.toMillis();
+
+        Long lastViewed = viewTracker.lastViewedAt(candidate.stockId());
+        double views = 0.0;
+        if (lastViewed != null) {
+            double halfLives = (double) Math.max(nowMillis - lastViewed, 0) / viewHalfLife.toMillis();
+            views = Math.pow(0.5, halfLives);
+        }
+
+        return holderWeight * holders + stalenessWeight * Math.min(staleness, 2.0) + viewWeight * views;
+    }
+
+    private LocalDateTime lastRefreshedAt(StockRefreshCandidate candidate) {
+        LocalDateTime attemptedAt = lastAttempts.get(candidate.stockId());
+        if (attemptedAt == null) {
+            return candidate.updatedAt();
+        }
+        return candidate.updatedAt() == null || attemptedAt.isAfter(candidate.updatedAt())
+                ? attemptedAt
+                : candidate.updatedAt();
+    }
+}
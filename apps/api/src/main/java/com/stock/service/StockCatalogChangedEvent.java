@@ -0,0 +1,5 @@
+package com.stock.service;
+
+// Published whenever stock rows or their prices change, so cached views of the catalog can be rebuilt
+public record StockCatalogChangedEvent(String reason) {
+}
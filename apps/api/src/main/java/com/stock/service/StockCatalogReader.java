@@ -0,0 +1,218 @@
+package com.stock.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.stock.dto.StockPageDto;
+import com.stock.dto.StockResponseDto;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// Reads the stock catalog straight from the stocks table without loading entities.
+// Pages use keyset pagination: the cursor holds the last row's sort key and id, so every page is an index range scan
+// no matter how deep the client has paged. The NDJSON export reads the same query through a JDBC cursor (fetch size
+// rows per round trip, inside a read-only transaction so PostgreSQL does not materialize the result) and writes each
+// row as it arrives, keeping memory flat regardless of catalog size.
+@Component
+public class StockCatalogReader {
+
+    private static final String COLUMNS = "SELECT id, symbol, name, price, updated_at FROM stocks";
+
+    public enum Sort {
+        SYMBOL, ID;
+
+        public static Sort parse(String value) {
+            if (value == null || value.isBlank()) {
+                return SYMBOL;
+            }
+            try {
+                return Sort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported stock sort: " + value);
+            }
+        }
+    }
+
+    public record Filter(String symbolPrefix, BigDecimal minPrice, BigDecimal maxPrice) {
+    }
+
+    private record Cursor(String symbol, long id) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonMapper jsonMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int fetchSize;
+
+    public StockCatalogReader(
+            JdbcTemplate jdbcTemplate,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            JsonMapper jsonMapper,
+            @Value("${stocks.listing.default-page-size:100}") int defaultPageSize,
+            @Value("${stocks.listing.max-page-size:1000}") int maxPageSize,
+            @Value("${stocks.listing.stream-fetch-size:500}") int fetchSize) {
+        if (defaultPageSize <= 0 || maxPageSize < defaultPageSize || fetchSize <= 0) {
+            throw new IllegalArgumentException("Stock listing page and fetch sizes must be positive and ordered");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonMapper = jsonMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.fetchSize = fetchSize;
+    }
+
+    // One page after the given cursor; nextCursor is set only when more rows follow
+    public StockPageDto page(Sort sort, Filter filter, String after, Integer limit) {
+        int size = limit == null ? defaultPageSize : limit;
+        if (size <= 0 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + maxPageSize);
+        }
+        Cursor cursor = decode(sort, after);
+        List<Object> args = new ArrayList<>();
+        String sql = query(sort, filter, cursor, args) + " LIMIT ?";
+        args.add(size + 1);
+        List<StockResponseDto> rows = jdbcTemplate.query(sql, (rs, rowNum) -> toDto(rs), args.toArray());
+
+        StockPageDto page = new StockPageDto();
+        boolean hasMore = rows.size() > size;
+        List<StockResponseDto> items = hasMore ? rows.subList(0, size) : rows;
+        page.setItems(new ArrayList<>(items));
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            page.setNextCursor(encode(sort, items.get(items.size() - 1)));
+        }
+        return page;
+    }
+
+    // Writes every matching stock as one JSON object per line; the first row is flushed as soon as it is read
+    public void stream(Sort sort, Filter filter, OutputStream out) {
+        List<Object> args = new ArrayList<>();
+        String sql = query(sort, filter, null, args);
+        BufferedOutputStream buffered = new BufferedOutputStream(out);
+        RowCallbackHandler writer = new RowCallbackHandler() {
+            private int written;
+
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                try {
+                    buffered.write(jsonMapper.writeValueAsBytes(toDto(rs)));
+                    buffered.write('\n');
+                    if (++written == 1 || written % fetchSize == 0) {
+                        buffered.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        readOnlyTransaction.executeWithoutResult(status -> streamingTemplate.query(sql, writer, args.toArray()));
+        try {
+            buffered.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String query(Sort sort, Filter filter, Cursor cursor, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (filter != null && filter.symbolPrefix() != null && !filter.symbolPrefix().isBlank()) {
+            conditions.add("symbol LIKE ? ESCAPE '\\'");
+            args.add(escapeLike(SymbolDirectory.normalize(filter.symbolPrefix())) + "%");
+        }
+        if (filter != null && filter.minPrice() != null) {
+            conditions.add("price >= ?");
+            args.add(filter.minPrice());
+        }
+        if (filter != null && filter.maxPrice() != null) {
+            conditions.add("price <= ?");
+            args.add(filter.maxPrice());
+        }
+        if (cursor != null) {
+            if (sort == Sort.SYMBOL) {
+                // Row-value comparison so PostgreSQL seeks idx_stocks_symbol_id instead of filtering an OR
+                conditions.add("(symbol, id) > (?, ?)");
+                args.add(cursor.symbol());
+                args.add(cursor.id());
+            } else {
+                conditions.add("id > ?");
+                args.add(cursor.id());
+            }
+        }
+        StringBuilder sql = new StringBuilder(COLUMNS);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(sort == Sort.SYMBOL ? " ORDER BY symbol, id" : " ORDER BY id");
+        return sql.toString();
+    }
+
+    private static StockResponseDto toDto(ResultSet rs) throws SQLException {
+        StockResponseDto dto = new StockResponseDto();
+        dto.setId(rs.getLong("id"));
+        dto.setSymbol(rs.getString("symbol"));
+        dto.setName(rs.getString("name"));
+        dto.setPrice(rs.getBigDecimal("price"));
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        dto.setUpdatedAt(updatedAt == null ? null : updatedAt.toLocalDateTime());
+        return dto;
+    }
+
+    // Cursors are opaque to clients: base64url of "<sort>:<id>[:<symbol>]"
+    private static String encode(Sort sort, StockResponseDto last) {
+        String raw = sort == Sort.SYMBOL
+                ? "symbol:" + last.getId() + ":" + last.getSymbol()
+                : "id:" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(Sort sort, String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (sort == Sort.SYMBOL && parts.length == 3 && parts[0].equals("symbol")) {
+                return new Cursor(parts[2], Long.parseLong(parts[1]));
+            }
+            if (sort == Sort.ID && parts.length == 2 && parts[0].equals("id")) {
+                return new Cursor(null, Long.parseLong(parts[1]));
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below; NumberFormatException is an IllegalArgumentException too
+        }
+        throw new IllegalArgumentException("Invalid page cursor for sort " + sort.name().toLowerCase(Locale.ROOT));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,89 @@
+package com.stock.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.exception.ApiResponse;
+import com.stock.dto.StockResponseDto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import tools.jackson.databind.json.JsonMapper;
+
+// Pre-serialized GET /api/stocks response with a strong ETag derived from the serialized stock list.
+// The envelope's timestamp is left out of the hash, so rebuilding an unchanged catalog keeps the same ETag.
+// The snapshot is rebuilt lazily on the first request after a StockCatalogChangedEvent; until then every request is
+// served from the cached bytes without touching the database. Changes that arrive during a rebuild trigger another one.
+@Component
+public class StockCatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(StockCatalogSnapshot.class);
+    static final String MESSAGE = "Stocks retrieved successfully";
+
+    public record Snapshot(byte[] body, String etag, long version) {
+    }
+
+    private final StockService stockService;
+    private final JsonMapper jsonMapper;
+    private final Timer rebuilds;
+    private final AtomicLong catalogVersion = new AtomicLong(1);
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public StockCatalogSnapshot(StockService stockService, JsonMapper jsonMapper, MeterRegistry meterRegistry) {
+        this.stockService = stockService;
+        this.jsonMapper = jsonMapper;
+        this.rebuilds = Timer.builder("stock.catalog.rebuild")
+                .description("Time to rebuild the serialized stock catalog")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onCatalogChanged(StockCatalogChangedEvent event) {
+        catalogVersion.incrementAndGet();
+        log.debug("Stock catalog invalidated: {}", event.reason());
+    }
+
+    public Snapshot current() {
+        Snapshot cached = snapshot;
+        if (cached != null && cached.version() == catalogVersion.get()) {
+            return cached;
+        }
+        rebuildLock.lock();
+        try {
+            cached = snapshot;
+            long version = catalogVersion.get();
+            if (cached != null && cached.version() == version) {
+                return cached;
+            }
+            long start = System.nanoTime();
+            List<StockResponseDto> stocks = stockService.findAll();
+            byte[] body = jsonMapper.writeValueAsBytes(ApiResponse.success(stocks, MESSAGE));
+            Snapshot rebuilt = new Snapshot(body, etag(jsonMapper.writeValueAsBytes(stocks)), version);
+            snapshot = rebuilt;
+            rebuilds.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private static String etag(byte[] stocks) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(stocks);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
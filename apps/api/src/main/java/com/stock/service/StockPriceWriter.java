@@ -0,0 +1,129 @@
+package com.stock.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.stock.entity.Stock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Writes refreshed prices to the stocks table with one JDBC batch instead of one JPA merge per entity.
+// Prices are rounded to the column scale first; stocks whose rounded price did not change are skipped before the
+// batch is built, and the WHERE clause re-checks the stored price so a concurrent writer's equal value is skipped too.
+@Component
+public class StockPriceWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(StockPriceWriter.class);
+    private static final int PRICE_SCALE = 2;
+    private static final String UPDATE_SQL =
+            "UPDATE stocks SET price = ?, updated_at = ? WHERE id = ? AND price IS DISTINCT FROM ?";
+
+    public record PriceChange(Stock stock, double newPrice) {
+    }
+
+    public record Result(int written, int skipped, List<PriceDelta> deltas) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SymbolDirectory symbolDirectory;
+    private final int batchSize;
+    private final Counter rowsWritten;
+    private final Counter rowsSkipped;
+    private final Timer writeLatency;
+
+    public StockPriceWriter(
+            JdbcTemplate jdbcTemplate,
+            SymbolDirectory symbolDirectory,
+            MeterRegistry meterRegistry,
+            @Value("${market-data.write.batch-size:1000}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Price write batch size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.symbolDirectory = symbolDirectory;
+        this.batchSize = batchSize;
+        this.rowsWritten = rows(meterRegistry, "written", "Stock price rows updated");
+        this.rowsSkipped = rows(meterRegistry, "skipped", "Stock price rows skipped because the price did not change");
+        this.writeLatency = Timer.builder("stock.price.write")
+                .description("Time to write one refresh's changed prices")
+                .register(meterRegistry);
+    }
+
+    // Writes the changed prices and updates the given Stock objects and the symbol directory to match what was stored
+    public Result write(List<PriceChange> changes) {
+        List<PriceChange> changed = changes.stream()
+                .filter(change -> isChanged(change.stock().getPrice(), round(change.newPrice())))
+                .toList();
+        int skipped = changes.size() - changed.size();
+        if (changed.isEmpty()) {
+            rowsSkipped.increment(skipped);
+            return new Result(0, skipped, List.of());
+        }
+
+        long start = System.nanoTime();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, changed, batchSize, (statement, change) -> {
+            BigDecimal price = round(change.newPrice());
+            statement.setBigDecimal(1, price);
+            statement.setTimestamp(2, now);
+            statement.setLong(3, change.stock().getId());
+            statement.setBigDecimal(4, price);
+        });
+        long elapsed = System.nanoTime() - start;
+        writeLatency.record(elapsed, TimeUnit.NANOSECONDS);
+
+        List<PriceDelta> deltas = new ArrayList<>(changed.size());
+        int written = 0;
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                PriceChange change = changed.get(index++);
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    BigDecimal oldPrice = change.stock().getPrice();
+                    change.stock().setPrice(round(change.newPrice()));
+                    change.stock().setUpdatedAt(now.toLocalDateTime());
+                    symbolDirectory.updatePrice(change.stock().getId(), change.stock().getPrice());
+                    deltas.add(new PriceDelta(change.stock().getId(), change.stock().getSymbol(), oldPrice,
+                            change.stock().getPrice(), change.stock().getUpdatedAt()));
+                    written++;
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        rowsWritten.increment(written);
+        rowsSkipped.increment(skipped);
+        log.debug("Wrote {} stock prices in {} ms, skipped {}", written,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), skipped);
+        return new Result(written, skipped, deltas);
+    }
+
+    private static boolean isChanged(BigDecimal current, BigDecimal next) {
+        return current == null || current.compareTo(next) != 0;
+    }
+
+    private static BigDecimal round(double price) {
+        return BigDecimal.valueOf(price).setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static Counter rows(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("stock.price.write.rows")
+                .description(description)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,150 @@
+package com.stock.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.stock.dto.StockSearchResultDto;
+import com.stock.entity.Stock;
+import com.stock.repository.StockRepository;
+
+// In-memory prefix index over stock symbols and company names for autocomplete.
+// Each searchable text is a key in a sorted skip list, so a prefix lookup is a range scan that stops as soon as enough
+// results are found. Results are ranked exact symbol, symbol prefix, name prefix, then prefix of a later word in the
+// name, alphabetically within each group. Loaded at startup and updated by StockService when a stock changes.
+@Component
+public class StockSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StockSearchIndex.class);
+    private static final char ID_SEPARATOR = '\0';
+
+    private record Listing(Long id, String symbol, String name, String normalizedName) {
+    }
+
+    private final StockRepository stockRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final Map<Long, Listing> byId = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Long> symbols = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, Long> names = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, Long> laterWords = new ConcurrentSkipListMap<>();
+
+    public StockSearchIndex(
+            StockRepository stockRepository,
+            @Value("${stocks.search.default-limit:10}") int defaultLimit,
+            @Value("${stocks.search.max-limit:50}") int maxLimit) {
+        if (defaultLimit <= 0 || maxLimit < defaultLimit) {
+            throw new IllegalArgumentException("Stock search limits must be positive and ordered");
+        }
+        this.stockRepository = stockRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        byId.clear();
+        symbols.clear();
+        names.clear();
+        laterWords.clear();
+        stockRepository.findAll().forEach(this::put);
+        log.info("Stock search index loaded {} stocks", byId.size());
+    }
+
+    public void put(Stock stock) {
+        remove(stock.getId());
+        Listing listing = new Listing(stock.getId(), SymbolDirectory.normalize(stock.getSymbol()), stock.getName(),
+                normalizeText(stock.getName()));
+        byId.put(listing.id(), listing);
+        forEachKey(listing, (index, key) -> index.put(key, listing.id()));
+    }
+
+    public void remove(Long stockId) {
+        Listing listing = byId.remove(stockId);
+        if (listing != null) {
+            forEachKey(listing, (index, key) -> index.remove(key));
+        }
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public List<StockSearchResultDto> search(String query, Integer limit) {
+        int size = limit == null ? defaultLimit : limit;
+        if (size <= 0 || size > maxLimit) {
+            throw new IllegalArgumentException("Search limit must be between 1 and " + maxLimit);
+        }
+        String symbol = SymbolDirectory.normalize(query);
+        String text = normalizeText(query);
+        if (symbol.isEmpty()) {
+            return List.of();
+        }
+
+        // Keys are "<text>\0<id>" and \0 sorts first, so an exact symbol is the first hit of its own prefix scan
+        Map<Long, Listing> matches = new LinkedHashMap<>();
+        collect(symbols, symbol, matches, size);
+        if (!text.isEmpty()) {
+            collect(names, text, matches, size);
+            collect(laterWords, text, matches, size);
+        }
+        return matches.values().stream().limit(size).map(StockSearchIndex::toResultDto).toList();
+    }
+
+    private void collect(NavigableMap<String, Long> index, String prefix, Map<Long, Listing> matches, int limit) {
+        for (Long id : index.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (matches.size() >= limit) {
+                return;
+            }
+            addMatch(matches, id);
+        }
+    }
+
+    private void addMatch(Map<Long, Listing> matches, Long id) {
+        Listing listing = byId.get(id);
+        if (listing != null) {
+            matches.putIfAbsent(id, listing);
+        }
+    }
+
+    private void forEachKey(Listing listing, BiConsumer<NavigableMap<String, Long>, String> action) {
+        String suffix = ID_SEPARATOR + listing.id().toString();
+        action.accept(symbols, listing.symbol() + suffix);
+        if (listing.normalizedName().isEmpty()) {
+            return;
+        }
+        action.accept(names, listing.normalizedName() + suffix);
+        String name = listing.normalizedName();
+        for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+            action.accept(laterWords, name.substring(i + 1) + suffix);
+        }
+    }
+
+    // Upper-case words separated by single spaces; punctuation counts as a word break
+    static String normalizeText(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.toUpperCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static StockSearchResultDto toResultDto(Listing listing) {
+        StockSearchResultDto dto = new StockSearchResultDto();
+        dto.setId(listing.id());
+        dto.setSymbol(listing.symbol());
+        dto.setName(listing.name());
+        return dto;
+    }
+}
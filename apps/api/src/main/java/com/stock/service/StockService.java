@@ -1,6 +1,8 @@
 package com.stock.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -8,13 +10,24 @@ import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import com.external.marketdata.MarketDataClient;
+import com.external.marketdata.MarketQuote;
 import com.stock.dto.PriceUpdateResultDto;
+import com.stock.dto.StockCandleDto;
 import com.stock.dto.StockRequestDto;
+import com.stock.dto.StockPriceHistoryDto;
+import com.stock.dto.StockRefreshCandidate;
 import com.stock.dto.StockResponseDto;
+import com.stock.dto.StockSearchResultDto;
 import com.stock.entity.Stock;
+import com.stock.entity.StockCandle;
+import com.stock.entity.StockPriceHistory;
+import com.stock.repository.StockCandleRepository;
+import com.stock.repository.StockPriceHistoryRepository;
 import com.stock.repository.StockRepository;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -22,13 +35,53 @@ import jakarta.persistence.EntityNotFoundException;
 @Service
 public class StockService {
     private static final Logger log = LoggerFactory.getLogger(StockService.class);
+    private static final Duration DEFAULT_HISTORY_WINDOW = Duration.ofHours(24);
+    private static final int MAX_HISTORY_ROWS = 5000;
+    private static final int DEFAULT_CANDLE_POINTS = 500;
+    private static final int MAX_CANDLE_POINTS = 2000;
+    private static final int MAX_CANDLE_ROWS = 50000;
 
     private final StockRepository stockRepository;
     private final MarketDataClient marketDataClient;
+    private final StockPriceHistoryRepository priceHistoryRepository;
+    private final StockCandleRepository candleRepository;
+    private final PriceHistoryWriter priceHistoryWriter;
+    private final PriceRefreshPlanner refreshPlanner;
+    private final StockViewTracker viewTracker;
+    private final StockPriceWriter priceWriter;
+    private final SymbolDirectory symbolDirectory;
+    private final PriceChangeEventBus priceChangeEventBus;
+    private final StockSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DailyQuoteBudget quoteBudget;
 
-    public StockService(StockRepository stockRepository, MarketDataClient marketDataClient) {
+    public StockService(
+            StockRepository stockRepository,
+            MarketDataClient marketDataClient,
+            StockPriceHistoryRepository priceHistoryRepository,
+            StockCandleRepository candleRepository,
+            PriceHistoryWriter priceHistoryWriter,
+            PriceRefreshPlanner refreshPlanner,
+            StockViewTracker viewTracker,
+            StockPriceWriter priceWriter,
+            SymbolDirectory symbolDirectory,
+            PriceChangeEventBus priceChangeEventBus,
+            StockSearchIndex searchIndex,
+            ApplicationEventPublisher eventPublisher,
+            DailyQuoteBudget quoteBudget) {
         this.stockRepository = stockRepository;
         this.marketDataClient = marketDataClient;
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.candleRepository = candleRepository;
+        this.priceHistoryWriter = priceHistoryWriter;
+        this.refreshPlanner = refreshPlanner;
+        this.viewTracker = viewTracker;
+        this.priceWriter = priceWriter;
+        this.symbolDirectory = symbolDirectory;
+        this.priceChangeEventBus = priceChangeEventBus;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
+        this.quoteBudget = quoteBudget;
     }
 
     // Retrieve all stocks from database
@@ -39,24 +92,38 @@ public class StockService {
         .collect(Collectors.toList());
     }
 
+    // Ranked symbol and company name prefix matches for autocomplete
+    public List<StockSearchResultDto> search(String query, Integer limit) {
+      return searchIndex.search(query, limit);
+    }
+
     // Find stock by ID
     public StockResponseDto findById(Long id) { 
       Stock stock = stockRepository.findById(id).
         orElseThrow(() -> new EntityNotFoundException("Stock not found: " + id));
+      viewTracker.recordView(stock.getId());
       return toResponseDto(stock); 
     }
 
     // Find stock by ticker symbol
     public StockResponseDto findBySymbol(String symbol) {
-      Stock stock = stockRepository.findBySymbol(symbol)
+      Stock stock = symbolDirectory.resolve(symbol)
+              .flatMap(entry -> stockRepository.findById(entry.stockId()))
               .orElseThrow(() -> new EntityNotFoundException("Stock not found: " + symbol));
+      viewTracker.recordView(stock.getId());
       return toResponseDto(stock);
     }
     
     // Create a new stock
     public StockResponseDto create(StockRequestDto request) {
+      if (symbolDirectory.isTakenByOther(request.getSymbol(), null)) {
+        throw new IllegalArgumentException("Stock symbol already exists: " + SymbolDirectory.normalize(request.getSymbol()));
+      }
       Stock stock = toEntity(request);
       Stock saved = stockRepository.save(stock);
+      symbolDirectory.put(saved);
+      searchIndex.put(saved);
+      eventPublisher.publishEvent(new StockCatalogChangedEvent("stock saved"));
       return toResponseDto(saved);
     }
 
@@ -64,12 +131,24 @@ public class StockService {
     public StockResponseDto update(Long id, StockRequestDto request) {
       Stock stock = stockRepository.findById(id)
               .orElseThrow(() -> new EntityNotFoundException("Stock not found: " + id));
+      if (symbolDirectory.isTakenByOther(request.getSymbol(), id)) {
+        throw new IllegalArgumentException("Stock symbol already exists: " + SymbolDirectory.normalize(request.getSymbol()));
+      }
 
-      stock.setSymbol(request.getSymbol());
+      BigDecimal oldPrice = stock.getPrice();
+      stock.setSymbol(SymbolDirectory.normalize(request.getSymbol()));
       stock.setName(request.getName());
       stock.setPrice(request.getPrice());
 
-      return toResponseDto(stockRepository.save(stock));
+      Stock saved = stockRepository.save(stock);
+      symbolDirectory.put(saved);
+      searchIndex.put(saved);
+      eventPublisher.publishEvent(new StockCatalogChangedEvent("stock saved"));
+      if (oldPrice == null || saved.getPrice() == null || oldPrice.compareTo(saved.getPrice()) != 0) {
+        priceChangeEventBus.publish(List.of(new PriceDelta(saved.getId(), saved.getSymbol(), oldPrice,
+                saved.getPrice(), saved.getUpdatedAt())));
+      }
+      return toResponseDto(saved);
     }
 
     // Delete stock by ID
@@ -78,21 +157,37 @@ public class StockService {
         throw new EntityNotFoundException("Stock not found: " + id);
       }
       stockRepository.deleteById(id); 
+      symbolDirectory.remove(id);
+      searchIndex.remove(id);
+      viewTracker.forget(id);
+      refreshPlanner.forget(id);
+      eventPublisher.publishEvent(new StockCatalogChangedEvent("stock deleted"));
     }
 
-    // Update prices for all stocks from market data service
+    // Refresh prices for the next batch of stocks chosen by the refresh planner.
+    // Each call spends at most one run's quote budget; stocks left over are picked up by the following call.
+    // The quote requests actually sent upstream are charged to the daily budget here, so scheduled and admin-triggered
+    // refreshes both pay for what they use
     public PriceUpdateResultDto updateAllStockPrices() {
-        log.info("Starting stock price update for all stocks");
+        PriceRefreshPlanner.Batch batch = refreshPlanner.nextBatch();
+        log.info("Starting stock price update for {} planned stocks, {} left for later runs",
+                batch.stocks().size(), batch.remaining());
 
-        List<Stock> stocks = stockRepository.findAll();
+        List<Long> plannedIds = batch.stocks().stream()
+                .map(StockRefreshCandidate::stockId)
+                .toList();
+        List<Stock> stocks = stockRepository.findAllById(plannedIds);
         PriceUpdateResultDto result = new PriceUpdateResultDto();
         result.setTotalStocks(stocks.size());
+        result.setRemainingStocks(batch.remaining());
 
         if (stocks.isEmpty()) {
-            log.info("No stocks found in database, skipping price update");
+            log.info("No stocks are due for a price update");
             result.setUpdatedCount(0);
             result.setFailedCount(0);
             result.setFailedSymbols(List.of());
+            result.setRowsWritten(0);
+            result.setRowsSkipped(0);
             return result;
         }
 
@@ -101,43 +196,119 @@ public class StockService {
                 .collect(Collectors.joining(","));
         log.debug("Fetching prices for symbols: {}", symbols);
 
-        Map<String, Double> prices = marketDataClient.getPrices(symbols);
-        log.debug("Received prices for {} symbols", prices.size());
+        // Cache hits and streamed prices are free, so only the requests the providers actually sent are reported
+        long requestsBefore = marketDataClient.getUpstreamRequests();
+        Map<String, MarketQuote> quotes = marketDataClient.getQuotes(symbols);
+        Instant capturedAt = Instant.now();
+        result.setUpstreamRequests((int) (marketDataClient.getUpstreamRequests() - requestsBefore));
+        quoteBudget.recordUsage(result.getUpstreamRequests(), capturedAt);
+        refreshPlanner.recordAttempts(plannedIds);
+        log.debug("Received quotes for {} symbols", quotes.size());
 
         int successCount = 0;
         List<String> failedSymbols = new ArrayList<>();
-        List<Stock> updatedStocks = new ArrayList<>();
+        List<StockPriceWriter.PriceChange> priceChanges = new ArrayList<>();
 
         for (Stock stock : stocks) {
-            Double newPrice = prices.get(stock.getSymbol());
+            MarketQuote quote = quotes.get(stock.getSymbol());
 
-            if (newPrice == null) {
+            if (quote == null) {
                 failedSymbols.add(stock.getSymbol());
                 log.warn("Failed to update price for symbol {}: Price missing for symbol: {}",
                         stock.getSymbol(), stock.getSymbol());
                 continue;
             }
 
-            stock.setPrice(BigDecimal.valueOf(newPrice));
-            updatedStocks.add(stock);
+            priceHistoryWriter.record(stock, quote, capturedAt);
+            priceChanges.add(new StockPriceWriter.PriceChange(stock, quote.price()));
             successCount++;
         }
 
-        if (!updatedStocks.isEmpty()) {
-            stockRepository.saveAll(updatedStocks);
+        StockPriceWriter.Result written = priceWriter.write(priceChanges);
+        if (written.written() > 0) {
+            eventPublisher.publishEvent(new StockCatalogChangedEvent("prices refreshed"));
+            priceChangeEventBus.publish(written.deltas());
         }
 
         result.setUpdatedCount(successCount);
         result.setFailedCount(failedSymbols.size());
         result.setFailedSymbols(failedSymbols);
-        log.info("Stock price update completed: {} succeeded, {} failed", successCount, failedSymbols.size());
+        result.setRowsWritten(written.written());
+        result.setRowsSkipped(written.skipped());
+        log.info("Stock price update completed: {} succeeded, {} failed, {} rows written, {} unchanged",
+                successCount, failedSymbols.size(), written.written(), written.skipped());
         return result;
     }
 
+    // Apply coalesced quotes from the streaming feed to the matching stocks
+    public int applyStreamedQuotes(Map<String, MarketQuote> quotes) {
+        if (quotes.isEmpty()) {
+            return 0;
+        }
+
+        Instant capturedAt = Instant.now();
+        List<Stock> stocks = stockRepository.findBySymbolIn(quotes.keySet());
+        List<StockPriceWriter.PriceChange> priceChanges = new ArrayList<>(stocks.size());
+        for (Stock stock : stocks) {
+            MarketQuote quote = quotes.get(stock.getSymbol());
+            priceHistoryWriter.record(stock, quote, capturedAt);
+            priceChanges.add(new StockPriceWriter.PriceChange(stock, quote.price()));
+        }
+
+        StockPriceWriter.Result written = priceWriter.write(priceChanges);
+        if (written.written() > 0) {
+            eventPublisher.publishEvent(new StockCatalogChangedEvent("prices streamed"));
+            priceChangeEventBus.publish(written.deltas());
+        }
+        return written.written();
+    }
+
+    // Captured quotes for one stock in [from, to), oldest first; defaults to the last 24 hours
+    public List<StockPriceHistoryDto> findPriceHistory(Long id, Instant from, Instant to) {
+      if (!stockRepository.existsById(id)) {
+        throw new EntityNotFoundException("Stock not found: " + id);
+      }
+      Instant end = to != null ? to : Instant.now();
+      Instant start = from != null ? from : end.minus(DEFAULT_HISTORY_WINDOW);
+      if (!start.isBefore(end)) {
+        throw new IllegalArgumentException("History range start must be before its end");
+      }
+      return priceHistoryRepository
+              .findByStockIdAndCapturedAtGreaterThanEqualAndCapturedAtLessThanOrderByCapturedAtAsc(
+                      id, start, end, Limit.of(MAX_HISTORY_ROWS))
+              .stream()
+              .map(this::toHistoryDto)
+              .toList();
+    }
+
+    // OHLC candles for one stock in [from, to), downsampled to at most maxPoints; the window defaults per interval
+    public List<StockCandleDto> findCandles(Long id, String interval, Instant from, Instant to, Integer maxPoints) {
+      if (!stockRepository.existsById(id)) {
+        throw new EntityNotFoundException("Stock not found: " + id);
+      }
+      CandleInterval candleInterval = CandleInterval.parse(interval);
+      int points = maxPoints != null ? maxPoints : DEFAULT_CANDLE_POINTS;
+      if (points <= 0 || points > MAX_CANDLE_POINTS) {
+        throw new IllegalArgumentException("maxPoints must be between 1 and " + MAX_CANDLE_POINTS);
+      }
+      Instant end = to != null ? to : Instant.now();
+      Instant start = from != null ? from : end.minus(candleInterval.getDefaultWindow());
+      if (!start.isBefore(end)) {
+        throw new IllegalArgumentException("Candle range start must be before its end");
+      }
+      List<StockCandleDto> candles = candleRepository
+              .findByStockIdAndIntervalCodeAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                      id, candleInterval.getCode(), start, end, Limit.of(MAX_CANDLE_ROWS))
+              .stream()
+              .map(this::toCandleDto)
+              .toList();
+      return CandleDownsampler.downsample(candles, points);
+    }
+
     // Convert DTO to entity
     private Stock toEntity(StockRequestDto dto) {
       Stock stock = new Stock();
-      stock.setSymbol(dto.getSymbol());
+      stock.setSymbol(SymbolDirectory.normalize(dto.getSymbol()));
       stock.setName(dto.getName());
       stock.setPrice(dto.getPrice());
       return stock;
@@ -154,4 +325,30 @@ public class StockService {
       return dto;
     }
 
+    private StockCandleDto toCandleDto(StockCandle candle) {
+      StockCandleDto dto = new StockCandleDto();
+      dto.setBucketStart(candle.getBucketStart());
+      dto.setOpen(candle.getOpenPrice());
+      dto.setHigh(candle.getHighPrice());
+      dto.setLow(candle.getLowPrice());
+      dto.setClose(candle.getClosePrice());
+      dto.setSamples(candle.getSampleCount());
+      return dto;
+    }
+
+    private StockPriceHistoryDto toHistoryDto(StockPriceHistory history) {
+      StockPriceHistoryDto dto = new StockPriceHistoryDto();
+      dto.setSymbol(history.getSymbol());
+      dto.setPrice(history.getPrice());
+      dto.setOpen(history.getOpenPrice());
+      dto.setHigh(history.getHighPrice());
+      dto.setLow(history.getLowPrice());
+      dto.setPreviousClose(history.getPreviousClose());
+      dto.setChange(history.getPriceChange());
+      dto.setChangePercent(history.getChangePercent());
+      dto.setQuotedAt(history.getQuotedAt());
+      dto.setCapturedAt(history.getCapturedAt());
+      return dto;
+    }
+
 }
\ No newline at end of file
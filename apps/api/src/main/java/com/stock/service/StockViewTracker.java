@@ -0,0 +1,29 @@
+package com.stock.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+// Remembers when each stock was last looked up by a user, so the refresh planner can favour stocks people are watching.
+// One entry per stock at most; nothing is persisted across restarts.
+@Component
+public class StockViewTracker {
+
+    private final Map<Long, Long> lastViewedMillis = new ConcurrentHashMap<>();
+
+    public void recordView(Long stockId) {
+        if (stockId != null) {
+            lastViewedMillis.put(stockId, System.currentTimeMillis());
+        }
+    }
+
+    // Epoch millis of the last view, or null when the stock has not been viewed since startup
+    public Long lastViewedAt(Long stockId) {
+        return lastViewedMillis.get(stockId);
+    }
+
+    public void forget(Long stockId) {
+        lastViewedMillis.remove(stockId);
+    }
+}
@@ -0,0 +1,94 @@
+package com.stock.service;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.stock.entity.Stock;
+import com.stock.repository.StockRepository;
+
+// In-memory map from normalized symbol to stock id, name and latest price, so hot paths can resolve a symbol without a query.
+// Loaded at startup and kept in step by StockService and StockPriceWriter; reads are plain ConcurrentHashMap lookups.
+// A symbol that is not in the directory (for example inserted outside StockService) is looked up once and cached.
+@Component
+public class SymbolDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(SymbolDirectory.class);
+
+    public record Entry(Long stockId, String symbol, String name, BigDecimal price) {
+    }
+
+    private final StockRepository stockRepository;
+    private final Map<String, Entry> bySymbol = new ConcurrentHashMap<>();
+    private final Map<Long, String> symbolById = new ConcurrentHashMap<>();
+
+    public SymbolDirectory(StockRepository stockRepository) {
+        this.stockRepository = stockRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        bySymbol.clear();
+        symbolById.clear();
+        stockRepository.findAll().forEach(this::put);
+        log.info("Symbol directory loaded {} stocks", bySymbol.size());
+    }
+
+    public static String normalize(String symbol) {
+        return symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public Optional<Entry> resolve(String symbol) {
+        String key = normalize(symbol);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        Entry entry = bySymbol.get(key);
+        if (entry != null) {
+            return Optional.of(entry);
+        }
+        return stockRepository.findFirstBySymbolIgnoreCase(key).map(this::put);
+    }
+
+    // Whether the symbol already belongs to a stock other than the given one (null for a new stock)
+    public boolean isTakenByOther(String symbol, Long stockId) {
+        return resolve(symbol).map(entry -> !entry.stockId().equals(stockId)).orElse(false);
+    }
+
+    public Entry put(Stock stock) {
+        Entry entry = new Entry(stock.getId(), normalize(stock.getSymbol()), stock.getName(),
+                stock.getPrice());
+        String previous = symbolById.put(stock.getId(), entry.symbol());
+        if (previous != null && !previous.equals(entry.symbol())) {
+            bySymbol.remove(previous);
+        }
+        bySymbol.put(entry.symbol(), entry);
+        return entry;
+    }
+
+    public void updatePrice(Long stockId, BigDecimal price) {
+        String symbol = symbolById.get(stockId);
+        if (symbol != null) {
+            bySymbol.computeIfPresent(symbol, (key, entry) -> new Entry(entry.stockId(), key, entry.name(), price));
+        }
+    }
+
+    public void remove(Long stockId) {
+        String symbol = symbolById.remove(stockId);
+        if (symbol != null) {
+            bySymbol.remove(symbol);
+        }
+    }
+
+    public int size() {
+        return bySymbol.size();
+    }
+}
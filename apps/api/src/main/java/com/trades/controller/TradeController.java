@@ -1,61 +1,167 @@
 package com.trades.controller;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.exception.ApiResponse;
 import com.security.CurrentUserService;
+import com.trades.dto.TradeHistoryPageDto;
+import com.trades.dto.TradeImportResultDto;
 import com.trades.dto.TradeRequestDto;
 import com.trades.dto.TradeResponseDto;
-import com.trades.entity.Trade;
+import com.trades.service.TradeHistoryReader;
+import com.trades.service.TradeImportService;
 import com.trades.service.TradeService;
 
 @RestController
 @RequestMapping("/api/trades")
 public class TradeController {
+    // Clients retrying a buy or sell send the same key; the original trade is returned instead of trading twice
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final TradeService tradeService;
+    private final TradeImportService tradeImportService;
+    private final TradeHistoryReader tradeHistoryReader;
     private final CurrentUserService currentUserService;
 
-    public TradeController(TradeService tradeService, CurrentUserService currentUserService) {
+    public TradeController(TradeService tradeService, TradeImportService tradeImportService,
+            TradeHistoryReader tradeHistoryReader, CurrentUserService currentUserService) {
         this.tradeService = tradeService;
+        this.tradeImportService = tradeImportService;
+        this.tradeHistoryReader = tradeHistoryReader;
         this.currentUserService = currentUserService;
     }
 
     @PostMapping("/buy")
-    public ResponseEntity<ApiResponse<Trade>> buy(
+    public ResponseEntity<ApiResponse<TradeResponseDto>> buy(
             @RequestParam(required = false) Long userId,
             @RequestBody TradeRequestDto request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         Long resolvedUserId = currentUserService.resolveUserId(authentication, userId);
         request.setType("BUY");
-        Trade trade = tradeService.executeTrade(resolvedUserId, request);
+        TradeResponseDto trade = tradeService.executeTrade(resolvedUserId, request, idempotencyKey);
         return ResponseEntity.ok(ApiResponse.success(trade, "Buy order executed successfully"));
     }
 
     @PostMapping("/sell")
-    public ResponseEntity<ApiResponse<Trade>> sell(
+    public ResponseEntity<ApiResponse<TradeResponseDto>> sell(
             @RequestParam(required = false) Long userId,
             @RequestBody TradeRequestDto request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         Long resolvedUserId = currentUserService.resolveUserId(authentication, userId);
         request.setType("SELL");
-        Trade trade = tradeService.executeTrade(resolvedUserId, request);
+        TradeResponseDto trade = tradeService.executeTrade(resolvedUserId, request, idempotencyKey);
         return ResponseEntity.ok(ApiResponse.success(trade, "Sell order executed successfully"));
     }
 
+    // Bulk import of a trade history; a CSV file needs a header row naming symbol, type, quantity, price and
+    // optionally timestamp
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ApiResponse<TradeImportResultDto>> importCsv(
+            @RequestParam(required = false) Long userId,
+            InputStream body,
+            Authentication authentication) throws IOException {
+        return importTrades(userId, body, TradeImportService.Format.CSV, authentication);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ApiResponse<TradeImportResultDto>> importNdjson(
+            @RequestParam(required = false) Long userId,
+            InputStream body,
+            Authentication authentication) throws IOException {
+        return importTrades(userId, body, TradeImportService.Format.NDJSON, authentication);
+    }
+
+    private ResponseEntity<ApiResponse<TradeImportResultDto>> importTrades(Long userId, InputStream body,
+            TradeImportService.Format format, Authentication authentication) throws IOException {
+        Long resolvedUserId = currentUserService.resolveUserId(authentication, userId);
+        TradeImportResultDto result = tradeImportService.importTrades(resolvedUserId, body, format);
+        return ResponseEntity.ok(ApiResponse.success(result, "Trades imported successfully"));
+    }
+
+    // Newest first, one keyset page at a time; pass the previous page's nextCursor as after
     @GetMapping("/history")
-    public ResponseEntity<ApiResponse<List<TradeResponseDto>>> getTradeHistory(
+    public ResponseEntity<ApiResponse<TradeHistoryPageDto>> getTradeHistory(
             @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) String side,
             Authentication authentication) {
         Long resolvedUserId = currentUserService.resolveUserId(authentication, userId);
-        return ResponseEntity.ok(ApiResponse.success(tradeService.getTradeHistory(resolvedUserId), "Trade history retrieved successfully"));
+        TradeHistoryReader.Filter filter = new TradeHistoryReader.Filter(from, to, symbol, side);
+        return ResponseEntity.ok(ApiResponse.success(tradeHistoryReader.page(resolvedUserId, filter, after, limit),
+                "Trade history retrieved successfully"));
+    }
+
+    // Whole trade log as CSV (default) or NDJSON, written row by row from a database cursor; gzip-compressed when the
+    // client accepts it. Same filters as /history
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) String side,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication) {
+        Long resolvedUserId = currentUserService.resolveUserId(authentication, userId);
+        TradeHistoryReader.Filter filter = new TradeHistoryReader.Filter(from, to, symbol, side);
+        TradeHistoryReader.Format exportFormat = TradeHistoryReader.Format.parse(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat == TradeHistoryReader.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(exportFormat == TradeHistoryReader.Format.CSV ? "trades.csv" : "trades.ndjson")
+                        .build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            return response.body(out -> tradeHistoryReader.export(resolvedUserId, filter, exportFormat, out));
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            // syncFlush so the reader's periodic flushes reach the client instead of waiting in the deflater
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+            tradeHistoryReader.export(resolvedUserId, filter, exportFormat, compressed);
+            compressed.finish();
+        });
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
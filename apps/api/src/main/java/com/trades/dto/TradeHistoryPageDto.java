@@ -0,0 +1,33 @@
+package com.trades.dto;
+
+import java.util.List;
+
+public class TradeHistoryPageDto {
+    private List<TradeResponseDto> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public List<TradeResponseDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<TradeResponseDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,31 @@
+package com.trades.dto;
+
+public class TradeImportResultDto {
+    private int tradesImported;
+    private int positionsUpdated;
+    private int positionsClosed;
+
+    public int getTradesImported() {
+        return tradesImported;
+    }
+
+    public void setTradesImported(int tradesImported) {
+        this.tradesImported = tradesImported;
+    }
+
+    public int getPositionsUpdated() {
+        return positionsUpdated;
+    }
+
+    public void setPositionsUpdated(int positionsUpdated) {
+        this.positionsUpdated = positionsUpdated;
+    }
+
+    public int getPositionsClosed() {
+        return positionsClosed;
+    }
+
+    public void setPositionsClosed(int positionsClosed) {
+        this.positionsClosed = positionsClosed;
+    }
+}
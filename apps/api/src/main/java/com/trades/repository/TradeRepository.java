@@ -3,6 +3,7 @@ package com.trades.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.trades.entity.Trade;
@@ -11,4 +12,9 @@ public interface TradeRepository extends JpaRepository<Trade, Long> {
     List<Trade> findByUserId(Long userId);
 
     Optional<Trade> findTopByStockIdOrderByTimestampDesc(Long stockId);
+
+    // The trade an earlier request with this Idempotency-Key recorded. The replayed TradeResponseDto carries the stock's
+    // symbol and name, so the stock is fetched in the same query; the user is never read
+    @EntityGraph(attributePaths = {"stock"})
+    Optional<Trade> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
 }
\ No newline at end of file
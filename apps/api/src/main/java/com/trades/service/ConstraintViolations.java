@@ -0,0 +1,47 @@
+package com.trades.service;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+// Tells which constraint a write violated, so only the conflicts a caller knows how to recover from are retried.
+// Hibernate reports the constraint name directly; plain JDBC writes only carry it in the driver's message, which
+// both PostgreSQL and H2 include (H2 upper-cases it).
+final class ConstraintViolations {
+
+    static final String UNIQUE_POSITION = "uq_user_stock";
+    static final String UNIQUE_IDEMPOTENCY_KEY = "uq_trades_user_idempotency_key";
+
+    private ConstraintViolations() {
+    }
+
+    static boolean violates(DataIntegrityViolationException e, String constraint) {
+        String name = constraint.toLowerCase(Locale.ROOT);
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(name);
+            }
+            if (mentions(cause, name)) {
+                return true;
+            }
+            if (cause instanceof SQLException sql) {
+                for (SQLException next = sql.getNextException(); next != null; next = next.getNextException()) {
+                    if (mentions(next, name)) {
+                        return true;
+                    }
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean mentions(Throwable cause, String name) {
+        String message = cause.getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(name);
+    }
+}
@@ -0,0 +1,97 @@
+package com.trades.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.trades.dto.TradeResponseDto;
+
+// Bounded, least-recently-used map from (user, Idempotency-Key) to the response of the trade that key recorded.
+// Answers client retries without touching the database; entries expire after ttl or are evicted once max-entries
+// keys are held, after which the unique (user_id, idempotency_key) constraint on trades is the fallback.
+@Component
+public class IdempotencyStore {
+
+    static final int MAX_KEY_LENGTH = 128;
+
+    private record Key(Long userId, String idempotencyKey) {
+    }
+
+    private record Entry(TradeResponseDto trade, long storedAtNanos) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries;
+
+    public IdempotencyStore(
+            @Value("${trades.idempotency.max-entries:100000}") int maxEntries,
+            @Value("${trades.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        if (maxEntries <= 0 || ttlSeconds <= 0) {
+            throw new IllegalArgumentException("Idempotency store size and ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > IdempotencyStore.this.maxEntries;
+            }
+        };
+    }
+
+    // Null means no key was sent; a key is opaque to us but must be short enough to store
+    public static String validate(String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+        String key = idempotencyKey.trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        return key;
+    }
+
+    // Returns the recorded trade, or null when the key is unknown or expired
+    public TradeResponseDto get(Long userId, String idempotencyKey) {
+        Key key = new Key(userId, idempotencyKey);
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.storedAtNanos() > ttlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.trade();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(Long userId, String idempotencyKey, TradeResponseDto trade) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            entries.put(new Key(userId, idempotencyKey), new Entry(trade, now));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.trades.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Striped in-JVM locks that serialize trades on the same (user, stock) position.
+// Trades on different positions almost always hash to different stripes and run in parallel; a fixed stripe count
+// keeps memory flat no matter how many positions exist. Only one instance is covered: the row lock taken by
+// PortfolioRepository.findForUpdate is what serializes trades across instances, and this lock keeps same-instance
+// contention off the database connection pool.
+@Component
+public class PositionLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+
+    public PositionLocks(
+            @Value("${trades.locks.stripes:1024}") int stripeCount,
+            @Value("${trades.locks.timeout-ms:5000}") long timeoutMs) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Trade lock stripes must be a positive power of two");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = timeoutMs;
+    }
+
+    // Acquires the position's stripe, waiting at most the configured timeout
+    public ReentrantLock acquire(Long userId, Long stockId) {
+        return lock(stripes[stripe(userId, stockId)]);
+    }
+
+    private ReentrantLock lock(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Timed out waiting for another trade on the same position");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for another trade on the same position", e);
+        }
+        return lock;
+    }
+
+    // Acquires every stripe the positions map to, in stripe order so two bulk callers can never deadlock; on failure
+    // the stripes already held are released before the exception propagates
+    public List<ReentrantLock> acquireAll(Long userId, Collection<Long> stockIds) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Long stockId : stockIds) {
+            indexes.add(stripe(userId, stockId));
+        }
+        List<ReentrantLock> held = new ArrayList<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                held.add(lock(stripes[index]));
+            }
+        } catch (RuntimeException e) {
+            releaseAll(held);
+            throw e;
+        }
+        return held;
+    }
+
+    public static void releaseAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    int stripe(Long userId, Long stockId) {
+        long hash = userId * 0x9E3779B97F4A7C15L + stockId;
+        hash ^= hash >>> 33;
+        hash *= 0xC2B2AE3D27D4EB4FL;
+        hash ^= hash >>> 29;
+        return (int) hash & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,269 @@
+package com.trades.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.stock.service.SymbolDirectory;
+import com.trades.dto.TradeHistoryPageDto;
+import com.trades.dto.TradeResponseDto;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// Reads a user's trade history newest first, one keyset page at a time.
+// The cursor holds the last row's timestamp and id, so every page is a range scan of idx_trades_user_timestamp_id
+// (or idx_trades_user_stock_timestamp_id when filtered to a symbol) and the first page costs the same for a user with
+// ten trades as for one with half a million.
+// The export reads the same query through a forward-only JDBC cursor (fetch size rows per round trip, inside a
+// read-only transaction so PostgreSQL streams instead of materializing the result) and writes each row as CSV or NDJSON
+// as it arrives, so heap use does not depend on how many trades the user has.
+@Component
+public class TradeHistoryReader {
+
+    private static final String COLUMNS = "SELECT t.id, t.type, t.quantity, t.price, t.timestamp, s.symbol, s.name "
+            + "FROM trades t JOIN stocks s ON s.id = t.stock_id";
+
+    // from is inclusive and to exclusive; side is BUY or SELL
+    public record Filter(LocalDateTime from, LocalDateTime to, String symbol, String side) {
+
+        public Filter {
+            if (side != null && !side.isBlank()) {
+                side = side.trim().toUpperCase(Locale.ROOT);
+                if (!side.equals("BUY") && !side.equals("SELL")) {
+                    throw new IllegalArgumentException("Trade side must be BUY or SELL");
+                }
+            } else {
+                side = null;
+            }
+            if (from != null && to != null && !from.isBefore(to)) {
+                throw new IllegalArgumentException("Trade history range must have from before to");
+            }
+        }
+    }
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return CSV;
+            }
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported trade export format: " + value);
+            }
+        }
+    }
+
+    private static final byte[] CSV_HEADER =
+            "id,timestamp,symbol,name,type,quantity,price\n".getBytes(StandardCharsets.UTF_8);
+
+    private record Cursor(LocalDateTime timestamp, long id) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SymbolDirectory symbolDirectory;
+    private final JsonMapper jsonMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int fetchSize;
+
+    public TradeHistoryReader(
+            JdbcTemplate jdbcTemplate,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            SymbolDirectory symbolDirectory,
+            JsonMapper jsonMapper,
+            @Value("${trades.history.default-page-size:50}") int defaultPageSize,
+            @Value("${trades.history.max-page-size:500}") int maxPageSize,
+            @Value("${trades.history.stream-fetch-size:1000}") int fetchSize) {
+        if (defaultPageSize <= 0 || maxPageSize < defaultPageSize || fetchSize <= 0) {
+            throw new IllegalArgumentException("Trade history page and fetch sizes must be positive and ordered");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.symbolDirectory = symbolDirectory;
+        this.jsonMapper = jsonMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.fetchSize = fetchSize;
+    }
+
+    // One page after the given cursor; nextCursor is set only when older trades follow
+    public TradeHistoryPageDto page(Long userId, Filter filter, String after, Integer limit) {
+        int size = limit == null ? defaultPageSize : limit;
+        if (size <= 0 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + maxPageSize);
+        }
+        Cursor cursor = decode(after);
+        TradeHistoryPageDto page = new TradeHistoryPageDto();
+        List<Object> args = new ArrayList<>();
+        Optional<String> sql = query(userId, filter, cursor, args);
+        if (sql.isEmpty()) {
+            page.setItems(new ArrayList<>());
+            return page;
+        }
+        args.add(size + 1);
+        List<TradeResponseDto> rows = jdbcTemplate.query(sql.get() + " LIMIT ?", (rs, rowNum) -> toDto(rs),
+                args.toArray());
+
+        boolean hasMore = rows.size() > size;
+        List<TradeResponseDto> items = hasMore ? rows.subList(0, size) : rows;
+        page.setItems(new ArrayList<>(items));
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            page.setNextCursor(encode(items.get(items.size() - 1)));
+        }
+        return page;
+    }
+
+    // Writes every matching trade, newest first; the first row is flushed as soon as it is read, then every fetch
+    public void export(Long userId, Filter filter, Format format, OutputStream out) {
+        BufferedOutputStream buffered = new BufferedOutputStream(out);
+        try {
+            if (format == Format.CSV) {
+                buffered.write(CSV_HEADER);
+            }
+            List<Object> args = new ArrayList<>();
+            Optional<String> sql = query(userId, filter, null, args);
+            if (sql.isPresent()) {
+                RowCallbackHandler writer = new RowCallbackHandler() {
+                    private int written;
+
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        try {
+                            TradeResponseDto trade = toDto(rs);
+                            buffered.write(format == Format.CSV ? csvRow(trade) : jsonMapper.writeValueAsBytes(trade));
+                            buffered.write('\n');
+                            if (++written == 1 || written % fetchSize == 0) {
+                                buffered.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                };
+                readOnlyTransaction.executeWithoutResult(
+                        status -> streamingTemplate.query(sql.get(), writer, args.toArray()));
+            }
+            buffered.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] csvRow(TradeResponseDto trade) {
+        String row = trade.getId() + "," + trade.getTimestamp() + "," + csvField(trade.getStockSymbol()) + ","
+                + csvField(trade.getStockName()) + "," + trade.getType() + "," + trade.getQuantity() + ","
+                + trade.getPrice().toPlainString();
+        return row.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // RFC 4180 quoting for free-text columns such as company names
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    // Empty when the filter names a symbol that is not listed, so no trade can match
+    private Optional<String> query(Long userId, Filter filter, Cursor cursor, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        conditions.add("t.user_id = ?");
+        args.add(userId);
+        if (filter != null && filter.symbol() != null && !filter.symbol().isBlank()) {
+            Optional<SymbolDirectory.Entry> entry = symbolDirectory.resolve(filter.symbol());
+            if (entry.isEmpty()) {
+                return Optional.empty();
+            }
+            conditions.add("t.stock_id = ?");
+            args.add(entry.get().stockId());
+        }
+        if (filter != null && filter.side() != null) {
+            conditions.add("t.type = ?");
+            args.add(filter.side());
+        }
+        if (filter != null && filter.from() != null) {
+            conditions.add("t.timestamp >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter != null && filter.to() != null) {
+            conditions.add("t.timestamp < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+        if (cursor != null) {
+            // Row-value comparison so PostgreSQL seeks the (user_id, timestamp, id) index instead of filtering an OR
+            conditions.add("(t.timestamp, t.id) < (?, ?)");
+            args.add(Timestamp.valueOf(cursor.timestamp()));
+            args.add(cursor.id());
+        }
+        return Optional.of(COLUMNS + " WHERE " + String.join(" AND ", conditions)
+                + " ORDER BY t.timestamp DESC, t.id DESC");
+    }
+
+    private static TradeResponseDto toDto(ResultSet rs) throws SQLException {
+        TradeResponseDto dto = new TradeResponseDto();
+        dto.setId(rs.getLong("id"));
+        dto.setType(rs.getString("type"));
+        dto.setQuantity(rs.getInt("quantity"));
+        dto.setPrice(rs.getBigDecimal("price"));
+        dto.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        dto.setStockSymbol(rs.getString("symbol"));
+        dto.setStockName(rs.getString("name"));
+        return dto;
+    }
+
+    // Cursors are opaque to clients: base64url of "<id>:<timestamp>"
+    private static String encode(TradeResponseDto last) {
+        String raw = last.getId() + ":" + last.getTimestamp();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length == 2) {
+                return new Cursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[0]));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Falls through to the error below
+        }
+        throw new IllegalArgumentException("Invalid trade history cursor");
+    }
+}
@@ -0,0 +1,466 @@
+package com.trades.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.portfolio.service.PortfolioChangedEvent;
+import com.stock.service.SymbolDirectory;
+import com.trades.dto.TradeImportResultDto;
+import com.user.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+// Imports a user's trade history in one pass instead of one executeTrade call per trade.
+// The whole file is parsed and validated first, so a bad row rejects the import before anything is written. Trades are
+// then replayed oldest first against the user's positions in memory, using the same average-cost and realized P/L
+// rules as TradeService.executeTrade (a position sold down to zero is closed, and a later buy reopens it from scratch).
+// Finally, one transaction batch-inserts every trade and writes each affected position once. The positions' striped
+// locks and portfolio row locks are held throughout, so live trades on those positions wait for the import to finish.
+@Service
+public class TradeImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeImportService.class);
+    private static final int PRICE_SCALE = 2;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final String INSERT_TRADE_SQL =
+            "INSERT INTO trades (user_id, stock_id, type, quantity, price, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_POSITIONS_SQL =
+            "SELECT id, stock_id, quantity, avg_cost, realized_pnl FROM portfolio WHERE user_id = ? FOR UPDATE";
+    private static final String INSERT_POSITION_SQL =
+            "INSERT INTO portfolio (user_id, stock_id, quantity, avg_cost, realized_pnl) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_POSITION_SQL =
+            "UPDATE portfolio SET quantity = ?, avg_cost = ?, realized_pnl = ? WHERE id = ?";
+    private static final String DELETE_POSITION_SQL = "DELETE FROM portfolio WHERE id = ?";
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    record ImportedTrade(int line, long stockId, String symbol, String type, int quantity, BigDecimal price,
+            LocalDateTime timestamp) {
+    }
+
+    private record NdjsonRow(String symbol, String type, Integer quantity, BigDecimal price, String timestamp) {
+    }
+
+    private static final class Position {
+        private final Long id;
+        private final long stockId;
+        private int quantity;
+        private BigDecimal avgCost;
+        private BigDecimal realizedPnl;
+
+        private Position(Long id, long stockId, int quantity, BigDecimal avgCost, BigDecimal realizedPnl) {
+            this.id = id;
+            this.stockId = stockId;
+            this.quantity = quantity;
+            this.avgCost = avgCost;
+            this.realizedPnl = realizedPnl;
+        }
+    }
+
+    private static final class Errors {
+        private final List<String> messages = new ArrayList<>();
+        private int count;
+
+        private void add(int line, String message) {
+            if (count++ < MAX_REPORTED_ERRORS) {
+                messages.add("line " + line + ": " + message);
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final SymbolDirectory symbolDirectory;
+    private final PositionLocks positionLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JsonMapper jsonMapper;
+    private final int batchSize;
+    private final int maxRows;
+    private final Timer importLatency;
+
+    public TradeImportService(
+            JdbcTemplate jdbcTemplate,
+            UserRepository userRepository,
+            SymbolDirectory symbolDirectory,
+            PositionLocks positionLocks,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            JsonMapper jsonMapper,
+            MeterRegistry meterRegistry,
+            @Value("${trades.import.batch-size:1000}") int batchSize,
+            @Value("${trades.import.max-rows:200000}") int maxRows) {
+        if (batchSize <= 0 || maxRows <= 0) {
+            throw new IllegalArgumentException("Trade import batch size and row limit must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.symbolDirectory = symbolDirectory;
+        this.positionLocks = positionLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.jsonMapper = jsonMapper;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+        this.importLatency = Timer.builder("trades.import")
+                .description("Time to validate and write one bulk trade import")
+                .register(meterRegistry);
+    }
+
+    public TradeImportResultDto importTrades(Long userId, InputStream body, Format format) throws IOException {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found: " + userId);
+        }
+        long start = System.nanoTime();
+        List<ImportedTrade> trades = parse(body, format);
+
+        Set<Long> stockIds = new LinkedHashSet<>();
+        trades.forEach(trade -> stockIds.add(trade.stockId()));
+        List<ReentrantLock> locks = positionLocks.acquireAll(userId, stockIds);
+        TradeImportResultDto result;
+        try {
+            try {
+                result = transactionTemplate.execute(status -> apply(userId, trades));
+            } catch (DataIntegrityViolationException e) {
+                if (!ConstraintViolations.violates(e, ConstraintViolations.UNIQUE_POSITION)) {
+                    throw e;
+                }
+                // Another instance opened one of the positions first; the retry sees and locks its row
+                log.info("Retrying trade import for user {} after a concurrent first purchase", userId);
+                result = transactionTemplate.execute(status -> apply(userId, trades));
+            }
+        } finally {
+            PositionLocks.releaseAll(locks);
+        }
+        long elapsed = System.nanoTime() - start;
+        importLatency.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Imported {} trades for user {} in {} ms, {} positions written, {} closed",
+                result.getTradesImported(), userId, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                result.getPositionsUpdated(), result.getPositionsClosed());
+        return result;
+    }
+
+    List<ImportedTrade> parse(InputStream body, Format format) throws IOException {
+        List<ImportedTrade> trades = new ArrayList<>();
+        Errors errors = new Errors();
+        LocalDateTime now = LocalDateTime.now();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = null;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (trades.size() + errors.count >= maxRows) {
+                throw new IllegalArgumentException("Trade import is limited to " + maxRows + " rows");
+            }
+            if (format == Format.NDJSON) {
+                parseNdjson(lineNumber, line, now, trades, errors);
+                continue;
+            }
+            // A quoted field may span lines, so keep reading until the record's quotes are balanced
+            int recordLine = lineNumber;
+            List<String> fields = csvFields(line);
+            while (fields == null) {
+                String next = reader.readLine();
+                if (next == null) {
+                    break;
+                }
+                lineNumber++;
+                line = line + "\n" + next;
+                fields = csvFields(line);
+            }
+            if (fields == null) {
+                errors.add(recordLine, "unterminated quoted field");
+            } else if (columns == null) {
+                columns = csvHeader(fields);
+            } else {
+                parseCsv(recordLine, fields, columns, now, trades, errors);
+            }
+        }
+        if (errors.count > 0) {
+            throw new IllegalArgumentException("Trade import rejected, " + errors.count + " invalid rows: "
+                    + String.join("; ", errors.messages));
+        }
+        if (trades.isEmpty()) {
+            throw new IllegalArgumentException("Trade import contains no trades");
+        }
+        return chronological(trades);
+    }
+
+    // Oldest first, so sells follow the buys they close; rows without a timestamp count as now. A file listed newest
+    // first, as /api/trades/export writes it, is reversed before the stable sort so trades sharing a timestamp keep
+    // their original relative order
+    static List<ImportedTrade> chronological(List<ImportedTrade> trades) {
+        List<ImportedTrade> ordered = new ArrayList<>(trades);
+        if (ordered.getFirst().timestamp().isAfter(ordered.getLast().timestamp())) {
+            Collections.reverse(ordered);
+        }
+        ordered.sort(Comparator.comparing(ImportedTrade::timestamp));
+        return ordered;
+    }
+
+    // The header names the columns, so broker exports with extra columns or a different order still import
+    private static Map<String, Integer> csvHeader(List<String> names) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("symbol", "type", "quantity", "price")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must name the symbol, type, quantity and price columns");
+            }
+        }
+        return columns;
+    }
+
+    private void parseCsv(int lineNumber, List<String> fields, Map<String, Integer> columns, LocalDateTime now,
+            List<ImportedTrade> trades, Errors errors) {
+        if (fields.size() < columns.size()) {
+            errors.add(lineNumber, "expected " + columns.size() + " columns but found " + fields.size());
+            return;
+        }
+        Integer quantity;
+        BigDecimal price;
+        try {
+            quantity = Integer.valueOf(fields.get(columns.get("quantity")));
+            price = new BigDecimal(fields.get(columns.get("price")));
+        } catch (NumberFormatException e) {
+            errors.add(lineNumber, "quantity and price must be numbers");
+            return;
+        }
+        Integer timestampColumn = columns.get("timestamp");
+        String timestamp = timestampColumn == null ? null : fields.get(timestampColumn);
+        add(lineNumber, fields.get(columns.get("symbol")), fields.get(columns.get("type")), quantity, price, timestamp,
+                now, trades, errors);
+    }
+
+    private void parseNdjson(int lineNumber, String line, LocalDateTime now, List<ImportedTrade> trades,
+            Errors errors) {
+        NdjsonRow row;
+        try {
+            row = jsonMapper.readValue(line, NdjsonRow.class);
+        } catch (JacksonException e) {
+            errors.add(lineNumber, "unreadable JSON: " + e.getOriginalMessage());
+            return;
+        }
+        add(lineNumber, row.symbol(), row.type(), row.quantity(), row.price(), row.timestamp(), now, trades, errors);
+    }
+
+    private void add(int lineNumber, String symbol, String type, Integer quantity, BigDecimal price, String timestamp,
+            LocalDateTime now, List<ImportedTrade> trades, Errors errors) {
+        String normalizedType = type == null ? "" : type.trim().toUpperCase(Locale.ROOT);
+        if (!normalizedType.equals("BUY") && !normalizedType.equals("SELL")) {
+            errors.add(lineNumber, "type must be BUY or SELL");
+            return;
+        }
+        if (quantity == null || quantity <= 0) {
+            errors.add(lineNumber, "quantity must be positive");
+            return;
+        }
+        if (price == null || price.signum() <= 0) {
+            errors.add(lineNumber, "price must be positive");
+            return;
+        }
+        SymbolDirectory.Entry entry = symbol == null ? null : symbolDirectory.resolve(symbol).orElse(null);
+        if (entry == null) {
+            errors.add(lineNumber, "unknown symbol " + symbol);
+            return;
+        }
+        LocalDateTime executedAt;
+        try {
+            executedAt = parseTimestamp(timestamp, now);
+        } catch (DateTimeParseException e) {
+            errors.add(lineNumber, "timestamp must be an ISO-8601 date-time");
+            return;
+        }
+        trades.add(new ImportedTrade(lineNumber, entry.stockId(), entry.symbol(), normalizedType, quantity,
+                price.setScale(PRICE_SCALE, RoundingMode.HALF_UP), executedAt));
+    }
+
+    private static LocalDateTime parseTimestamp(String value, LocalDateTime now) {
+        if (value == null || value.isBlank()) {
+            return now;
+        }
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(value.trim()).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+    }
+
+    // Splits one RFC 4180 record: quoted fields may hold commas, line breaks and doubled quotes. Returns null while a
+    // quoted field is still open, meaning the record continues on the next line. Values are trimmed
+    static List<String> csvFields(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.toString().isBlank()) {
+                field.setLength(0);
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private TradeImportResultDto apply(Long userId, List<ImportedTrade> trades) {
+        Map<Long, Position> positions = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_POSITIONS_SQL, rs -> {
+            Position position = new Position(rs.getLong("id"), rs.getLong("stock_id"), rs.getInt("quantity"),
+                    rs.getBigDecimal("avg_cost"), rs.getBigDecimal("realized_pnl"));
+            positions.put(position.stockId, position);
+        }, userId);
+
+        Set<Position> touched = new LinkedHashSet<>();
+        for (ImportedTrade trade : trades) {
+            Position position = positions.computeIfAbsent(trade.stockId(),
+                    stockId -> new Position(null, stockId, 0, BigDecimal.ZERO, BigDecimal.ZERO));
+            fold(position, trade);
+            touched.add(position);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_TRADE_SQL, trades, batchSize, (statement, trade) -> {
+            statement.setLong(1, userId);
+            statement.setLong(2, trade.stockId());
+            statement.setString(3, trade.type());
+            statement.setInt(4, trade.quantity());
+            statement.setBigDecimal(5, trade.price());
+            statement.setTimestamp(6, Timestamp.valueOf(trade.timestamp()));
+        });
+
+        List<Position> inserts = new ArrayList<>();
+        List<Position> updates = new ArrayList<>();
+        List<Position> deletes = new ArrayList<>();
+        for (Position position : touched) {
+            if (position.quantity == 0) {
+                if (position.id != null) {
+                    deletes.add(position);
+                }
+            } else if (position.id == null) {
+                inserts.add(position);
+            } else {
+                updates.add(position);
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_POSITION_SQL, deletes, batchSize,
+                (statement, position) -> statement.setLong(1, position.id));
+        jdbcTemplate.batchUpdate(UPDATE_POSITION_SQL, updates, batchSize, (statement, position) -> {
+            statement.setInt(1, position.quantity);
+            statement.setBigDecimal(2, position.avgCost);
+            statement.setBigDecimal(3, position.realizedPnl);
+            statement.setLong(4, position.id);
+        });
+        jdbcTemplate.batchUpdate(INSERT_POSITION_SQL, inserts, batchSize, (statement, position) -> {
+            statement.setLong(1, userId);
+            statement.setLong(2, position.stockId);
+            statement.setInt(3, position.quantity);
+            statement.setBigDecimal(4, position.avgCost);
+            statement.setBigDecimal(5, position.realizedPnl);
+        });
+
+        // Live portfolio streams reload this user's holdings once the import commits
+        eventPublisher.publishEvent(new PortfolioChangedEvent(userId));
+
+        TradeImportResultDto result = new TradeImportResultDto();
+        result.setTradesImported(trades.size());
+        result.setPositionsUpdated(inserts.size() + updates.size());
+        result.setPositionsClosed(deletes.size());
+        return result;
+    }
+
+    // Mirrors TradeService.executeTrade; a closed position (quantity 0) is reopened like a first purchase
+    private static void fold(Position position, ImportedTrade trade) {
+        if (trade.type().equals("BUY")) {
+            if (position.quantity == 0) {
+                position.quantity = trade.quantity();
+                position.avgCost = trade.price();
+                position.realizedPnl = BigDecimal.ZERO;
+                return;
+            }
+            int newQty;
+            try {
+                newQty = Math.addExact(position.quantity, trade.quantity());
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Line " + trade.line() + ": position in " + trade.symbol()
+                        + " exceeds the maximum quantity");
+            }
+            BigDecimal newCost = position.avgCost.multiply(BigDecimal.valueOf(position.quantity))
+                    .add(trade.price().multiply(BigDecimal.valueOf(trade.quantity())));
+            // Rounded to the column scale, as executeTrade's result is when it is stored and read back
+            position.avgCost = newCost.divide(BigDecimal.valueOf(newQty), RoundingMode.HALF_UP)
+                    .setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+            position.quantity = newQty;
+        } else {
+            if (position.quantity < trade.quantity()) {
+                throw new IllegalArgumentException("Line " + trade.line() + ": insufficient shares to sell "
+                        + trade.symbol());
+            }
+            position.quantity -= trade.quantity();
+            position.realizedPnl = position.realizedPnl.add(trade.price().subtract(position.avgCost)
+                    .multiply(BigDecimal.valueOf(trade.quantity())));
+        }
+    }
+}
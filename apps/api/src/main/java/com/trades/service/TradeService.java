@@ -2,16 +2,22 @@ package com.trades.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.portfolio.entity.Portfolio;
 import com.portfolio.repository.PortfolioRepository;
+import com.portfolio.service.PortfolioChangedEvent;
 import com.stock.entity.Stock;
 import com.stock.repository.StockRepository;
+import com.stock.service.SymbolDirectory;
 import com.trades.dto.TradeRequestDto;
 import com.trades.dto.TradeResponseDto;
 import com.trades.entity.Trade;
@@ -19,25 +25,108 @@ import com.trades.repository.TradeRepository;
 import com.user.entity.User;
 import com.user.repository.UserRepository;
 
+import jakarta.persistence.EntityNotFoundException;
+
 @Service
 public class TradeService {
+    private static final Logger log = LoggerFactory.getLogger(TradeService.class);
+
     private final TradeRepository tradeRepository;
     private final StockRepository stockRepository;
     private final UserRepository userRepository;
     private final PortfolioRepository portfolioRepository;
+    private final SymbolDirectory symbolDirectory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PositionLocks positionLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyStore idempotencyStore;
 
-    public TradeService(TradeRepository tradeRepository, StockRepository stockRepository, UserRepository userRepository, PortfolioRepository portfolioRepository) {
+    public TradeService(TradeRepository tradeRepository, StockRepository stockRepository, UserRepository userRepository, PortfolioRepository portfolioRepository, SymbolDirectory symbolDirectory, ApplicationEventPublisher eventPublisher, PositionLocks positionLocks, PlatformTransactionManager transactionManager, IdempotencyStore idempotencyStore) {
         this.tradeRepository = tradeRepository;
         this.stockRepository = stockRepository;
         this.userRepository = userRepository;
         this.portfolioRepository = portfolioRepository;
+        this.symbolDirectory = symbolDirectory;
+        this.eventPublisher = eventPublisher;
+        this.positionLocks = positionLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    // Execute buy or sell trade and update portfolio.
+    // Trades on the same (user, stock) position run one at a time: the striped lock is held across the whole
+    // transaction, so the next trade only reads the position after this one has committed
+    public TradeResponseDto executeTrade(Long userId, TradeRequestDto request) {
+        return executeTrade(userId, request, null);
     }
 
-    // Execute buy or sell trade and update portfolio
-    @Transactional
-    public Trade executeTrade(Long userId, TradeRequestDto request) {
+    // With an Idempotency-Key, a retry of a trade that was already recorded returns that trade instead of trading again.
+    // A new key costs no extra query: recent keys are answered from memory, and an older one is only looked up after
+    // the trades table's unique (user_id, idempotency_key) constraint rejects the insert.
+    // The response is built inside the trade's transaction, so nothing lazy is left for the caller or the store to load
+    public TradeResponseDto executeTrade(Long userId, TradeRequestDto request, String idempotencyKey) {
+        String key = IdempotencyStore.validate(idempotencyKey);
+        // Resolve the symbol from the in-memory directory, so the position lock is known before any query runs
+        SymbolDirectory.Entry entry = symbolDirectory.resolve(request.getSymbol())
+                .orElseThrow(() -> new EntityNotFoundException("Stock not found: " + request.getSymbol()));
+
+        ReentrantLock lock = positionLocks.acquire(userId, entry.stockId());
+        try {
+            // Checked under the position lock, so a retry that races its original waits for it and then sees it
+            TradeResponseDto previous = key == null ? null : idempotencyStore.get(userId, key);
+            if (previous != null) {
+                return replay(previous, entry, request);
+            }
+            TradeResponseDto trade;
+            try {
+                trade = transactionTemplate.execute(status -> applyTrade(userId, entry, request, key));
+            } catch (DataIntegrityViolationException e) {
+                if (key != null && ConstraintViolations.violates(e, ConstraintViolations.UNIQUE_IDEMPOTENCY_KEY)) {
+                    TradeResponseDto recorded = transactionTemplate.execute(status -> tradeRepository
+                            .findByUserIdAndIdempotencyKey(userId, key).map(TradeService::toResponse).orElse(null));
+                    if (recorded == null) {
+                        throw e;
+                    }
+                    idempotencyStore.put(userId, key, recorded);
+                    return replay(recorded, entry, request);
+                }
+                if (!ConstraintViolations.violates(e, ConstraintViolations.UNIQUE_POSITION)) {
+                    throw e;
+                }
+                // Another instance opened the same position first; the retry finds and locks its row
+                log.info("Retrying trade for user {} on stock {} after a concurrent first purchase", userId,
+                        entry.stockId());
+                trade = transactionTemplate.execute(status -> applyTrade(userId, entry, request, key));
+            }
+            if (key != null) {
+                idempotencyStore.put(userId, key, trade);
+            }
+            return trade;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A reused key must describe the same trade; anything else is a client bug, not a retry
+    private TradeResponseDto replay(TradeResponseDto previous, SymbolDirectory.Entry entry, TradeRequestDto request) {
+        boolean sameTrade = previous.getStockSymbol().equalsIgnoreCase(entry.symbol())
+                && previous.getType().equalsIgnoreCase(request.getType())
+                && previous.getQuantity().equals(request.getQuantity())
+                && previous.getPrice().setScale(2, RoundingMode.HALF_UP)
+                        .compareTo(request.getPrice().setScale(2, RoundingMode.HALF_UP)) == 0;
+        if (!sameTrade) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different trade");
+        }
+        log.debug("Returning trade {} for a repeated Idempotency-Key", previous.getId());
+        return previous;
+    }
+
+    private TradeResponseDto applyTrade(Long userId, SymbolDirectory.Entry entry, TradeRequestDto request,
+            String idempotencyKey) {
         User user = userRepository.findById(userId).orElseThrow();
-        Stock stock = stockRepository.findBySymbol(request.getSymbol()).orElseThrow();
+        // Only the foreign key is needed; the response takes the symbol and name from the directory entry
+        Long stockId = entry.stockId();
+        Stock stock = stockRepository.getReferenceById(stockId);
 
         // Save trade record
         Trade trade = new Trade();
@@ -46,10 +135,11 @@ public class TradeService {
         trade.setType(request.getType());
         trade.setQuantity(request.getQuantity());
         trade.setPrice(request.getPrice());
+        trade.setIdempotencyKey(idempotencyKey);
         tradeRepository.save(trade);
 
-        // Get or create portfolio entry
-        Portfolio portfolio = portfolioRepository.findByUserIdAndStockId(userId, stock.getId())
+        // Get or create portfolio entry, locking the row so other instances wait for this trade
+        Portfolio portfolio = portfolioRepository.findForUpdate(userId, stockId)
                 .orElse(null);
 
         if ("BUY".equalsIgnoreCase(request.getType())) {
@@ -105,23 +195,25 @@ public class TradeService {
             }
         }
 
-        return trade;
+        // Live portfolio streams reload this user's holdings once the trade commits
+        eventPublisher.publishEvent(new PortfolioChangedEvent(userId));
+        return toResponse(trade, entry.symbol(), entry.name());
+    }
+
+    // Called inside a transaction; reads the stock association, which is lazy on trades loaded by query
+    private static TradeResponseDto toResponse(Trade trade) {
+        return toResponse(trade, trade.getStock().getSymbol(), trade.getStock().getName());
     }
 
-    // Retrieve all trades for a user
-    @Transactional(readOnly = true)
-    public List<TradeResponseDto> getTradeHistory(Long userId) {
-        List<Trade> trades = tradeRepository.findByUserId(userId);
-        return trades.stream().map(t -> {
-            TradeResponseDto dto = new TradeResponseDto();
-            dto.setId(t.getId());
-            dto.setType(t.getType());
-            dto.setQuantity(t.getQuantity());
-            dto.setPrice(t.getPrice());
-            dto.setStockSymbol(t.getStock().getSymbol());
-            dto.setStockName(t.getStock().getName());
-            dto.setTimestamp(t.getTimestamp());
-            return dto;
-        }).collect(Collectors.toList());
+    private static TradeResponseDto toResponse(Trade trade, String stockSymbol, String stockName) {
+        TradeResponseDto dto = new TradeResponseDto();
+        dto.setId(trade.getId());
+        dto.setType(trade.getType());
+        dto.setQuantity(trade.getQuantity());
+        dto.setPrice(trade.getPrice());
+        dto.setTimestamp(trade.getTimestamp());
+        dto.setStockSymbol(stockSymbol);
+        dto.setStockName(stockName);
+        return dto;
     }
 }
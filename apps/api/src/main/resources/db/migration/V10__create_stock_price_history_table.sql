@@ -0,0 +1,37 @@
+-- Full quote captured on every price refresh, range-partitioned by UTC month on captured_at.
+-- The primary key has to include the partition key; stock_id carries no foreign key so
+-- partitions can be detached or dropped without touching stocks.
+CREATE TABLE stock_price_history (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    stock_id BIGINT NOT NULL,
+    symbol VARCHAR(255) NOT NULL,
+    price NUMERIC(19, 4) NOT NULL,
+    open_price NUMERIC(19, 4),
+    high_price NUMERIC(19, 4),
+    low_price NUMERIC(19, 4),
+    previous_close NUMERIC(19, 4),
+    price_change NUMERIC(19, 4),
+    change_percent NUMERIC(19, 4),
+    quoted_at TIMESTAMP WITH TIME ZONE,
+    captured_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id, captured_at)
+) PARTITION BY RANGE (captured_at);
+
+CREATE INDEX idx_stock_price_history_stock_captured
+    ON stock_price_history (stock_id, captured_at);
+
+-- Catches rows outside the pre-created months; PriceHistoryPartitionMaintainer keeps months ahead of time
+CREATE TABLE stock_price_history_default PARTITION OF stock_price_history DEFAULT;
+
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', now() AT TIME ZONE 'UTC')::DATE;
+BEGIN
+    FOR i IN 0..2 LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF stock_price_history FOR VALUES FROM (%L) TO (%L)',
+            'stock_price_history_' || to_char(month_start + make_interval(months => i), 'YYYY_MM'),
+            (month_start + make_interval(months => i)) AT TIME ZONE 'UTC',
+            (month_start + make_interval(months => i + 1)) AT TIME ZONE 'UTC');
+    END LOOP;
+END $$;
@@ -0,0 +1,35 @@
+-- Exchange holidays and half days. A row with early_close set is a shortened session closing at that local time;
+-- a row without it is a full closure.
+CREATE TABLE market_holidays (
+    id BIGSERIAL PRIMARY KEY,
+    exchange VARCHAR(16) NOT NULL,
+    holiday_date DATE NOT NULL,
+    name VARCHAR(120) NOT NULL,
+    early_close TIME,
+    CONSTRAINT uk_market_holidays_exchange_date UNIQUE (exchange, holiday_date)
+);
+
+INSERT INTO market_holidays (exchange, holiday_date, name, early_close) VALUES
+    ('US', '2026-01-01', 'New Year''s Day', NULL),
+    ('US', '2026-01-19', 'Martin Luther King, Jr. Day', NULL),
+    ('US', '2026-02-16', 'Washington''s Birthday', NULL),
+    ('US', '2026-04-03', 'Good Friday', NULL),
+    ('US', '2026-05-25', 'Memorial Day', NULL),
+    ('US', '2026-06-19', 'Juneteenth National Independence Day', NULL),
+    ('US', '2026-07-03', 'Independence Day (observed)', NULL),
+    ('US', '2026-09-07', 'Labor Day', NULL),
+    ('US', '2026-11-26', 'Thanksgiving Day', NULL),
+    ('US', '2026-11-27', 'Day after Thanksgiving', '13:00'),
+    ('US', '2026-12-24', 'Christmas Eve', '13:00'),
+    ('US', '2026-12-25', 'Christmas Day', NULL),
+    ('US', '2027-01-01', 'New Year''s Day', NULL),
+    ('US', '2027-01-18', 'Martin Luther King, Jr. Day', NULL),
+    ('US', '2027-02-15', 'Washington''s Birthday', NULL),
+    ('US', '2027-03-26', 'Good Friday', NULL),
+    ('US', '2027-05-31', 'Memorial Day', NULL),
+    ('US', '2027-06-18', 'Juneteenth National Independence Day (observed)', NULL),
+    ('US', '2027-07-05', 'Independence Day (observed)', NULL),
+    ('US', '2027-09-06', 'Labor Day', NULL),
+    ('US', '2027-11-25', 'Thanksgiving Day', NULL),
+    ('US', '2027-11-26', 'Day after Thanksgiving', '13:00'),
+    ('US', '2027-12-24', 'Christmas Day (observed)', NULL);
@@ -0,0 +1,24 @@
+-- Symbols are stored trimmed and upper-cased; normalize any legacy rows, then enforce one stock per symbol.
+-- V3 never made symbols unique, so stop with the conflicting symbols listed rather than a bare unique violation;
+-- trades and positions point at a specific stock id, so choosing which duplicate survives is left to an operator
+DO $$
+DECLARE
+    conflicts TEXT;
+BEGIN
+    SELECT string_agg(format('%s (ids %s)', normalized, ids), ', ' ORDER BY normalized)
+    INTO conflicts
+    FROM (
+        SELECT UPPER(TRIM(symbol)) AS normalized, string_agg(id::TEXT, ', ' ORDER BY id) AS ids
+        FROM stocks
+        GROUP BY UPPER(TRIM(symbol))
+        HAVING COUNT(*) > 1
+    ) duplicates;
+
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'Cannot enforce unique stock symbols; merge or remove the duplicate stocks first: %', conflicts;
+    END IF;
+END $$;
+
+UPDATE stocks SET symbol = UPPER(TRIM(symbol)) WHERE symbol <> UPPER(TRIM(symbol));
+
+CREATE UNIQUE INDEX uk_stocks_symbol_upper ON stocks (UPPER(symbol));
@@ -0,0 +1,2 @@
+-- Keyset pages ordered by symbol seek on (symbol, id) instead of sorting the whole table
+CREATE INDEX idx_stocks_symbol_id ON stocks (symbol, id);
@@ -0,0 +1,16 @@
+-- OHLC candles rolled up from captured quotes by CandleAggregator, one row per stock, interval and bucket.
+-- open_at and close_at keep the quote times behind open and close so late or out-of-order quotes merge correctly.
+CREATE TABLE stock_candles (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    stock_id BIGINT NOT NULL,
+    interval_code VARCHAR(8) NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    open_price NUMERIC(19, 4) NOT NULL,
+    high_price NUMERIC(19, 4) NOT NULL,
+    low_price NUMERIC(19, 4) NOT NULL,
+    close_price NUMERIC(19, 4) NOT NULL,
+    open_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    close_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    sample_count INTEGER NOT NULL,
+    CONSTRAINT uk_stock_candles_bucket UNIQUE (stock_id, interval_code, bucket_start)
+);
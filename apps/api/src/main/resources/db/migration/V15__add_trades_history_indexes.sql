@@ -0,0 +1,8 @@
+-- Trade history pages seek newest-first on (user_id, timestamp, id) instead of loading and sorting every trade;
+-- the second index serves the same pages filtered to one stock.
+-- Nothing records when a trade without a timestamp happened, so those rows get the Unix epoch as a recognizable
+-- "unknown" marker: they sort last in newest-first history instead of pretending to have happened at migration time
+UPDATE trades SET timestamp = TIMESTAMP '1970-01-01 00:00:00' WHERE timestamp IS NULL;
+ALTER TABLE trades ALTER COLUMN timestamp SET NOT NULL;
+CREATE INDEX idx_trades_user_timestamp_id ON trades (user_id, timestamp, id);
+CREATE INDEX idx_trades_user_stock_timestamp_id ON trades (user_id, stock_id, timestamp, id);
@@ -0,0 +1,4 @@
+-- Client-supplied Idempotency-Key of the request that recorded the trade; NULLs never conflict, so trades submitted
+-- without a key are unaffected
+ALTER TABLE trades ADD COLUMN idempotency_key VARCHAR(128);
+ALTER TABLE trades ADD CONSTRAINT uq_trades_user_idempotency_key UNIQUE (user_id, idempotency_key);
@@ -0,0 +1,8 @@
+-- Quotes spent by price refreshes per exchange-local trading day, so a restart resumes the day's budget instead of
+-- starting over. last_run_at is when the day's latest scheduled refresh finished, which tells the scheduler after a
+-- restart whether the closing prices were already captured.
+CREATE TABLE quote_budget_usage (
+    trading_day DATE PRIMARY KEY,
+    quotes_used INTEGER NOT NULL,
+    last_run_at TIMESTAMP WITH TIME ZONE
+);
@@ -0,0 +1,108 @@
+package com.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AppConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch releaseHungRequests = new CountDownLatch(1);
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/quote", exchange -> respond(exchange, "{\"c\":190.5}"));
+        server.createContext("/hang", exchange -> {
+            try {
+                releaseHungRequests.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "{}");
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseHungRequests.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void hungLlmRequestsDoNotStarveMarketDataClient() throws Exception {
+        RestTemplate llm = AppConfig.limitedRestTemplate("llm", meterRegistry, 1000, 10000, 1, 100);
+        RestTemplate marketData = AppConfig.limitedRestTemplate("market-data", meterRegistry, 1000, 2000, 2, 100);
+
+        CompletableFuture<String> hung = CompletableFuture.supplyAsync(
+                () -> llm.getForObject(baseUrl + "/hang", String.class));
+        awaitGauge("http.client.inflight.active", "llm", 1.0);
+
+        assertThrows(ResourceAccessException.class, () -> llm.getForObject(baseUrl + "/quote", String.class));
+        assertEquals("{\"c\":190.5}", marketData.getForObject(baseUrl + "/quote", String.class));
+        assertEquals(1.0, meterRegistry.get("http.client.inflight.rejected").tag("client", "llm").counter().count());
+        assertEquals(0.0, meterRegistry.get("http.client.inflight.active").tag("client", "market-data").gauge().value());
+        assertEquals(1, meterRegistry.get("http.client.inflight.requests")
+                .tags("client", "market-data", "outcome", "SUCCESS").timer().count());
+
+        releaseHungRequests.countDown();
+        hung.get(5, TimeUnit.SECONDS);
+        awaitGauge("http.client.inflight.active", "llm", 0.0);
+    }
+
+    @Test
+    void readTimeoutFailsTheRequestAndFreesItsSlot() {
+        RestTemplate marketData = AppConfig.limitedRestTemplate("market-data", meterRegistry, 1000, 200, 1, 100);
+
+        long start = System.currentTimeMillis();
+        assertThrows(ResourceAccessException.class, () -> marketData.getForObject(baseUrl + "/hang", String.class));
+
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(0.0, meterRegistry.get("http.client.inflight.active").tag("client", "market-data").gauge().value());
+        assertEquals(1, meterRegistry.get("http.client.inflight.requests")
+                .tags("client", "market-data", "outcome", "IO_ERROR").timer().count());
+    }
+
+    private void awaitGauge(String name, String client, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get(name).tag("client", client).gauge().value() != expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, meterRegistry.get(name).tag("client", client).gauge().value());
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ExecutorConfigTest {
+
+    @Test
+    void platformExecutor_shouldCapThreadsAndRunOverflowOnTheCaller() throws InterruptedException {
+        ExecutorService executor = ExecutorConfig.newOutboundIoExecutor(false, 2, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        try {
+            // Two workers and two queued tasks fill the executor; the fifth runs on this thread
+            for (int i = 0; i < 4; i++) {
+                executor.execute(() -> {
+                    threads.add(Thread.currentThread().getName());
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            executor.execute(() -> threads.add(Thread.currentThread().getName()));
+
+            assertTrue(threads.contains(Thread.currentThread().getName()));
+            assertEquals(2, ((ThreadPoolExecutor) executor).getLargestPoolSize());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sseSendExecutor_shouldRejectOverflowInsteadOfRunningItOnTheCaller() throws InterruptedException {
+        ExecutorService executor = ExecutorConfig.newSseSendExecutor(false, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Runnable blockedSend = () -> {
+            threads.add(Thread.currentThread().getName());
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            executor.execute(blockedSend);
+            executor.execute(blockedSend);
+
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(blockedSend));
+            assertFalse(threads.contains(Thread.currentThread().getName()));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
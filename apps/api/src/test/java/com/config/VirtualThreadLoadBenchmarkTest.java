@@ -0,0 +1,137 @@
+package com.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Load comparison between platform-thread and virtual-thread request handling for blocking outbound calls.
+// Each simulated request makes one call to a local upstream that answers after UPSTREAM_LATENCY_MS. The platform
+// baseline runs on a pool the size of Tomcat's default max threads; the virtual mode runs one virtual thread per request.
+// Excluded from the default build; run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadBenchmarkTest.class);
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+    private static final int UPSTREAM_LATENCY_MS = 100;
+    private static final int REQUESTS = 2000;
+    private static final int WARMUP_REQUESTS = REQUESTS;
+
+    private HttpServer upstream;
+    private ExecutorService upstreamExecutor;
+    private String upstreamUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstreamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        upstream.setExecutor(upstreamExecutor);
+        upstream.createContext("/quote", exchange -> {
+            try {
+                Thread.sleep(UPSTREAM_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"c\":190.5}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+        upstreamUrl = "http://127.0.0.1:" + upstream.getAddress().getPort() + "/quote";
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.stop(0);
+        upstreamExecutor.shutdownNow();
+    }
+
+    @Test
+    void compareVirtualThreadsWithPlatformThreadBaseline() throws Exception {
+        Result platform = run("platform", Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS));
+        Result virtual = run("virtual", Executors.newVirtualThreadPerTaskExecutor());
+
+        log.info("{}", platform);
+        log.info("{}", virtual);
+        log.info("virtual/platform throughput: {}x",
+                String.format("%.2f", virtual.throughput() / platform.throughput()));
+
+        assertEquals(REQUESTS, platform.completed());
+        assertEquals(REQUESTS, virtual.completed());
+    }
+
+    private Result run(String mode, ExecutorService requestExecutor) throws Exception {
+        RestTemplate restTemplate = AppConfig.limitedRestTemplate("benchmark-" + mode, new SimpleMeterRegistry(),
+                2000, 10000, REQUESTS, 10000);
+        try {
+            execute(requestExecutor, restTemplate, WARMUP_REQUESTS);
+            long start = System.nanoTime();
+            long[] latencies = execute(requestExecutor, restTemplate, REQUESTS);
+            long elapsed = System.nanoTime() - start;
+            Arrays.sort(latencies);
+            return new Result(mode, latencies.length, elapsed, percentile(latencies, 0.50), percentile(latencies, 0.99));
+        } finally {
+            requestExecutor.shutdownNow();
+        }
+    }
+
+    private long[] execute(ExecutorService requestExecutor, RestTemplate restTemplate, int requests) throws Exception {
+        // Every request arrives at once, as a burst of concurrent users would
+        List<CompletableFuture<Long>> calls = new ArrayList<>(requests);
+        long submittedAt = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> {
+                restTemplate.getForObject(upstreamUrl, String.class);
+                return System.nanoTime() - submittedAt;
+            }, requestExecutor));
+        }
+        long[] latencies = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            latencies[i] = calls.get(i).get(2, TimeUnit.MINUTES);
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private record Result(String mode, int completed, long elapsedNanos, long p50Nanos, long p99Nanos) {
+
+        double throughput() {
+            return completed / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %d requests in %d ms (%.0f req/s), p50 %d ms, p99 %d ms", mode, completed,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), throughput(),
+                    TimeUnit.NANOSECONDS.toMillis(p50Nanos), TimeUnit.NANOSECONDS.toMillis(p99Nanos));
+        }
+    }
+}
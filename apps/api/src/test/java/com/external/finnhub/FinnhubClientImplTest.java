@@ -3,31 +3,64 @@ package com.external.finnhub;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import com.config.InFlightLimitInterceptor;
+import com.external.marketdata.MarketQuote;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class FinnhubClientImplTest {
 
     @Mock
     private RestTemplate restTemplate;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
     private FinnhubClientImpl finnhubClient;
 
     @BeforeEach
     void setUp() {
-        finnhubClient = new FinnhubClientImpl(restTemplate, "test-api-key");
+        meterRegistry = new SimpleMeterRegistry();
+        finnhubClient = newClient(4, 100, new CircuitBreaker("finnhub", 20, 10, 0.5, 30000, 3));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
     }
 
     @Test
@@ -88,23 +121,16 @@ class FinnhubClientImplTest {
         Optional<Double> price = finnhubClient.getQuote("AAPL");
 
         assertTrue(price.isEmpty());
+        // Nothing came back, so the request is not known to have reached Finnhub
+        assertEquals(0, finnhubClient.getRequestsSent());
     }
 
     @Test
-    void getQuotes_shouldReturnMapOfPrices_forMultipleSymbols() throws Exception {
-        FinnhubClientImpl spyClient = spy(finnhubClient);
-        doNothing().when(spyClient).sleepBetweenRequests();
+    void getQuotes_shouldReturnMapOfPrices_forMultipleSymbols() {
+        stubQuote("AAPL", 150.25);
+        stubQuote("GOOGL", 2750.50);
 
-        FinnhubClientImpl.FinnhubQuoteResponse response1 = new FinnhubClientImpl.FinnhubQuoteResponse();
-        response1.setC(150.25);
-        FinnhubClientImpl.FinnhubQuoteResponse response2 = new FinnhubClientImpl.FinnhubQuoteResponse();
-        response2.setC(2750.50);
-
-        when(restTemplate.getForObject(anyString(), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
-                .thenReturn(response1)
-                .thenReturn(response2);
-
-        var result = spyClient.getQuotes("AAPL,GOOGL");
+        var result = finnhubClient.getQuotes("AAPL,GOOGL");
 
         assertEquals(2, result.size());
         assertEquals(150.25, result.get("AAPL"));
@@ -112,18 +138,31 @@ class FinnhubClientImplTest {
     }
 
     @Test
-    void getQuotes_shouldSkipEmptySymbols() throws Exception {
-        FinnhubClientImpl spyClient = spy(finnhubClient);
-        doNothing().when(spyClient).sleepBetweenRequests();
-
+    void getFullQuotes_shouldKeepEveryQuoteField() {
         FinnhubClientImpl.FinnhubQuoteResponse response = new FinnhubClientImpl.FinnhubQuoteResponse();
-        response.setC(150.25);
-
-        when(restTemplate.getForObject(anyString(), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
-                .thenReturn(response)
+        response.setC(190.5);
+        response.setO(188.0);
+        response.setH(191.2);
+        response.setL(187.4);
+        response.setPc(189.0);
+        response.setD(1.5);
+        response.setDp(0.79);
+        response.setT(1700000000L);
+        when(restTemplate.getForObject(contains("symbol=AAPL"), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
                 .thenReturn(response);
 
-        var result = spyClient.getQuotes("AAPL, ,GOOGL");
+        MarketQuote quote = finnhubClient.getFullQuotes("AAPL").get("AAPL");
+
+        assertEquals(new MarketQuote("AAPL", 190.5, 188.0, 191.2, 187.4, 189.0, 1.5, 0.79,
+                Instant.ofEpochSecond(1700000000L)), quote);
+    }
+
+    @Test
+    void getQuotes_shouldSkipEmptySymbols() {
+        stubQuote("AAPL", 150.25);
+        stubQuote("GOOGL", 150.25);
+
+        var result = finnhubClient.getQuotes("AAPL, ,GOOGL");
 
         assertEquals(2, result.size());
         assertEquals(150.25, result.get("AAPL"));
@@ -131,33 +170,211 @@ class FinnhubClientImplTest {
     }
 
     @Test
-    void getQuotes_shouldHandleFailedSymbols() throws Exception {
-        FinnhubClientImpl spyClient = spy(finnhubClient);
-        doNothing().when(spyClient).sleepBetweenRequests();
-
-        FinnhubClientImpl.FinnhubQuoteResponse response1 = new FinnhubClientImpl.FinnhubQuoteResponse();
-        response1.setC(150.25);
-
-        when(restTemplate.getForObject(anyString(), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
-                .thenReturn(response1)
+    void getQuotes_shouldHandleFailedSymbols() {
+        stubQuote("AAPL", 150.25);
+        when(restTemplate.getForObject(contains("symbol=GOOGL"), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
                 .thenReturn(null);
 
-        var result = spyClient.getQuotes("AAPL,GOOGL");
+        var result = finnhubClient.getQuotes("AAPL,GOOGL");
 
         assertEquals(1, result.size());
         assertEquals(150.25, result.get("AAPL"));
     }
 
     @Test
-    void getQuotes_shouldReturnEmptyMap_whenAllSymbolsFail() throws Exception {
-        FinnhubClientImpl spyClient = spy(finnhubClient);
-        doNothing().when(spyClient).sleepBetweenRequests();
-
+    void getQuotes_shouldReturnEmptyMap_whenAllSymbolsFail() {
         when(restTemplate.getForObject(anyString(), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
                 .thenReturn(null);
 
-        var result = spyClient.getQuotes("AAPL,GOOGL");
+        var result = finnhubClient.getQuotes("AAPL,GOOGL");
 
         assertEquals(0, result.size());
     }
+
+    @Test
+    void getQuotes_shouldWaitOnRateLimiter_whenBurstExceedsPerSecondQuota() {
+        FinnhubClientImpl throttledClient = newClient(4, 2, new CircuitBreaker("finnhub", 20, 10, 0.5, 30000, 3));
+        stubQuote("AAPL", 1.0);
+        stubQuote("MSFT", 2.0);
+        stubQuote("GOOGL", 3.0);
+        stubQuote("AMZN", 4.0);
+
+        var result = throttledClient.getQuotes("AAPL,MSFT,GOOGL,AMZN");
+
+        assertEquals(4, result.size());
+        assertEquals(2.0, meterRegistry.get("finnhub.ratelimiter.waits").counter().count());
+        assertEquals(4, meterRegistry.get("finnhub.quote.latency").timer().count());
+    }
+
+    @Test
+    void getQuote_shouldShareOneUpstreamRequest_whenSameSymbolRequestedConcurrently() throws Exception {
+        CountDownLatch upstreamStarted = new CountDownLatch(1);
+        CountDownLatch releaseUpstream = new CountDownLatch(1);
+        FinnhubClientImpl.FinnhubQuoteResponse response = new FinnhubClientImpl.FinnhubQuoteResponse();
+        response.setC(150.25);
+        when(restTemplate.getForObject(contains("symbol=AAPL"), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
+                .thenAnswer(invocation -> {
+                    upstreamStarted.countDown();
+                    releaseUpstream.await(5, TimeUnit.SECONDS);
+                    return response;
+                });
+
+        CompletableFuture<Optional<Double>> leader = CompletableFuture.supplyAsync(() -> finnhubClient.getQuote("AAPL"));
+        assertTrue(upstreamStarted.await(5, TimeUnit.SECONDS));
+
+        List<CompletableFuture<Optional<Double>>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(CompletableFuture.supplyAsync(() -> finnhubClient.getQuote("aapl")));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("finnhub.quote.coalesced").counter().count() < 3
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        releaseUpstream.countDown();
+
+        assertEquals(Optional.of(150.25), leader.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<Optional<Double>> follower : followers) {
+            assertEquals(Optional.of(150.25), follower.get(5, TimeUnit.SECONDS));
+        }
+        verify(restTemplate, times(1)).getForObject(contains("symbol=AAPL"), eq(FinnhubClientImpl.FinnhubQuoteResponse.class));
+        assertEquals(3.0, meterRegistry.get("finnhub.quote.coalesced").counter().count());
+    }
+
+    @Test
+    void getQuote_shouldRefetchForAFollower_whenTheLeadingCallerIsInterrupted() throws Exception {
+        CountDownLatch upstreamStarted = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        FinnhubClientImpl.FinnhubQuoteResponse response = new FinnhubClientImpl.FinnhubQuoteResponse();
+        response.setC(150.25);
+        when(restTemplate.getForObject(contains("symbol=AAPL"), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
+                .thenAnswer(invocation -> {
+                    if (calls.incrementAndGet() > 1) {
+                        return response;
+                    }
+                    upstreamStarted.countDown();
+                    try {
+                        new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        // As the JDK client does: keep the interrupt and fail the request
+                        Thread.currentThread().interrupt();
+                        throw new ResourceAccessException("Request was interrupted");
+                    }
+                    return response;
+                });
+
+        // The leader runs as a hedged call would, so losing the race interrupts it
+        Future<Optional<Double>> leader = executor.submit(() -> finnhubClient.getQuote("AAPL"));
+        assertTrue(upstreamStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<Double>> follower =
+                CompletableFuture.supplyAsync(() -> finnhubClient.getQuote("aapl"), executor);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("finnhub.quote.coalesced").counter().count() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        leader.cancel(true);
+
+        assertEquals(Optional.of(150.25), follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void getQuotes_shouldFailFast_onceCircuitBreakerOpens() {
+        // Gauges bind to the first client registered, so use a registry of our own
+        meterRegistry = new SimpleMeterRegistry();
+        CircuitBreaker breaker = new CircuitBreaker("finnhub", 4, 4, 0.5, 30000, 1);
+        FinnhubClientImpl guardedClient = newClient(1, 100, breaker);
+        when(restTemplate.getForObject(anyString(), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable",
+                        new HttpHeaders(), new byte[0], null));
+
+        var result = guardedClient.getQuotes("AAPL,MSFT,GOOGL,AMZN,TSLA,NVDA");
+
+        assertTrue(result.isEmpty());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        verify(restTemplate, times(4)).getForObject(anyString(), eq(FinnhubClientImpl.FinnhubQuoteResponse.class));
+        assertEquals(4, guardedClient.getRequestsSent());
+        assertEquals(2.0, meterRegistry.get("finnhub.circuit.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("finnhub.circuit.state").tag("state", "open").gauge().value());
+    }
+
+    @Test
+    void getQuotes_shouldNotChargeBudgetOrBreaker_whenLocalSlotIsUnavailable() {
+        CircuitBreaker breaker = new CircuitBreaker("finnhub", 4, 4, 0.5, 30000, 1);
+        FinnhubClientImpl guardedClient = newClient(1, 100, breaker);
+        when(restTemplate.getForObject(anyString(), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
+                .thenThrow(new InFlightLimitInterceptor.SlotUnavailableException("No free in-flight slot for finnhub"));
+
+        var result = guardedClient.getQuotes("AAPL,MSFT,GOOGL,AMZN,TSLA,NVDA");
+
+        assertTrue(result.isEmpty());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate());
+        assertEquals(0, guardedClient.getRequestsSent());
+        verify(restTemplate, times(6)).getForObject(anyString(), eq(FinnhubClientImpl.FinnhubQuoteResponse.class));
+    }
+
+    @Test
+    void getQuote_shouldHoldCircuitOpenForRetryAfter_whenRateLimited() {
+        // Gauges bind to the first client registered, so use a registry of our own
+        meterRegistry = new SimpleMeterRegistry();
+        CircuitBreaker breaker = new CircuitBreaker("finnhub", 20, 10, 0.5, 30000, 1);
+        FinnhubClientImpl guardedClient = newClient(1, 100, breaker);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "7");
+        when(restTemplate.getForObject(contains("symbol=AAPL"), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                        headers, new byte[0], null));
+
+        assertTrue(guardedClient.getQuote("AAPL").isEmpty());
+        assertTrue(guardedClient.getQuote("MSFT").isEmpty());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        verify(restTemplate, never()).getForObject(contains("symbol=MSFT"), eq(FinnhubClientImpl.FinnhubQuoteResponse.class));
+        assertEquals(1.0, meterRegistry.get("finnhub.quote.ratelimited").counter().count());
+        assertEquals(7000.0, meterRegistry.get("finnhub.backoff").gauge().value());
+    }
+
+    @Test
+    void getQuote_shouldProbeAndClose_afterOpenDurationElapses() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("finnhub", 2, 2, 0.5, 50, 1);
+        FinnhubClientImpl guardedClient = newClient(1, 100, breaker);
+        when(restTemplate.getForObject(contains("symbol=AAPL"), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
+                .thenThrow(new RuntimeException("Service unavailable"));
+        stubQuote("MSFT", 410.0);
+
+        guardedClient.getQuote("AAPL");
+        guardedClient.getQuote("AAPL");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(80);
+
+        assertEquals(Optional.of(410.0), guardedClient.getQuote("MSFT"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void parseRetryAfterNanos_shouldAcceptSecondsAndHttpDates() {
+        HttpHeaders seconds = new HttpHeaders();
+        seconds.set(HttpHeaders.RETRY_AFTER, "120");
+        HttpHeaders date = new HttpHeaders();
+        date.set(HttpHeaders.RETRY_AFTER, "Wed, 21 Oct 2015 07:28:00 GMT");
+
+        assertEquals(Optional.of(TimeUnit.SECONDS.toNanos(120)), FinnhubClientImpl.parseRetryAfterNanos(seconds));
+        assertEquals(Optional.of(0L), FinnhubClientImpl.parseRetryAfterNanos(date));
+        assertTrue(FinnhubClientImpl.parseRetryAfterNanos(new HttpHeaders()).isEmpty());
+    }
+
+    private FinnhubClientImpl newClient(int maxConcurrency, int requestsPerSecond, CircuitBreaker breaker) {
+        return new FinnhubClientImpl(restTemplate, meterRegistry, breaker, executor, "test-api-key", maxConcurrency,
+                requestsPerSecond, 1000, 60000);
+    }
+
+    private void stubQuote(String symbol, double price) {
+        FinnhubClientImpl.FinnhubQuoteResponse response = new FinnhubClientImpl.FinnhubQuoteResponse();
+        response.setC(price);
+        when(restTemplate.getForObject(contains("symbol=" + symbol), eq(FinnhubClientImpl.FinnhubQuoteResponse.class)))
+                .thenReturn(response);
+    }
 }
@@ -0,0 +1,136 @@
+package com.external.finnhub;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.external.marketdata.MarketQuote;
+import com.external.marketdata.StreamingMarketDataClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+class FinnhubTradeStreamClientTest {
+
+    private LocalTradeStreamServer server;
+    private FinnhubTradeStreamClient streamClient;
+    private StreamingMarketDataClient marketDataClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new LocalTradeStreamServer();
+        streamClient = new FinnhubTradeStreamClient(server.url(), "test-api-key", JsonMapper.builder().build());
+        marketDataClient = new StreamingMarketDataClient(streamClient, new SimpleMeterRegistry(), 0);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        streamClient.stop();
+        server.close();
+    }
+
+    @Test
+    void start_shouldSubscribeToRequestedSymbolsOnceConnected() throws Exception {
+        marketDataClient.subscribe(List.of("aapl"));
+        streamClient.start();
+
+        String message = server.awaitMessage(5000);
+
+        assertEquals("{\"type\":\"subscribe\",\"symbol\":\"AAPL\"}", message);
+    }
+
+    @Test
+    void trades_shouldBeCoalescedPerSymbolUntilDrained() throws Exception {
+        marketDataClient.subscribe(List.of("AAPL", "MSFT"));
+        streamClient.start();
+        server.awaitMessage(5000);
+
+        server.sendText("""
+                {"type":"trade","data":[
+                  {"s":"AAPL","p":190.10,"t":1700000000000,"v":10},
+                  {"s":"AAPL","p":190.35,"t":1700000000001,"v":20},
+                  {"s":"MSFT","p":410.00,"t":1700000000002,"v":5}
+                ]}""");
+        server.sendText("{\"type\":\"ping\"}");
+
+        Map<String, Double> latest = awaitPrices("AAPL,MSFT", 2);
+        Map<String, MarketQuote> drained = marketDataClient.drainPendingQuotes(10);
+
+        assertEquals(190.35, latest.get("AAPL"));
+        assertEquals(2, drained.size());
+        assertEquals(190.35, drained.get("AAPL").price());
+        assertEquals(Instant.ofEpochMilli(1700000000001L), drained.get("AAPL").quotedAt());
+        assertEquals(410.00, drained.get("MSFT").price());
+        assertTrue(marketDataClient.drainPendingQuotes(10).isEmpty());
+    }
+
+    @Test
+    void drainPendingPrices_shouldLeaveSymbolsBeyondLimitForNextFlush() throws Exception {
+        marketDataClient.subscribe(List.of("AAPL", "MSFT"));
+        streamClient.start();
+        server.awaitMessage(5000);
+
+        server.sendText("""
+                {"type":"trade","data":[
+                  {"s":"AAPL","p":190.10,"t":1700000000000,"v":10},
+                  {"s":"MSFT","p":410.00,"t":1700000000001,"v":5}
+                ]}""");
+        awaitPrices("AAPL,MSFT", 2);
+
+        assertEquals(1, marketDataClient.drainPendingQuotes(1).size());
+        assertEquals(1, marketDataClient.drainPendingQuotes(1).size());
+        assertTrue(marketDataClient.drainPendingQuotes(1).isEmpty());
+    }
+
+    @Test
+    void requeue_shouldRestoreFailedQuotesWithoutReplacingNewerTicks() throws Exception {
+        marketDataClient.subscribe(List.of("AAPL", "MSFT"));
+        streamClient.start();
+        server.awaitMessage(5000);
+
+        server.sendText("""
+                {"type":"trade","data":[
+                  {"s":"AAPL","p":190.10,"t":1700000000000,"v":10},
+                  {"s":"MSFT","p":410.00,"t":1700000000001,"v":5}
+                ]}""");
+        awaitPrices("AAPL,MSFT", 2);
+        Map<String, MarketQuote> failed = marketDataClient.drainPendingQuotes(10);
+
+        // AAPL ticks again before the failed batch is put back
+        server.sendText("""
+                {"type":"trade","data":[{"s":"AAPL","p":191.00,"t":1700000000002,"v":10}]}""");
+        awaitPrice("AAPL", 191.00);
+        marketDataClient.requeue(failed);
+
+        Map<String, MarketQuote> retried = marketDataClient.drainPendingQuotes(10);
+        assertEquals(2, retried.size());
+        assertEquals(191.00, retried.get("AAPL").price());
+        assertEquals(410.00, retried.get("MSFT").price());
+    }
+
+    private void awaitPrice(String symbol, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Double.valueOf(expected).equals(marketDataClient.getPrices(symbol).get(symbol))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, marketDataClient.getPrices(symbol).get(symbol));
+    }
+
+    private Map<String, Double> awaitPrices(String symbols, int expectedCount) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        Map<String, Double> prices = marketDataClient.getPrices(symbols);
+        while (prices.size() < expectedCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            prices = marketDataClient.getPrices(symbols);
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,142 @@
+package com.external.finnhub;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Minimal single-connection WebSocket server that stands in for the Finnhub trade feed in tests.
+// Supports the opening handshake, unmasked text frames to the client and masked text frames from the client.
+class LocalTradeStreamServer implements AutoCloseable {
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ServerSocket serverSocket;
+    private final BlockingQueue<String> receivedMessages = new LinkedBlockingQueue<>();
+    private final Thread acceptThread;
+    private volatile Socket client;
+
+    LocalTradeStreamServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        this.acceptThread = new Thread(this::acceptAndRead, "local-trade-stream-server");
+        this.acceptThread.setDaemon(true);
+        this.acceptThread.start();
+    }
+
+    String url() {
+        return "ws://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    String awaitMessage(long timeoutMillis) throws InterruptedException {
+        return receivedMessages.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void sendText(String message) throws IOException {
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        OutputStream out = client.getOutputStream();
+        out.write(0x81);
+        if (payload.length < 126) {
+            out.write(payload.length);
+        } else {
+            out.write(126);
+            out.write((payload.length >> 8) & 0xFF);
+            out.write(payload.length & 0xFF);
+        }
+        out.write(payload);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private void acceptAndRead() {
+        try {
+            Socket socket = serverSocket.accept();
+            handshake(socket);
+            client = socket;
+            InputStream in = socket.getInputStream();
+            while (true) {
+                String message = readTextFrame(in);
+                if (message == null) {
+                    return;
+                }
+                receivedMessages.add(message);
+            }
+        } catch (IOException e) {
+            // Server closed
+        }
+    }
+
+    private void handshake(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+        String key = null;
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+                key = line.substring(line.indexOf(':') + 1).trim();
+            }
+        }
+        String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n";
+        socket.getOutputStream().write(response.getBytes(StandardCharsets.ISO_8859_1));
+        socket.getOutputStream().flush();
+    }
+
+    private String readTextFrame(InputStream in) throws IOException {
+        int first = in.read();
+        int second = in.read();
+        if (first < 0 || second < 0) {
+            return null;
+        }
+        int opcode = first & 0x0F;
+        long length = second & 0x7F;
+        if (length == 126) {
+            length = (in.read() << 8) | in.read();
+        } else if (length == 127) {
+            length = 0;
+            for (int i = 0; i < 8; i++) {
+                length = (length << 8) | in.read();
+            }
+        }
+        byte[] mask = in.readNBytes(4);
+        byte[] payload = in.readNBytes((int) length);
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (payload[i] ^ mask[i % 4]);
+        }
+        if (opcode == 0x8) {
+            return null;
+        }
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        text.write(payload);
+        return text.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.external.finnhub;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    // Simulated time: sleeping advances the clock instead of blocking the test
+    private long now = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    void burstAfterIdlingNeverExceedsEitherQuotaInAnyRollingWindow() throws InterruptedException {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(30, 60, () -> now, nanos -> now += nanos);
+        limiter.acquire();
+        // Long enough for any bucket to have refilled completely
+        now += TimeUnit.MINUTES.toNanos(10);
+        long burstStart = now;
+
+        List<Long> grants = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            limiter.acquire();
+            grants.add(now);
+        }
+
+        assertEquals(burstStart, grants.get(29));
+        for (int i = 0; i + 60 < grants.size(); i++) {
+            assertTrue(grants.get(i + 60) - grants.get(i) >= MINUTE, "more than 60 permits within a minute at " + i);
+        }
+        for (int i = 0; i + 30 < grants.size(); i++) {
+            assertTrue(grants.get(i + 30) - grants.get(i) >= SECOND, "more than 30 permits within a second at " + i);
+        }
+    }
+
+    @Test
+    void acquire_shouldReportTheTimeSpentWaiting() throws InterruptedException {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(10, 60, () -> now, nanos -> now += nanos);
+
+        long waited = 0;
+        for (int i = 0; i < 10; i++) {
+            waited += limiter.acquire();
+        }
+        long nextWait = limiter.acquire();
+
+        assertEquals(0, waited);
+        assertEquals(SECOND, nextWait);
+    }
+}
@@ -0,0 +1,164 @@
+package com.external.marketdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CompositeMarketDataClientTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private CompositeMarketDataClient client;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getPrices_shouldNotAskSecondaryWhenPrimaryAnswersWithinBudget() {
+        StubProvider primary = new StubProvider("primary", 0, 0, Map.of("AAPL", 190.0));
+        StubProvider secondary = new StubProvider("secondary", 1, 0, Map.of("AAPL", 191.0));
+        client = new CompositeMarketDataClient(List.of(secondary, primary), meterRegistry, executor, 1000, 0.5);
+
+        Map<String, Double> prices = client.getPrices("AAPL");
+
+        assertEquals(Map.of("AAPL", 190.0), prices);
+        assertEquals(0, secondary.calls.get());
+        assertEquals(0.0, meterRegistry.get("marketdata.provider.hedged").counter().count());
+    }
+
+    @Test
+    void getPrices_shouldHedgeToSecondaryWhenPrimaryExceedsBudget() {
+        StubProvider primary = new StubProvider("primary", 0, 2000, Map.of("AAPL", 190.0));
+        StubProvider secondary = new StubProvider("secondary", 1, 0, Map.of("AAPL", 191.0));
+        client = new CompositeMarketDataClient(List.of(primary, secondary), meterRegistry, executor, 50, 0.5);
+
+        long start = System.currentTimeMillis();
+        Map<String, Double> prices = client.getPrices("AAPL");
+
+        assertEquals(Map.of("AAPL", 191.0), prices);
+        assertTrue(System.currentTimeMillis() - start < 1500);
+        assertEquals(1.0, meterRegistry.get("marketdata.provider.hedged").counter().count());
+    }
+
+    @Test
+    void getPrices_shouldFailOverSymbolsThePrimaryCouldNotPrice() {
+        StubProvider primary = new StubProvider("primary", 0, 0, Map.of("AAPL", 190.0));
+        StubProvider secondary = new StubProvider("secondary", 1, 0, Map.of("AAPL", 191.0, "MSFT", 410.0));
+        client = new CompositeMarketDataClient(List.of(primary, secondary), meterRegistry, executor, 1000, 0.5);
+
+        Map<String, Double> prices = client.getPrices("AAPL,MSFT");
+
+        assertEquals(Map.of("AAPL", 190.0, "MSFT", 410.0), prices);
+        assertEquals("MSFT", secondary.lastSymbols);
+    }
+
+    @Test
+    void getPrices_shouldInterruptThePrimaryOnceTheHedgeWins() throws InterruptedException {
+        StubProvider primary = new StubProvider("primary", 0, 2000, Map.of("AAPL", 190.0));
+        StubProvider secondary = new StubProvider("secondary", 1, 0, Map.of("AAPL", 191.0));
+        client = new CompositeMarketDataClient(List.of(primary, secondary), meterRegistry, executor, 50, 0.5);
+
+        Map<String, Double> prices = client.getPrices("AAPL");
+
+        assertEquals(Map.of("AAPL", 191.0), prices);
+        assertTrue(primary.interrupted.await(1, TimeUnit.SECONDS));
+        // The cancelled call does not count against the primary's error rate
+        assertEquals(0.0, meterRegistry.get("marketdata.provider.errors").tag("provider", "primary").counter().count());
+    }
+
+    @Test
+    void hedgeDelayNanos_shouldScaleWithBatchSize() {
+        StubProvider primary = new StubProvider("primary", 0, 2, Map.of("AAPL", 190.0, "MSFT", 410.0));
+        StubProvider secondary = new StubProvider("secondary", 1, 0, Map.of());
+        client = new CompositeMarketDataClient(List.of(primary, secondary), meterRegistry, executor, 5000, 0.5);
+
+        for (int i = 0; i < 20; i++) {
+            client.getPrices("AAPL,MSFT");
+        }
+
+        long single = client.hedgeDelayNanos(primary, 1);
+        assertTrue(single >= TimeUnit.MILLISECONDS.toNanos(2), "per-symbol delay was " + single + " ns");
+        assertEquals(10 * single, client.hedgeDelayNanos(primary, 10));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5000), client.hedgeDelayNanos(primary, 1_000_000));
+    }
+
+    @Test
+    void routingOrder_shouldDemoteProviderWithHighErrorRate() {
+        StubProvider primary = new StubProvider("primary", 0, 0, Map.of());
+        StubProvider secondary = new StubProvider("secondary", 1, 0, Map.of("AAPL", 191.0));
+        client = new CompositeMarketDataClient(List.of(primary, secondary), meterRegistry, executor, 1000, 0.5);
+
+        for (int i = 0; i < 20; i++) {
+            client.getPrices("AAPL");
+        }
+
+        assertEquals(List.of(secondary, primary), client.routingOrder());
+        assertEquals(20.0, meterRegistry.get("marketdata.provider.errors").tag("provider", "primary").counter().count());
+    }
+
+    private static final class StubProvider implements MarketDataProvider {
+        private final String name;
+        private final int priority;
+        private final long delayMs;
+        private final Map<String, Double> knownPrices;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+        private volatile String lastSymbols;
+
+        private StubProvider(String name, int priority, long delayMs, Map<String, Double> knownPrices) {
+            this.name = name;
+            this.priority = priority;
+            this.delayMs = delayMs;
+            this.knownPrices = knownPrices;
+        }
+
+        @Override
+        public String getProviderName() {
+            return name;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public Map<String, MarketQuote> getQuotes(String symbols) {
+            calls.incrementAndGet();
+            lastSymbols = symbols;
+            if (delayMs > 0) {
+                try {
+                    // Delay is per symbol, like a provider that quotes symbols one request at a time
+                    Thread.sleep(delayMs * symbols.split(",").length);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    interrupted.countDown();
+                    return Map.of();
+                }
+            }
+            Map<String, MarketQuote> quotes = new HashMap<>();
+            for (String symbol : symbols.split(",")) {
+                if (knownPrices.containsKey(symbol)) {
+                    quotes.put(symbol, MarketQuote.ofPrice(symbol, knownPrices.get(symbol), Instant.EPOCH));
+                }
+            }
+            return quotes;
+        }
+    }
+}
@@ -3,31 +3,55 @@ package com.external.marketdata;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.external.finnhub.FinnhubClient;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class MarketDataClientImplTest {
 
     @Mock
     private FinnhubClient finnhubClient;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
     private MarketDataClientImpl marketDataClient;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        marketDataClient = new MarketDataClientImpl(finnhubClient, meterRegistry, executor, 60, 900, 100, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
     @Test
     void getPrices_shouldReturnPrices_whenFinnhubClientReturnsPrices() {
         Map<String, Double> expected = Map.of("AAPL", 150.25, "GOOGL", 2750.50);
-        when(finnhubClient.getQuotes(anyString())).thenReturn(expected);
+        when(finnhubClient.getFullQuotes(anyString())).thenReturn(quotes(expected));
 
         Map<String, Double> result = marketDataClient.getPrices("AAPL,GOOGL");
 
@@ -36,7 +60,7 @@ class MarketDataClientImplTest {
 
     @Test
     void getPrices_shouldReturnEmptyMap_whenFinnhubClientReturnsEmpty() {
-        when(finnhubClient.getQuotes(anyString())).thenReturn(Map.of());
+        when(finnhubClient.getFullQuotes(anyString())).thenReturn(Map.of());
 
         Map<String, Double> result = marketDataClient.getPrices("AAPL,GOOGL");
 
@@ -45,10 +69,72 @@ class MarketDataClientImplTest {
 
     @Test
     void getPrices_shouldReturnEmptyMap_whenFinnhubClientThrowsException() {
-        when(finnhubClient.getQuotes(anyString())).thenThrow(new RuntimeException("API error"));
+        when(finnhubClient.getFullQuotes(anyString())).thenThrow(new RuntimeException("API error"));
 
         Map<String, Double> result = marketDataClient.getPrices("AAPL,GOOGL");
 
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getPrices_shouldServeFreshQuotesFromCacheWithoutCallingFinnhub() {
+        when(finnhubClient.getFullQuotes("AAPL,GOOGL")).thenReturn(quotes(Map.of("AAPL", 150.25, "GOOGL", 2750.50)));
+
+        marketDataClient.getPrices("AAPL,GOOGL");
+        Map<String, Double> result = marketDataClient.getPrices("AAPL,GOOGL");
+
+        assertEquals(Map.of("AAPL", 150.25, "GOOGL", 2750.50), result);
+        verify(finnhubClient, times(1)).getFullQuotes(anyString());
+        assertEquals(2.0, cacheRequests("hit"));
+        assertEquals(2.0, cacheRequests("miss"));
+    }
+
+    @Test
+    void getPrices_shouldOnlyFetchSymbolsMissingFromCache() {
+        when(finnhubClient.getFullQuotes("AAPL")).thenReturn(quotes(Map.of("AAPL", 150.25)));
+        when(finnhubClient.getFullQuotes("MSFT")).thenReturn(quotes(Map.of("MSFT", 410.00)));
+
+        marketDataClient.getPrices("AAPL");
+        Map<String, Double> result = marketDataClient.getPrices("AAPL,MSFT");
+
+        assertEquals(Map.of("AAPL", 150.25, "MSFT", 410.00), result);
+    }
+
+    @Test
+    void getPrices_shouldServeStaleQuoteAndRefreshOnceInBackground() {
+        MarketDataClientImpl expiringClient =
+                new MarketDataClientImpl(finnhubClient, meterRegistry, executor, 0, 900, 100, 0);
+        when(finnhubClient.getFullQuotes("AAPL"))
+                .thenReturn(quotes(Map.of("AAPL", 150.25)))
+                .thenReturn(quotes(Map.of("AAPL", 151.00)));
+
+        expiringClient.getPrices("AAPL");
+        Map<String, Double> stale = expiringClient.getPrices("AAPL");
+
+        assertEquals(150.25, stale.get("AAPL"));
+        verify(finnhubClient, timeout(1000).times(2)).getFullQuotes("AAPL");
+        assertEquals(1.0, cacheRequests("stale"));
+    }
+
+    @Test
+    void getQuotes_shouldKeepFullQuoteFromFinnhub() {
+        MarketQuote quote = new MarketQuote("AAPL", 190.5, 188.0, 191.2, 187.4, 189.0, 1.5, 0.79,
+                Instant.ofEpochSecond(1700000000));
+        when(finnhubClient.getFullQuotes("AAPL")).thenReturn(Map.of("AAPL", quote));
+
+        Map<String, MarketQuote> result = marketDataClient.getQuotes("AAPL");
+
+        assertEquals(quote, result.get("AAPL"));
+        assertEquals(quote, marketDataClient.getQuotes("AAPL").get("AAPL"));
+    }
+
+    private static Map<String, MarketQuote> quotes(Map<String, Double> prices) {
+        Map<String, MarketQuote> quotes = new HashMap<>();
+        prices.forEach((symbol, price) -> quotes.put(symbol, MarketQuote.ofPrice(symbol, price, Instant.EPOCH)));
+        return quotes;
+    }
+
+    private double cacheRequests(String result) {
+        return meterRegistry.get("marketdata.cache.requests").tag("result", result).counter().count();
+    }
+}
@@ -18,6 +18,7 @@ import com.portfolio.dto.PortfolioAnalysisRequestDto;
 import com.portfolio.dto.PortfolioAnalysisResponseDto;
 import com.portfolio.service.PortfolioAnalysisService;
 import com.portfolio.service.PortfolioService;
+import com.portfolio.service.PortfolioStreamService;
 import com.security.CurrentUserService;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +33,9 @@ class PortfolioControllerTest {
     @Mock
     private CurrentUserService currentUserService;
 
+    @Mock
+    private PortfolioStreamService portfolioStreamService;
+
     @Mock
     private Authentication authentication;
 
@@ -39,7 +43,8 @@ class PortfolioControllerTest {
 
     @BeforeEach
     void setUp() {
-        portfolioController = new PortfolioController(portfolioService, portfolioAnalysisService, currentUserService);
+        portfolioController = new PortfolioController(portfolioService, portfolioAnalysisService, currentUserService,
+                portfolioStreamService);
     }
 
     @Test
@@ -0,0 +1,172 @@
+package com.portfolio.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.portfolio.dto.PortfolioResponseDto;
+import com.portfolio.entity.Portfolio;
+import com.portfolio.repository.PortfolioRepository;
+import com.stock.dto.StockRequestDto;
+import com.stock.dto.StockResponseDto;
+import com.stock.repository.StockRepository;
+import com.stock.service.PriceChangeEventBus;
+import com.stock.service.PriceDelta;
+import com.stock.service.StockService;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+import com.trades.dto.TradeRequestDto;
+import com.trades.repository.TradeRepository;
+import com.trades.service.TradeService;
+import com.user.entity.User;
+import com.user.repository.UserRepository;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class PortfolioStreamServiceIntegrationTest {
+
+    @Autowired
+    private PortfolioStreamService portfolioStreamService;
+
+    @Autowired
+    private PriceChangeEventBus priceChangeEventBus;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private final List<Long> stockIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        portfolioRepository.deleteAll(portfolioRepository.findByUserId(user.getId()));
+        tradeRepository.deleteAll(tradeRepository.findByUserId(user.getId()));
+        userRepository.delete(user);
+        stockIds.forEach(stockService::delete);
+    }
+
+    @Test
+    void priceDeltasSendOnlyAffectedPositionsAndTradesSendANewSnapshot() throws Exception {
+        user = userRepository.save(createUser("stream-user"));
+        StockResponseDto held = createStock("STRA", "30.00");
+        StockResponseDto other = createStock("STRB", "50.00");
+
+        Portfolio portfolio = new Portfolio();
+        portfolio.setUser(user);
+        portfolio.setStock(stockRepository.getReferenceById(held.getId()));
+        portfolio.setQuantity(10);
+        portfolio.setAvgCost(new BigDecimal("25.00"));
+        portfolioRepository.save(portfolio);
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        portfolioStreamService.register(user.getId(), emitter);
+        awaitEvents(emitter, 1);
+        assertEquals(PortfolioStreamService.SNAPSHOT_EVENT, emitter.names.get(0));
+        assertEquals(new BigDecimal("50.00"), emitter.payloads.get(0).getFirst().getUnrealizedProfit());
+
+        priceChangeEventBus.publish(List.of(
+                delta(held, "30.00", "31.00"),
+                delta(other, "50.00", "55.00")));
+        awaitEvents(emitter, 2);
+        assertEquals(PortfolioStreamService.POSITIONS_EVENT, emitter.names.get(1));
+        List<PortfolioResponseDto> positions = emitter.payloads.get(1);
+        assertEquals(1, positions.size());
+        assertEquals("STRA", positions.getFirst().getSymbol());
+        assertEquals(new BigDecimal("60.00"), positions.getFirst().getUnrealizedProfit());
+
+        TradeRequestDto buy = new TradeRequestDto();
+        buy.setSymbol("STRB");
+        buy.setType("BUY");
+        buy.setQuantity(2);
+        buy.setPrice(new BigDecimal("50.00"));
+        tradeService.executeTrade(user.getId(), buy);
+        awaitEvents(emitter, 3);
+        assertEquals(PortfolioStreamService.SNAPSHOT_EVENT, emitter.names.get(2));
+        assertEquals(List.of("STRA", "STRB"),
+                emitter.payloads.get(2).stream().map(PortfolioResponseDto::getSymbol).toList());
+
+    }
+
+    private StockResponseDto createStock(String symbol, String price) {
+        StockRequestDto request = new StockRequestDto();
+        request.setSymbol(symbol);
+        request.setName(symbol + " Corp");
+        request.setPrice(new BigDecimal(price));
+        StockResponseDto stock = stockService.create(request);
+        stockIds.add(stock.getId());
+        return stock;
+    }
+
+    private static PriceDelta delta(StockResponseDto stock, String oldPrice, String newPrice) {
+        return new PriceDelta(stock.getId(), stock.getSymbol(), new BigDecimal(oldPrice), new BigDecimal(newPrice),
+                LocalDateTime.now());
+    }
+
+    private static User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("hashed-password");
+        user.setRole("ROLE_USER");
+        return user;
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (emitter.names.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, emitter.names.size());
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final List<List<PortfolioResponseDto>> payloads = new CopyOnWriteArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) throws IOException {
+            String name = null;
+            List<PortfolioResponseDto> payload = List.of();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof List<?> list) {
+                    payload = (List<PortfolioResponseDto>) list;
+                } else if (part.getData().toString().startsWith("event:")) {
+                    name = part.getData().toString().substring(6).split("\n")[0];
+                }
+            }
+            if (name != null) {
+                names.add(name);
+                payloads.add(payload);
+            }
+        }
+    }
+}
@@ -27,7 +27,7 @@ class StockControllerSecurityTest {
 
     @BeforeEach
     void setUp() {
-        stockController = new StockController(null, priceUpdateService);
+        stockController = new StockController(null, priceUpdateService, null, null, null);
     }
 
     @Test
@@ -0,0 +1,92 @@
+package com.stock.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.portfolio.entity.Portfolio;
+import com.portfolio.repository.PortfolioRepository;
+import com.stock.dto.StockRefreshCandidate;
+import com.stock.entity.Stock;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+import com.trades.repository.TradeRepository;
+import com.user.entity.User;
+import com.user.repository.UserRepository;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class StockRepositoryIntegrationTest {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        portfolioRepository.deleteAll();
+        tradeRepository.deleteAll();
+        stockRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findRefreshCandidates_shouldCountPortfoliosStillHoldingEachStock() {
+        User alice = userRepository.save(createUser("alice"));
+        User bob = userRepository.save(createUser("bob"));
+        Stock held = stockRepository.save(createStock("HELD"));
+        Stock soldOut = stockRepository.save(createStock("SOLD"));
+        stockRepository.save(createStock("NONE"));
+        portfolioRepository.save(createPosition(alice, held, 5));
+        portfolioRepository.save(createPosition(bob, held, 1));
+        portfolioRepository.save(createPosition(alice, soldOut, 0));
+
+        Map<String, Long> holders = stockRepository.findRefreshCandidates().stream()
+                .collect(Collectors.toMap(StockRefreshCandidate::symbol, StockRefreshCandidate::holders));
+
+        assertEquals(Map.of("HELD", 2L, "SOLD", 0L, "NONE", 0L), holders);
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("hashed-password");
+        user.setRole("ROLE_USER");
+        return user;
+    }
+
+    private Stock createStock(String symbol) {
+        Stock stock = new Stock();
+        stock.setSymbol(symbol);
+        stock.setName(symbol + " Inc.");
+        stock.setPrice(new BigDecimal("10.00"));
+        return stock;
+    }
+
+    private Portfolio createPosition(User user, Stock stock, int quantity) {
+        Portfolio portfolio = new Portfolio();
+        portfolio.setUser(user);
+        portfolio.setStock(stock);
+        portfolio.setQuantity(quantity);
+        portfolio.setAvgCost(new BigDecimal("10.00"));
+        portfolio.setRealizedPnl(BigDecimal.ZERO);
+        return portfolio;
+    }
+}
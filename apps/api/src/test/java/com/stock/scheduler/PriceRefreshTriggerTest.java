@@ -0,0 +1,131 @@
+package com.stock.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.stock.entity.QuoteBudgetUsage;
+import com.stock.repository.MarketHolidayRepository;
+import com.stock.repository.QuoteBudgetUsageRepository;
+import com.stock.service.DailyQuoteBudget;
+import com.stock.service.ExchangeCalendar;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class PriceRefreshTriggerTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Mock
+    private MarketHolidayRepository holidayRepository;
+
+    @Mock
+    private QuoteBudgetUsageRepository usageRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private DailyQuoteBudget quoteBudget;
+    private PriceRefreshTrigger trigger;
+
+    @BeforeEach
+    void setUp() {
+        when(holidayRepository.findByExchange("US")).thenReturn(List.of());
+        ExchangeCalendar calendar = new ExchangeCalendar(holidayRepository, "US", "America/New_York", "09:30", "16:00");
+        quoteBudget = new DailyQuoteBudget(calendar, usageRepository, jdbcTemplate, new SimpleMeterRegistry(), 1000);
+        trigger = new PriceRefreshTrigger(calendar, quoteBudget, 50, 60, 900, 300, 30000);
+    }
+
+    @Test
+    void nextRun_shouldSpreadRemainingBudgetOverRestOfSession() {
+        // 1000 quotes / 50 per run = 20 runs over the 200 minutes left until the close
+        Instant now = at(2026, 10, 14, 12, 40);
+
+        assertEquals(now.plus(Duration.ofMinutes(10)), trigger.nextRun(now, now));
+    }
+
+    @Test
+    void nextRun_shouldPollFasterWhenMoreBudgetIsLeftThanTimeNeeds() {
+        Instant now = at(2026, 10, 14, 15, 50);
+
+        assertEquals(now.plus(Duration.ofSeconds(60)), trigger.nextRun(now, now));
+    }
+
+    @Test
+    void nextRun_shouldWaitForPostCloseRunOnceBudgetIsSpent() {
+        Instant now = at(2026, 10, 14, 11, 0);
+        quoteBudget.recordUsage(990, now);
+
+        assertEquals(at(2026, 10, 14, 16, 5), trigger.nextRun(now, now));
+    }
+
+    @Test
+    void nextRun_shouldCaptureCloseOnceThenSleepUntilNextOpen() {
+        Instant afterClose = at(2026, 10, 16, 16, 1);
+        assertEquals(at(2026, 10, 16, 16, 5), trigger.nextRun(afterClose, at(2026, 10, 16, 15, 59)));
+
+        // Friday's post-close run is done: nothing until Monday's open
+        Instant evening = at(2026, 10, 16, 16, 6);
+        assertEquals(at(2026, 10, 19, 9, 30), trigger.nextRun(evening, evening));
+    }
+
+    @Test
+    void firstRun_shouldWaitForNextOpen_whenRestartedAfterClosingPricesWereCaptured() {
+        // Friday's post-close run finished before a weekend restart
+        when(usageRepository.findFirstByLastRunAtNotNullOrderByLastRunAtDesc())
+                .thenReturn(Optional.of(usage(at(2026, 10, 16, 16, 5))));
+
+        assertEquals(at(2026, 10, 19, 9, 30), trigger.firstRun(at(2026, 10, 17, 11, 0)));
+    }
+
+    @Test
+    void firstRun_shouldCaptureClose_whenNoRunFinishedAfterIt() {
+        when(usageRepository.findFirstByLastRunAtNotNullOrderByLastRunAtDesc())
+                .thenReturn(Optional.of(usage(at(2026, 10, 16, 15, 50))));
+        Instant restart = at(2026, 10, 16, 18, 0);
+
+        assertEquals(restart.plus(Duration.ofSeconds(30)), trigger.firstRun(restart));
+    }
+
+    @Test
+    void firstRun_shouldUseInitialDelay_whileSessionIsOpen() {
+        Instant restart = at(2026, 10, 14, 12, 0);
+
+        assertEquals(restart.plus(Duration.ofSeconds(30)), trigger.firstRun(restart));
+    }
+
+    @Test
+    void remaining_shouldResumeFromPersistedUsage_afterRestart() {
+        QuoteBudgetUsage stored = usage(at(2026, 10, 14, 10, 0));
+        stored.setQuotesUsed(400);
+        when(usageRepository.findById(LocalDate.of(2026, 10, 14))).thenReturn(Optional.of(stored));
+
+        assertEquals(600, quoteBudget.remaining(at(2026, 10, 14, 11, 0)));
+    }
+
+    private static QuoteBudgetUsage usage(Instant lastRunAt) {
+        QuoteBudgetUsage usage = new QuoteBudgetUsage();
+        usage.setTradingDay(LocalDate.ofInstant(lastRunAt, NEW_YORK));
+        usage.setLastRunAt(lastRunAt);
+        return usage;
+    }
+
+    private static Instant at(int year, int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, NEW_YORK).toInstant();
+    }
+}
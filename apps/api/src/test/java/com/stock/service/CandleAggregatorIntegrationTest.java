@@ -0,0 +1,120 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.external.marketdata.MarketQuote;
+import com.stock.dto.StockCandleDto;
+import com.stock.entity.Stock;
+import com.stock.repository.StockRepository;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class CandleAggregatorIntegrationTest {
+
+    // 2026-03-02 14:30:00Z is 09:30 in New York, the default exchange zone
+    private static final Instant SESSION_OPEN = Instant.parse("2026-03-02T14:30:00Z");
+
+    @Autowired
+    private CandleAggregator candleAggregator;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Test
+    void quotesAcrossBatchesMergeIntoOneCandlePerBucket() {
+        long stockId = saveStock("CNDL");
+
+        // Second batch arrives first but carries later quotes, and a late quote reaches back into the first minute
+        candleAggregator.aggregate(List.of(
+                entry(stockId, 10.0, SESSION_OPEN.plusSeconds(5)),
+                entry(stockId, 12.0, SESSION_OPEN.plusSeconds(30)),
+                entry(stockId, 11.0, SESSION_OPEN.plusSeconds(65))));
+        candleAggregator.aggregate(List.of(
+                entry(stockId, 9.0, SESSION_OPEN.plusSeconds(1)),
+                entry(stockId, 10.5, SESSION_OPEN.plusSeconds(50))));
+
+        List<StockCandleDto> minutes = stockService.findCandles(stockId, "1m",
+                SESSION_OPEN, SESSION_OPEN.plusSeconds(3600), null);
+        assertEquals(2, minutes.size());
+        assertCandle(minutes.get(0), SESSION_OPEN, "9.0", "12.0", "9.0", "10.5", 4);
+        assertCandle(minutes.get(1), SESSION_OPEN.plusSeconds(60), "11.0", "11.0", "11.0", "11.0", 1);
+
+        List<StockCandleDto> hours = stockService.findCandles(stockId, "1h",
+                SESSION_OPEN.minusSeconds(3600), SESSION_OPEN.plusSeconds(3600), null);
+        assertEquals(1, hours.size());
+        assertCandle(hours.getFirst(), Instant.parse("2026-03-02T14:00:00Z"), "9.0", "12.0", "9.0", "11.0", 5);
+    }
+
+    @Test
+    void dayCandlesUseTheProviderSessionRangeAndExchangeDate() {
+        long stockId = saveStock("CNDD");
+        MarketQuote quote = new MarketQuote("CNDD", 101.0, 98.0, 105.0, 97.5, 99.0, 2.0, 2.02,
+                SESSION_OPEN.plusSeconds(7200));
+        candleAggregator.aggregate(List.of(new PriceHistoryWriter.Entry(stockId, quote, Instant.now())));
+
+        List<StockCandleDto> days = stockService.findCandles(stockId, "1d",
+                SESSION_OPEN.minusSeconds(86400), SESSION_OPEN.plusSeconds(86400), null);
+        assertEquals(1, days.size());
+        assertCandle(days.getFirst(), Instant.parse("2026-03-02T05:00:00Z"), "98.0", "105.0", "97.5", "101.0", 1);
+    }
+
+    @Test
+    void findCandles_shouldDownsampleToMaxPointsKeepingExtremes() {
+        long stockId = saveStock("CNDS");
+        List<PriceHistoryWriter.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            entries.add(entry(stockId, i == 57 ? 500.0 : 100.0 + i, SESSION_OPEN.plusSeconds(60L * i)));
+        }
+        candleAggregator.aggregate(entries);
+
+        List<StockCandleDto> candles = stockService.findCandles(stockId, "1m",
+                SESSION_OPEN, SESSION_OPEN.plusSeconds(7200), 10);
+
+        assertEquals(10, candles.size());
+        assertCandle(candles.getFirst(), SESSION_OPEN, "100.0", "111.0", "100.0", "111.0", 12);
+        assertEquals(0, new BigDecimal("500.0").compareTo(candles.get(4).getHigh()));
+        assertThrows(IllegalArgumentException.class,
+                () -> stockService.findCandles(stockId, "2m", null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> stockService.findCandles(stockId, "1m", null, null, 0));
+    }
+
+    private long saveStock(String symbol) {
+        Stock stock = new Stock();
+        stock.setSymbol(symbol);
+        stock.setName(symbol + " Corp");
+        stock.setPrice(new BigDecimal("10.00"));
+        return stockRepository.save(stock).getId();
+    }
+
+    private static PriceHistoryWriter.Entry entry(long stockId, double price, Instant quotedAt) {
+        return new PriceHistoryWriter.Entry(stockId, MarketQuote.ofPrice("X", price, quotedAt), Instant.now());
+    }
+
+    private static void assertCandle(StockCandleDto candle, Instant bucketStart, String open, String high,
+            String low, String close, int samples) {
+        assertEquals(bucketStart, candle.getBucketStart());
+        assertEquals(0, new BigDecimal(open).compareTo(candle.getOpen()), "open");
+        assertEquals(0, new BigDecimal(high).compareTo(candle.getHigh()), "high");
+        assertEquals(0, new BigDecimal(low).compareTo(candle.getLow()), "low");
+        assertEquals(0, new BigDecimal(close).compareTo(candle.getClose()), "close");
+        assertEquals(samples, candle.getSamples());
+    }
+}
@@ -0,0 +1,87 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.stock.entity.MarketHoliday;
+import com.stock.repository.MarketHolidayRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeCalendarTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Mock
+    private MarketHolidayRepository holidayRepository;
+
+    private ExchangeCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        when(holidayRepository.findByExchange("US")).thenReturn(List.of(
+                holiday(LocalDate.of(2026, 11, 26), null),
+                holiday(LocalDate.of(2026, 11, 27), LocalTime.of(13, 0))));
+        calendar = new ExchangeCalendar(holidayRepository, "US", "America/New_York", "09:30", "16:00");
+    }
+
+    @Test
+    void sessionOn_shouldBeClosedOnWeekendsAndFullHolidays() {
+        assertTrue(calendar.sessionOn(LocalDate.of(2026, 11, 28)).isEmpty());
+        assertTrue(calendar.sessionOn(LocalDate.of(2026, 11, 26)).isEmpty());
+        assertTrue(calendar.sessionOn(LocalDate.of(2026, 11, 25)).isPresent());
+    }
+
+    @Test
+    void sessionOn_shouldCloseEarlyOnHalfDays() {
+        var session = calendar.sessionOn(LocalDate.of(2026, 11, 27)).orElseThrow();
+
+        assertEquals(at(2026, 11, 27, 9, 30), session.open());
+        assertEquals(at(2026, 11, 27, 13, 0), session.close());
+        assertFalse(calendar.currentSession(at(2026, 11, 27, 14, 0).toInstant()).isPresent());
+    }
+
+    @Test
+    void nextSession_shouldSkipHolidayAndWeekend() {
+        // Wednesday evening before Thanksgiving: Thursday is closed, Friday is a half day
+        var next = calendar.nextSession(at(2026, 11, 25, 18, 0).toInstant()).orElseThrow();
+        assertEquals(at(2026, 11, 27, 9, 30), next.open());
+
+        // Friday afternoon after the early close: the next session is Monday
+        var afterHalfDay = calendar.nextSession(at(2026, 11, 27, 15, 0).toInstant()).orElseThrow();
+        assertEquals(at(2026, 11, 30, 9, 30), afterHalfDay.open());
+    }
+
+    @Test
+    void lastClosedSession_shouldReturnMostRecentFinishedSession() {
+        var last = calendar.lastClosedSession(at(2026, 11, 29, 12, 0).toInstant()).orElseThrow();
+
+        assertEquals(at(2026, 11, 27, 13, 0), last.close());
+    }
+
+    private static ZonedDateTime at(int year, int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, NEW_YORK);
+    }
+
+    private static MarketHoliday holiday(LocalDate date, LocalTime earlyClose) {
+        MarketHoliday holiday = new MarketHoliday();
+        holiday.setExchange("US");
+        holiday.setHolidayDate(date);
+        holiday.setName("Holiday");
+        holiday.setEarlyClose(earlyClose);
+        return holiday;
+    }
+}
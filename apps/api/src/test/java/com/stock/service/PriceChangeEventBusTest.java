@@ -0,0 +1,229 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PriceChangeEventBusTest {
+
+    private ExecutorService executor;
+    private PriceChangeEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        bus = new PriceChangeEventBus(executor, new SimpleMeterRegistry(), 2, 3, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void slowSubscriberReceivesCoalescedDeltasWithoutBlockingOthers() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter fast = new RecordingEmitter(null);
+        bus.register(slow);
+        bus.register(fast);
+
+        bus.publish(List.of(delta("AAPL", "1.00", "2.00")));
+        awaitEvents(slow, 1);
+        bus.publish(List.of(delta("AAPL", "2.00", "3.00"), delta("MSFT", "5.00", "6.00")));
+        bus.publish(List.of(delta("AAPL", "3.00", "4.00")));
+
+        // The fast subscriber sees the latest price while the slow one is still stuck on its first send
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!receivedPrice(fast, "AAPL", "4.00") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(receivedPrice(fast, "AAPL", "4.00"));
+        assertEquals(1, slow.events.size());
+
+        slow.release.countDown();
+        awaitEvents(slow, 2);
+
+        List<PriceDelta> coalesced = slow.deltas.get(1);
+        assertEquals(2, coalesced.size());
+        assertEquals("AAPL", coalesced.get(0).symbol());
+        assertEquals(new BigDecimal("2.00"), coalesced.get(0).oldPrice());
+        assertEquals(new BigDecimal("4.00"), coalesced.get(0).newPrice());
+        assertEquals("MSFT", coalesced.get(1).symbol());
+    }
+
+    @Test
+    void concurrentSubscribersNeverExceedTheLimit() throws Exception {
+        PriceChangeEventBus limitedBus = new PriceChangeEventBus(executor, new SimpleMeterRegistry(), 5, 3, 0);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            attempts.add(executor.submit(() -> {
+                start.await();
+                try {
+                    limitedBus.register(new RecordingEmitter(null));
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int accepted = 0;
+        for (Future<Boolean> attempt : attempts) {
+            accepted += attempt.get(5, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        assertEquals(5, accepted);
+        assertEquals(5, limitedBus.subscriberCount());
+    }
+
+    @Test
+    void subscriberTooFarBehindIsToldToResync() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1));
+        bus.register(slow);
+
+        bus.publish(List.of(delta("A", "1", "2")));
+        awaitEvents(slow, 1);
+        bus.publish(List.of(delta("B", "1", "2"), delta("C", "1", "2"), delta("D", "1", "2"), delta("E", "1", "2")));
+        bus.publish(List.of(delta("F", "1", "2")));
+        slow.release.countDown();
+        awaitEvents(slow, 3);
+
+        // The backlog is replaced by one resync event; changes after the overflow are still delivered behind it
+        assertTrue(slow.events.get(1).contains(CoalescingEmitter.RESYNC_EVENT));
+        assertEquals(List.of("F"), slow.deltas.get(2).stream().map(PriceDelta::symbol).toList());
+    }
+
+    @Test
+    void publishNeverSendsOnItsOwnThreadWhenTheSendExecutorIsFull() throws Exception {
+        // Two workers and two queued sends, as the SSE send executor is sized in platform mode
+        ThreadPoolExecutor sendExecutor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(2), new ThreadPoolExecutor.AbortPolicy());
+        PriceChangeEventBus busyBus = new PriceChangeEventBus(sendExecutor, new SimpleMeterRegistry(), 20, 3, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        List<RecordingEmitter> subscribers = new ArrayList<>();
+        try {
+            for (int i = 0; i < 10; i++) {
+                RecordingEmitter subscriber = new RecordingEmitter(release);
+                busyBus.register(subscriber);
+                subscribers.add(subscriber);
+            }
+
+            busyBus.publish(List.of(delta("AAPL", "1.00", "2.00")));
+
+            String publisher = Thread.currentThread().getName();
+            assertTrue(subscribers.stream().noneMatch(s -> s.threads.contains(publisher)));
+
+            // Rejected subscribers kept their backlog; later changes and heartbeats deliver it once there is room
+            release.countDown();
+            busyBus.publish(List.of(delta("MSFT", "5.00", "6.00")));
+            for (RecordingEmitter subscriber : subscribers) {
+                long deadline = System.currentTimeMillis() + 5000;
+                while (!(receivedPrice(subscriber, "AAPL", "2.00") && receivedPrice(subscriber, "MSFT", "6.00"))
+                        && System.currentTimeMillis() < deadline) {
+                    busyBus.heartbeat();
+                    Thread.sleep(5);
+                }
+                assertTrue(receivedPrice(subscriber, "AAPL", "2.00"));
+                assertTrue(receivedPrice(subscriber, "MSFT", "6.00"));
+                assertFalse(subscriber.threads.contains(publisher));
+            }
+        } finally {
+            release.countDown();
+            sendExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void subscribeIsRejectedAtTheSubscriberLimit() {
+        bus.subscribe();
+        bus.subscribe();
+
+        try {
+            bus.subscribe();
+        } catch (IllegalStateException expected) {
+            assertEquals(2, bus.subscriberCount());
+            return;
+        }
+        throw new AssertionError("Expected the third subscription to be rejected");
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (emitter.events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, emitter.events.size());
+    }
+
+    private static boolean receivedPrice(RecordingEmitter emitter, String symbol, String price) {
+        return emitter.deltas.stream()
+                .flatMap(List::stream)
+                .anyMatch(delta -> delta.symbol().equals(symbol) && delta.newPrice().equals(new BigDecimal(price)));
+    }
+
+    private static PriceDelta delta(String symbol, String oldPrice, String newPrice) {
+        return new PriceDelta((long) symbol.hashCode(), symbol, new BigDecimal(oldPrice), new BigDecimal(newPrice),
+                LocalDateTime.now());
+    }
+
+    // Records each event; the first send blocks until released to imitate a client that reads slowly
+    private static final class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final List<List<PriceDelta>> deltas = new CopyOnWriteArrayList<>();
+        private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) throws IOException {
+            threads.add(Thread.currentThread().getName());
+            StringBuilder text = new StringBuilder();
+            List<PriceDelta> sent = List.of();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof List<?> list) {
+                    sent = (List<PriceDelta>) list;
+                } else {
+                    text.append(part.getData());
+                }
+            }
+            deltas.add(sent);
+            events.add(text.toString());
+            if (release != null && events.size() == 1) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.external.marketdata.MarketQuote;
+import com.stock.dto.StockPriceHistoryDto;
+import com.stock.entity.Stock;
+import com.stock.repository.StockPriceHistoryRepository;
+import com.stock.repository.StockRepository;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class PriceHistoryIntegrationTest {
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PriceHistoryWriter priceHistoryWriter;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockPriceHistoryRepository priceHistoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        priceHistoryRepository.deleteAll();
+    }
+
+    @Test
+    void recordedQuotesAreWrittenInBackgroundAndQueryableByRange() throws Exception {
+        Stock stock = new Stock();
+        stock.setSymbol("HIST");
+        stock.setName("History Corp");
+        stock.setPrice(new BigDecimal("10.00"));
+        stock = stockRepository.save(stock);
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Instant quotedAt = Instant.ofEpochSecond(1700000000L);
+        priceHistoryWriter.record(stock, new MarketQuote("HIST", 10.5, 10.0, 10.8, 9.9, 10.1, 0.4, 3.96, quotedAt),
+                now.minus(2, ChronoUnit.HOURS));
+        priceHistoryWriter.record(stock, MarketQuote.ofPrice("HIST", 10.7, quotedAt.plusSeconds(60)),
+                now.minus(1, ChronoUnit.HOURS));
+        priceHistoryWriter.record(stock, MarketQuote.ofPrice("HIST", 9.0, quotedAt.plusSeconds(120)),
+                now.minus(3, ChronoUnit.DAYS));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (priceHistoryRepository.count() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        List<StockPriceHistoryDto> history = stockService.findPriceHistory(stock.getId(), null, null);
+
+        assertEquals(2, history.size());
+        StockPriceHistoryDto first = history.getFirst();
+        assertEquals(0, new BigDecimal("10.5").compareTo(first.getPrice()));
+        assertEquals(0, new BigDecimal("10.8").compareTo(first.getHigh()));
+        assertEquals(0, new BigDecimal("3.96").compareTo(first.getChangePercent()));
+        assertEquals(quotedAt, first.getQuotedAt());
+        assertTrue(first.getCapturedAt().isBefore(history.get(1).getCapturedAt()));
+        assertNull(history.get(1).getOpen());
+
+        assertEquals(3, stockService.findPriceHistory(stock.getId(), now.minus(7, ChronoUnit.DAYS), now).size());
+    }
+
+    @Test
+    void record_shouldSkipQuotesAlreadyRecorded() throws Exception {
+        Stock stock = new Stock();
+        stock.setSymbol("DUPE");
+        stock.setName("Duplicate Corp");
+        stock.setPrice(new BigDecimal("20.00"));
+        stock = stockRepository.save(stock);
+
+        Instant quotedAt = Instant.ofEpochSecond(1700000000L);
+        Instant now = Instant.now();
+        assertTrue(priceHistoryWriter.record(stock, MarketQuote.ofPrice("DUPE", 20.5, quotedAt), now));
+        // A cached or already streamed quote comes back with the same quote time, or an older one
+        assertFalse(priceHistoryWriter.record(stock, MarketQuote.ofPrice("DUPE", 20.5, quotedAt), now));
+        assertFalse(priceHistoryWriter.record(stock, MarketQuote.ofPrice("DUPE", 20.1, quotedAt.minusSeconds(1)), now));
+        assertTrue(priceHistoryWriter.record(stock, MarketQuote.ofPrice("DUPE", 20.7, quotedAt.plusSeconds(1)), now));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (priceHistoryRepository.count() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(2, priceHistoryRepository.count());
+    }
+
+    @Test
+    void findPriceHistory_shouldRejectEmptyRange() {
+        Stock stock = new Stock();
+        stock.setSymbol("RANGE");
+        stock.setName("Range Corp");
+        stock.setPrice(new BigDecimal("1.00"));
+        Long id = stockRepository.save(stock).getId();
+        Instant now = Instant.now();
+
+        assertThrows(IllegalArgumentException.class, () -> stockService.findPriceHistory(id, now, now));
+    }
+}
@@ -0,0 +1,122 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.stock.dto.StockRefreshCandidate;
+import com.stock.repository.StockRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PriceRefreshPlannerTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    private final StockViewTracker viewTracker = new StockViewTracker();
+
+    private PriceRefreshPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        planner = new PriceRefreshPlanner(stockRepository, viewTracker, 2, 900, 3600, 60, 30, 1.0, 1.0, 2.0);
+    }
+
+    @Test
+    void rank_shouldPreferHeldStaleAndRecentlyViewedStocks() {
+        LocalDateTime now = LocalDateTime.now();
+        StockRefreshCandidate unheld = new StockRefreshCandidate(1L, "IDLE", now.minusMinutes(30), 0);
+        StockRefreshCandidate held = new StockRefreshCandidate(2L, "HELD", now.minusMinutes(30), 25);
+        StockRefreshCandidate stale = new StockRefreshCandidate(3L, "STALE", now.minusHours(3), 0);
+        StockRefreshCandidate viewed = new StockRefreshCandidate(4L, "VIEW", now.minusMinutes(30), 0);
+        viewTracker.recordView(4L);
+
+        List<Long> order = planner.rank(List.of(unheld, held, stale, viewed), now, System.currentTimeMillis()).stream()
+                .map(scored -> scored.candidate().stockId())
+                .toList();
+
+        assertEquals(List.of(2L, 4L, 3L, 1L), order);
+    }
+
+    @Test
+    void rank_shouldSkipStocksRefreshedWithinMinimumInterval() {
+        LocalDateTime now = LocalDateTime.now();
+        StockRefreshCandidate fresh = new StockRefreshCandidate(1L, "FRESH", now.minusMinutes(5), 100);
+        StockRefreshCandidate neverPriced = new StockRefreshCandidate(2L, "NEW", null, 0);
+
+        var ranked = planner.rank(List.of(fresh, neverPriced), now, System.currentTimeMillis());
+
+        assertEquals(1, ranked.size());
+        assertEquals(2L, ranked.getFirst().candidate().stockId());
+    }
+
+    @Test
+    void rank_shouldCountQuoteAttemptsThatLeftThePriceUnchanged() {
+        LocalDateTime now = LocalDateTime.now();
+        StockRefreshCandidate flat = new StockRefreshCandidate(1L, "FLAT", now.minusHours(3), 10);
+        StockRefreshCandidate unquotable = new StockRefreshCandidate(2L, "GONE", null, 10);
+        StockRefreshCandidate due = new StockRefreshCandidate(3L, "DUE", now.minusHours(3), 0);
+        planner.recordAttempts(List.of(1L, 2L), now.minusMinutes(5));
+
+        var ranked = planner.rank(List.of(flat, unquotable, due), now, System.currentTimeMillis());
+
+        assertEquals(List.of(3L), ranked.stream().map(scored -> scored.candidate().stockId()).toList());
+
+        // Once the minimum interval has passed, staleness counts from the attempt rather than the old price
+        planner.recordAttempts(List.of(1L), now.minusMinutes(20));
+        StockRefreshCandidate neverAttempted = new StockRefreshCandidate(4L, "SAME", now.minusHours(3), 10);
+        assertTrue(planner.score(flat, now, System.currentTimeMillis())
+                < planner.score(neverAttempted, now, System.currentTimeMillis()));
+    }
+
+    @Test
+    void nextBatch_shouldResumeWhereThePreviousRunStopped() {
+        LocalDateTime stale = LocalDateTime.now().minusHours(1);
+        when(stockRepository.findRefreshCandidates()).thenReturn(List.of(
+                new StockRefreshCandidate(1L, "A", stale, 5),
+                new StockRefreshCandidate(2L, "B", stale, 4),
+                new StockRefreshCandidate(3L, "C", stale, 3),
+                new StockRefreshCandidate(4L, "D", stale, 2),
+                new StockRefreshCandidate(5L, "E", stale, 1)));
+
+        PriceRefreshPlanner.Batch first = planner.nextBatch();
+        PriceRefreshPlanner.Batch second = planner.nextBatch();
+        PriceRefreshPlanner.Batch third = planner.nextBatch();
+
+        assertEquals(List.of(1L, 2L), ids(first));
+        assertEquals(3, first.remaining());
+        assertEquals(List.of(3L, 4L), ids(second));
+        assertEquals(List.of(5L), ids(third));
+        assertEquals(0, third.remaining());
+        verify(stockRepository, times(1)).findRefreshCandidates();
+
+        // An exhausted plan is ranked again from fresh data on the next run
+        planner.nextBatch();
+        verify(stockRepository, times(2)).findRefreshCandidates();
+    }
+
+    @Test
+    void nextBatch_shouldReturnEmptyBatchWhenNothingIsDue() {
+        when(stockRepository.findRefreshCandidates()).thenReturn(List.of());
+
+        PriceRefreshPlanner.Batch batch = planner.nextBatch();
+
+        assertTrue(batch.stocks().isEmpty());
+        assertEquals(0, batch.remaining());
+    }
+
+    private static List<Long> ids(PriceRefreshPlanner.Batch batch) {
+        return batch.stocks().stream().map(StockRefreshCandidate::stockId).toList();
+    }
+}
@@ -0,0 +1,126 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.stock.dto.StockPageDto;
+import com.stock.dto.StockResponseDto;
+import com.stock.entity.Stock;
+import com.stock.repository.StockRepository;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class StockCatalogReaderIntegrationTest {
+
+    private static final StockCatalogReader.Filter KEYSET_ONLY = new StockCatalogReader.Filter("ks", null, null);
+
+    @Autowired
+    private StockCatalogReader catalogReader;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private SymbolDirectory symbolDirectory;
+
+    private List<Stock> stocks;
+
+    @BeforeEach
+    void setUp() {
+        List<Stock> created = new ArrayList<>();
+        // Inserted out of symbol order so symbol and id orderings differ
+        for (int i = 249; i >= 0; i--) {
+            Stock stock = new Stock();
+            stock.setSymbol(String.format("KS%03d", i));
+            stock.setName("Keyset " + i);
+            stock.setPrice(BigDecimal.valueOf(i));
+            created.add(stock);
+        }
+        stocks = stockRepository.saveAll(created);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockRepository.deleteAll(stocks);
+        symbolDirectory.reload();
+    }
+
+    @Test
+    void symbolPagesCoverEveryRowOnceInOrder() {
+        List<String> symbols = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            StockPageDto page = catalogReader.page(StockCatalogReader.Sort.SYMBOL, KEYSET_ONLY, cursor, 100);
+            page.getItems().forEach(item -> symbols.add(item.getSymbol()));
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.isHasMore());
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(250, symbols.size());
+        for (int i = 0; i < symbols.size(); i++) {
+            assertEquals(String.format("KS%03d", i), symbols.get(i));
+        }
+    }
+
+    @Test
+    void idPagesFollowInsertOrderAndApplyPriceFilters() {
+        StockCatalogReader.Filter filter = new StockCatalogReader.Filter("KS", new BigDecimal("10"), new BigDecimal("19"));
+        StockPageDto first = catalogReader.page(StockCatalogReader.Sort.ID, filter, null, 6);
+        StockPageDto second = catalogReader.page(StockCatalogReader.Sort.ID, filter, first.getNextCursor(), 6);
+
+        assertEquals(List.of("KS019", "KS018", "KS017", "KS016", "KS015", "KS014"), symbols(first.getItems()));
+        assertEquals(List.of("KS013", "KS012", "KS011", "KS010"), symbols(second.getItems()));
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void cursorsAndLimitsAreValidated() {
+        StockPageDto page = catalogReader.page(StockCatalogReader.Sort.SYMBOL, KEYSET_ONLY, null, 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogReader.page(StockCatalogReader.Sort.ID, KEYSET_ONLY, page.getNextCursor(), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogReader.page(StockCatalogReader.Sort.SYMBOL, KEYSET_ONLY, "not-a-cursor", 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogReader.page(StockCatalogReader.Sort.SYMBOL, KEYSET_ONLY, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> StockCatalogReader.Sort.parse("price"));
+    }
+
+    @Test
+    void streamWritesOneJsonObjectPerLine() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        catalogReader.stream(StockCatalogReader.Sort.SYMBOL, KEYSET_ONLY, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(250, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"symbol\":\"KS000\""));
+        assertTrue(lines[249].contains("\"symbol\":\"KS249\""));
+    }
+
+    private static List<String> symbols(List<StockResponseDto> items) {
+        return items.stream().map(StockResponseDto::getSymbol).toList();
+    }
+}
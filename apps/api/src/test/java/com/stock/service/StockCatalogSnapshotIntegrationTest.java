@@ -0,0 +1,86 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.stock.controller.StockController;
+import com.stock.dto.StockRequestDto;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class StockCatalogSnapshotIntegrationTest {
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockCatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private StockController stockController;
+
+    @Test
+    void snapshotIsReusedUntilTheCatalogChanges() {
+        StockCatalogSnapshot.Snapshot first = catalogSnapshot.current();
+        assertSame(first, catalogSnapshot.current());
+
+        StockRequestDto request = new StockRequestDto();
+        request.setSymbol("etag");
+        request.setName("ETag Corp");
+        request.setPrice(new BigDecimal("12.34"));
+        Long id = stockService.create(request).getId();
+
+        StockCatalogSnapshot.Snapshot second = catalogSnapshot.current();
+        assertNotEquals(first.etag(), second.etag());
+        assertTrue(new String(second.body(), StandardCharsets.UTF_8).contains("\"ETAG\""));
+
+        stockService.delete(id);
+        assertNotEquals(second.etag(), catalogSnapshot.current().etag());
+    }
+
+    @Test
+    void rebuildingAnUnchangedCatalogKeepsItsEtag() throws InterruptedException {
+        StockCatalogSnapshot.Snapshot first = catalogSnapshot.current();
+
+        // The response envelope is stamped with the rebuild time; let it move on
+        Thread.sleep(5);
+        catalogSnapshot.onCatalogChanged(new StockCatalogChangedEvent("test"));
+        StockCatalogSnapshot.Snapshot rebuilt = catalogSnapshot.current();
+
+        assertNotSame(first, rebuilt);
+        assertEquals(first.etag(), rebuilt.etag());
+    }
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModified() {
+        ResponseEntity<byte[]> full = stockController.getAll(null);
+        String etag = full.getHeaders().getETag();
+        assertEquals(HttpStatus.OK, full.getStatusCode());
+        assertArrayEquals(catalogSnapshot.current().body(), full.getBody());
+
+        ResponseEntity<byte[]> notModified = stockController.getAll("\"other\", " + etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals(etag, notModified.getHeaders().getETag());
+        assertNull(notModified.getBody());
+
+        assertEquals(HttpStatus.OK, stockController.getAll("\"stale\"").getStatusCode());
+    }
+}
@@ -0,0 +1,80 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.portfolio.repository.PortfolioRepository;
+import com.stock.entity.Stock;
+import com.stock.repository.StockRepository;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+import com.trades.repository.TradeRepository;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class StockPriceWriterIntegrationTest {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Autowired
+    private StockPriceWriter priceWriter;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        portfolioRepository.deleteAll();
+        tradeRepository.deleteAll();
+        stockRepository.deleteAll();
+    }
+
+    @Test
+    void write_shouldUpdateChangedPricesInOneBatchAndSkipUnchangedOnes() {
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            rows.add(new Object[] { "SYM" + i, "Stock " + i, new BigDecimal("100.00") });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO stocks (symbol, name, price) VALUES (?, ?, ?)", rows);
+        List<Stock> stocks = stockRepository.findAll();
+
+        // Every other stock moves; the rest come back at the same price once rounded to the column scale
+        List<StockPriceWriter.PriceChange> changes = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < stocks.size(); i++) {
+            changes.add(new StockPriceWriter.PriceChange(stocks.get(i), i % 2 == 0 ? 101.25 : 100.001));
+        }
+
+        StockPriceWriter.Result result = priceWriter.write(changes);
+
+        assertEquals(CATALOG_SIZE / 2, result.written());
+        assertEquals(CATALOG_SIZE / 2, result.skipped());
+        assertEquals(CATALOG_SIZE / 2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stocks WHERE price = 101.25", Integer.class));
+        assertEquals(new BigDecimal("101.25"), stocks.get(0).getPrice());
+
+        // Writing the same prices again changes nothing
+        StockPriceWriter.Result repeat = priceWriter.write(changes);
+        assertEquals(0, repeat.written());
+        assertEquals(CATALOG_SIZE, repeat.skipped());
+    }
+}
@@ -0,0 +1,58 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.stock.entity.Stock;
+import com.stock.repository.StockRepository;
+
+// Average autocomplete latency over a fifty-thousand-listing catalog, after a warmup; the target is under a millisecond.
+// Excluded from the default build; run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class StockSearchIndexBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockSearchIndexBenchmarkTest.class);
+    private static final int LISTINGS = 50_000;
+    private static final int QUERIES = 2_000;
+
+    @Test
+    void measureSearchLatencyOnFiftyThousandListings() {
+        StockRepository stockRepository = mock(StockRepository.class);
+        List<Stock> stocks = new ArrayList<>();
+        for (long i = 0; i < LISTINGS; i++) {
+            Stock stock = new Stock();
+            stock.setId(i);
+            stock.setSymbol("S" + Long.toString(i, 36).toUpperCase());
+            stock.setName("Company " + i + " Holdings");
+            stock.setPrice(BigDecimal.ONE);
+            stocks.add(stock);
+        }
+        when(stockRepository.findAll()).thenReturn(stocks);
+        StockSearchIndex index = new StockSearchIndex(stockRepository, 10, 50);
+        index.reload();
+
+        for (int i = 0; i < QUERIES; i++) {
+            index.search("S1", null);
+            index.search("company 4", null);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            assertFalse(index.search(i % 2 == 0 ? "s" + (i % 36) : "holdings", null).isEmpty());
+        }
+        long averageNanos = (System.nanoTime() - start) / QUERIES;
+
+        log.info("Average search over {} listings: {} us", LISTINGS, averageNanos / 1_000);
+        assertTrue(averageNanos < 1_000_000, "average search took " + averageNanos + " ns");
+    }
+}
@@ -0,0 +1,105 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.stock.dto.StockSearchResultDto;
+import com.stock.entity.Stock;
+import com.stock.repository.StockRepository;
+
+@ExtendWith(MockitoExtension.class)
+class StockSearchIndexTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    private StockSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StockSearchIndex(stockRepository, 10, 50);
+    }
+
+    @Test
+    void search_shouldRankExactSymbolThenSymbolPrefixThenNamePrefixThenLaterWords() {
+        when(stockRepository.findAll()).thenReturn(List.of(
+                stock(1L, "APPX", "Appian Exchange"),
+                stock(2L, "APP", "AppLovin Corp"),
+                stock(3L, "AAPL", "Apple Inc."),
+                stock(4L, "MSFT", "Microsoft Corp"),
+                stock(5L, "SNAP", "Snap Apps Holdings")));
+        index.reload();
+
+        assertEquals(List.of("APP", "APPX", "AAPL", "SNAP"), symbols(index.search(" app ", null)));
+        assertEquals(List.of("AAPL"), symbols(index.search("apple inc", null)));
+        assertEquals(List.of("APP", "MSFT"), symbols(index.search("corp", null)));
+        assertEquals(List.of("APP"), symbols(index.search("app", 1)));
+        assertEquals(List.of(), index.search("  ", null));
+    }
+
+    @Test
+    void putAndRemove_shouldUpdateTheIndexIncrementally() {
+        Stock stock = stock(7L, "OLD", "Old Name Ltd");
+        index.put(stock);
+        stock.setSymbol("NEW");
+        stock.setName("Fresh Name Ltd");
+        index.put(stock);
+
+        assertEquals(List.of(), index.search("old", null));
+        assertEquals(List.of("NEW"), symbols(index.search("fresh", null)));
+        assertEquals(List.of("NEW"), symbols(index.search("name", null)));
+
+        index.remove(7L);
+        assertEquals(0, index.size());
+        assertEquals(List.of(), index.search("new", null));
+    }
+
+    @Test
+    void search_shouldRejectLimitsOutsideTheConfiguredRange() {
+        assertThrows(IllegalArgumentException.class, () -> index.search("a", 0));
+        assertThrows(IllegalArgumentException.class, () -> index.search("a", 51));
+    }
+
+    @Test
+    void search_shouldRankPrefixMatchesAcrossFiftyThousandListings() {
+        List<Stock> stocks = new ArrayList<>();
+        for (long i = 0; i < 50_000; i++) {
+            stocks.add(stock(i, "S" + Long.toString(i, 36).toUpperCase(), "Company " + i + " Holdings"));
+        }
+        when(stockRepository.findAll()).thenReturn(stocks);
+        index.reload();
+
+        List<StockSearchResultDto> results = index.search("s1", null);
+        assertEquals(10, results.size());
+        assertEquals("S1", results.get(0).getSymbol());
+        assertTrue(results.stream().allMatch(result -> result.getSymbol().startsWith("S1")));
+        assertEquals(50, index.search("holdings", 50).size());
+        assertFalse(index.search("company 4", null).isEmpty());
+    }
+
+    private static List<String> symbols(List<StockSearchResultDto> results) {
+        return results.stream().map(StockSearchResultDto::getSymbol).toList();
+    }
+
+    private static Stock stock(Long id, String symbol, String name) {
+        Stock stock = new Stock();
+        stock.setId(id);
+        stock.setSymbol(symbol);
+        stock.setName(name);
+        stock.setPrice(BigDecimal.ONE);
+        return stock;
+    }
+}
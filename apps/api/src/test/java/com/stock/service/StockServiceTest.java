@@ -0,0 +1,120 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.external.marketdata.MarketDataClient;
+import com.external.marketdata.MarketQuote;
+import com.stock.dto.PriceUpdateResultDto;
+import com.stock.dto.StockRefreshCandidate;
+import com.stock.entity.Stock;
+import com.stock.repository.StockCandleRepository;
+import com.stock.repository.StockPriceHistoryRepository;
+import com.stock.repository.StockRepository;
+
+@ExtendWith(MockitoExtension.class)
+class StockServiceTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private MarketDataClient marketDataClient;
+
+    @Mock
+    private StockPriceHistoryRepository priceHistoryRepository;
+
+    @Mock
+    private StockCandleRepository candleRepository;
+
+    @Mock
+    private PriceHistoryWriter priceHistoryWriter;
+
+    @Mock
+    private PriceRefreshPlanner refreshPlanner;
+
+    @Mock
+    private StockViewTracker viewTracker;
+
+    @Mock
+    private StockPriceWriter priceWriter;
+
+    @Mock
+    private SymbolDirectory symbolDirectory;
+
+    @Mock
+    private PriceChangeEventBus priceChangeEventBus;
+
+    @Mock
+    private StockSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DailyQuoteBudget quoteBudget;
+
+    @InjectMocks
+    private StockService stockService;
+
+    @Test
+    void updateAllStockPrices_shouldChargeOnlyRequestsSentUpstream() {
+        // Two planned stocks, one of them answered from the quote cache
+        when(refreshPlanner.nextBatch()).thenReturn(new PriceRefreshPlanner.Batch(
+                List.of(candidate(1L, "AAPL"), candidate(2L, "MSFT")), 5));
+        when(stockRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(stock(1L, "AAPL"), stock(2L, "MSFT")));
+        when(marketDataClient.getUpstreamRequests()).thenReturn(40L, 41L);
+        when(marketDataClient.getQuotes("AAPL,MSFT")).thenReturn(Map.of(
+                "AAPL", MarketQuote.ofPrice("AAPL", 190.5, Instant.now()),
+                "MSFT", MarketQuote.ofPrice("MSFT", 410.0, Instant.now())));
+        when(priceWriter.write(anyList())).thenReturn(new StockPriceWriter.Result(0, 2, List.of()));
+
+        PriceUpdateResultDto result = stockService.updateAllStockPrices();
+
+        assertEquals(1, result.getUpstreamRequests());
+        assertEquals(5, result.getRemainingStocks());
+        verify(quoteBudget).recordUsage(eq(1), any(Instant.class));
+    }
+
+    @Test
+    void updateAllStockPrices_shouldChargeNothing_whenNoStockIsDue() {
+        when(refreshPlanner.nextBatch()).thenReturn(new PriceRefreshPlanner.Batch(List.of(), 0));
+
+        PriceUpdateResultDto result = stockService.updateAllStockPrices();
+
+        assertEquals(0, result.getTotalStocks());
+        verify(quoteBudget, never()).recordUsage(anyInt(), any(Instant.class));
+    }
+
+    private static StockRefreshCandidate candidate(Long id, String symbol) {
+        return new StockRefreshCandidate(id, symbol, LocalDateTime.now().minusHours(1), 0);
+    }
+
+    private static Stock stock(Long id, String symbol) {
+        Stock stock = new Stock();
+        stock.setId(id);
+        stock.setSymbol(symbol);
+        stock.setName(symbol + " Corp");
+        stock.setPrice(BigDecimal.ONE);
+        return stock;
+    }
+}
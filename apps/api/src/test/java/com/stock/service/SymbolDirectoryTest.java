@@ -0,0 +1,86 @@
+package com.stock.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.stock.entity.Stock;
+import com.stock.repository.StockRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SymbolDirectoryTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    private SymbolDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        directory = new SymbolDirectory(stockRepository);
+    }
+
+    @Test
+    void resolve_shouldServeLoadedSymbolsCaseInsensitivelyWithoutQueries() {
+        when(stockRepository.findAll()).thenReturn(List.of(stock(1L, "AAPL", "190.00"), stock(2L, "msft", "410.00")));
+        directory.reload();
+
+        assertEquals(1L, directory.resolve(" aapl ").orElseThrow().stockId());
+        assertEquals(new BigDecimal("410.00"), directory.resolve("MSFT").orElseThrow().price());
+        verify(stockRepository, never()).findFirstBySymbolIgnoreCase(anyString());
+    }
+
+    @Test
+    void resolve_shouldLookUpUnknownSymbolOnceAndCacheIt() {
+        when(stockRepository.findFirstBySymbolIgnoreCase("NVDA")).thenReturn(Optional.of(stock(3L, "NVDA", "900.00")));
+
+        assertEquals(3L, directory.resolve("nvda").orElseThrow().stockId());
+        assertEquals(3L, directory.resolve("NVDA").orElseThrow().stockId());
+        verify(stockRepository, times(1)).findFirstBySymbolIgnoreCase("NVDA");
+    }
+
+    @Test
+    void put_shouldDropOldSymbolWhenStockIsRenamed() {
+        directory.put(stock(1L, "FB", "300.00"));
+        directory.put(stock(1L, "META", "300.00"));
+        directory.updatePrice(1L, new BigDecimal("305.50"));
+
+        assertEquals(new BigDecimal("305.50"), directory.resolve("META").orElseThrow().price());
+        assertTrue(directory.isTakenByOther("meta", 2L));
+        assertFalse(directory.isTakenByOther("META", 1L));
+        assertEquals(1, directory.size());
+    }
+
+    @Test
+    void remove_shouldForgetDeletedStock() {
+        directory.put(stock(1L, "AAPL", "190.00"));
+
+        directory.remove(1L);
+
+        assertEquals(0, directory.size());
+    }
+
+    private static Stock stock(Long id, String symbol, String price) {
+        Stock stock = new Stock();
+        stock.setId(id);
+        stock.setSymbol(symbol);
+        stock.setName(symbol);
+        stock.setPrice(new BigDecimal(price));
+        return stock;
+    }
+}
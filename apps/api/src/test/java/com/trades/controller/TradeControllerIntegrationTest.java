@@ -0,0 +1,129 @@
+package com.trades.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.exception.GlobalExceptionHandler;
+import com.portfolio.repository.PortfolioRepository;
+import com.stock.dto.StockRequestDto;
+import com.stock.dto.StockResponseDto;
+import com.stock.service.StockService;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+import com.trades.repository.TradeRepository;
+import com.user.entity.User;
+import com.user.repository.UserRepository;
+
+// Goes through the real service and JSON serialization: with open-in-view off, the response must not need a session
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class TradeControllerIntegrationTest {
+
+    @Autowired
+    private TradeController tradeController;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private MockMvc mockMvc;
+    private User user;
+    private StockResponseDto stock;
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(tradeController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        user = new User();
+        user.setUsername("controller-trader");
+        user.setPasswordHash("hashed-password");
+        user.setRole("ROLE_USER");
+        user = userRepository.save(user);
+        authentication = new UsernamePasswordAuthenticationToken(user.getUsername(), null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        StockRequestDto request = new StockRequestDto();
+        request.setSymbol("CTRL");
+        request.setName("Controller Corp");
+        request.setPrice(new BigDecimal("10.00"));
+        stock = stockService.create(request);
+    }
+
+    @AfterEach
+    void tearDown() {
+        portfolioRepository.deleteAll(portfolioRepository.findByUserId(user.getId()));
+        tradeRepository.deleteAll(tradeRepository.findByUserId(user.getId()));
+        userRepository.delete(user);
+        stockService.delete(stock.getId());
+    }
+
+    @Test
+    void buy_shouldSerializeTheExecutedTrade() throws Exception {
+        mockMvc.perform(post("/api/trades/buy")
+                        .principal(authentication)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"symbol\":\"ctrl\",\"quantity\":3,\"price\":12.50}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.type").value("BUY"))
+                .andExpect(jsonPath("$.data.quantity").value(3))
+                .andExpect(jsonPath("$.data.stockSymbol").value("CTRL"))
+                .andExpect(jsonPath("$.data.stockName").value("Controller Corp"))
+                .andExpect(jsonPath("$.data.user").doesNotExist())
+                .andExpect(jsonPath("$.data.idempotencyKey").doesNotExist());
+    }
+
+    @Test
+    void sell_shouldReplayTheSameResponseForARepeatedIdempotencyKey() throws Exception {
+        mockMvc.perform(post("/api/trades/buy")
+                        .principal(authentication)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"symbol\":\"CTRL\",\"quantity\":3,\"price\":12.50}"))
+                .andExpect(status().isOk());
+        String sell = "{\"symbol\":\"CTRL\",\"quantity\":2,\"price\":13.00}";
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/trades/sell")
+                            .principal(authentication)
+                            .header(TradeController.IDEMPOTENCY_KEY_HEADER, "sell-retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(sell))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.type").value("SELL"))
+                    .andExpect(jsonPath("$.data.quantity").value(2))
+                    .andExpect(jsonPath("$.data.stockSymbol").value("CTRL"));
+        }
+
+        assertEquals(2, tradeRepository.findByUserId(user.getId()).size());
+        assertEquals(1, portfolioRepository.findByUserIdAndStockId(user.getId(), stock.getId()).orElseThrow()
+                .getQuantity());
+    }
+}
@@ -1,24 +1,36 @@
 package com.trades.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 
+import com.trades.dto.TradeHistoryPageDto;
 import com.trades.dto.TradeRequestDto;
 import com.trades.dto.TradeResponseDto;
-import com.trades.entity.Trade;
+import com.trades.service.TradeHistoryReader;
+import com.trades.service.TradeImportService;
 import com.trades.service.TradeService;
 import com.security.CurrentUserService;
 
@@ -28,6 +40,12 @@ class TradeControllerTest {
     @Mock
     private TradeService tradeService;
 
+    @Mock
+    private TradeImportService tradeImportService;
+
+    @Mock
+    private TradeHistoryReader tradeHistoryReader;
+
     @Mock
     private CurrentUserService currentUserService;
 
@@ -38,18 +56,19 @@ class TradeControllerTest {
 
     @BeforeEach
     void setUp() {
-        tradeController = new TradeController(tradeService, currentUserService);
+        tradeController = new TradeController(tradeService, tradeImportService, tradeHistoryReader, currentUserService);
     }
 
     @Test
     void getTradeHistory_shouldUseResolvedUserId() {
         when(currentUserService.resolveUserId(authentication, 999L)).thenReturn(1L);
-        when(tradeService.getTradeHistory(1L)).thenReturn(List.of(new TradeResponseDto()));
+        when(tradeHistoryReader.page(eq(1L), any(TradeHistoryReader.Filter.class), eq(null), eq(null)))
+                .thenReturn(new TradeHistoryPageDto());
 
-        var response = tradeController.getTradeHistory(999L, authentication);
+        var response = tradeController.getTradeHistory(999L, null, null, null, null, null, null, authentication);
 
         assertEquals(200, response.getStatusCode().value());
-        verify(tradeService).getTradeHistory(1L);
+        verify(tradeHistoryReader).page(eq(1L), any(TradeHistoryReader.Filter.class), eq(null), eq(null));
     }
 
     @Test
@@ -59,14 +78,38 @@ class TradeControllerTest {
         request.setQuantity(2);
         request.setPrice(BigDecimal.valueOf(123.45));
 
-        Trade trade = new Trade();
+        TradeResponseDto trade = new TradeResponseDto();
         when(currentUserService.resolveUserId(authentication, 999L)).thenReturn(999L);
-        when(tradeService.executeTrade(eq(999L), any(TradeRequestDto.class))).thenReturn(trade);
+        when(tradeService.executeTrade(eq(999L), any(TradeRequestDto.class), eq("retry-1"))).thenReturn(trade);
 
-        var response = tradeController.buy(999L, request, authentication);
+        var response = tradeController.buy(999L, request, "retry-1", authentication);
 
         assertEquals(200, response.getStatusCode().value());
         assertEquals("BUY", request.getType());
-        verify(tradeService).executeTrade(eq(999L), any(TradeRequestDto.class));
+        verify(tradeService).executeTrade(eq(999L), any(TradeRequestDto.class), eq("retry-1"));
+    }
+
+    @Test
+    void export_shouldGzipOnlyWhenTheClientAcceptsIt() throws Exception {
+        when(currentUserService.resolveUserId(authentication, null)).thenReturn(1L);
+        doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write("id\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(tradeHistoryReader).export(anyLong(), any(TradeHistoryReader.Filter.class),
+                eq(TradeHistoryReader.Format.CSV), any(OutputStream.class));
+
+        var compressed = tradeController.export(null, null, null, null, null, null, "br, gzip;q=0.8", authentication);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        compressed.getBody().writeTo(body);
+
+        assertEquals("gzip", compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            assertEquals("id\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        var plain = tradeController.export(null, null, null, null, null, null, "gzip;q=0", authentication);
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(TradeController.acceptsGzip("deflate, GZIP"));
+        assertFalse(TradeController.acceptsGzip("identity"));
     }
 }
@@ -0,0 +1,43 @@
+package com.trades.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+class ConstraintViolationsTest {
+
+    @Test
+    void violates_shouldMatchHibernateConstraintName() {
+        DataIntegrityViolationException e = new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key"), "UQ_USER_STOCK"));
+
+        assertTrue(ConstraintViolations.violates(e, ConstraintViolations.UNIQUE_POSITION));
+        assertFalse(ConstraintViolations.violates(e, ConstraintViolations.UNIQUE_IDEMPOTENCY_KEY));
+    }
+
+    @Test
+    void violates_shouldMatchConstraintNamedInJdbcBatchFailure() {
+        BatchUpdateException batch = new BatchUpdateException("Batch entry 0 was aborted", new int[0]);
+        batch.setNextException(new SQLException(
+                "ERROR: duplicate key value violates unique constraint \"uq_user_stock\""));
+        DuplicateKeyException e = new DuplicateKeyException("PreparedStatementCallback", batch);
+
+        assertTrue(ConstraintViolations.violates(e, ConstraintViolations.UNIQUE_POSITION));
+    }
+
+    @Test
+    void violates_shouldNotMatchUnrelatedIntegrityViolations() {
+        DataIntegrityViolationException e = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("NULL not allowed for column \"PRICE\""));
+
+        assertFalse(ConstraintViolations.violates(e, ConstraintViolations.UNIQUE_POSITION));
+        assertFalse(ConstraintViolations.violates(e, ConstraintViolations.UNIQUE_IDEMPOTENCY_KEY));
+    }
+}
@@ -0,0 +1,42 @@
+package com.trades.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.trades.dto.TradeResponseDto;
+
+class IdempotencyStoreTest {
+
+    @Test
+    void keysAreScopedPerUserAndTheLeastRecentlyUsedIsEvicted() {
+        IdempotencyStore store = new IdempotencyStore(2, 60);
+        TradeResponseDto first = new TradeResponseDto();
+        TradeResponseDto second = new TradeResponseDto();
+        TradeResponseDto third = new TradeResponseDto();
+
+        store.put(1L, "a", first);
+        store.put(1L, "b", second);
+        assertNull(store.get(2L, "a"));
+        // Reading "a" makes "b" the eldest entry
+        assertSame(first, store.get(1L, "a"));
+        store.put(1L, "c", third);
+
+        assertEquals(2, store.size());
+        assertSame(first, store.get(1L, "a"));
+        assertNull(store.get(1L, "b"));
+        assertSame(third, store.get(1L, "c"));
+    }
+
+    @Test
+    void validateTrimsKeysAndRejectsBlankOrOversizedOnes() {
+        assertNull(IdempotencyStore.validate(null));
+        assertEquals("retry-1", IdempotencyStore.validate("  retry-1 "));
+        assertThrows(IllegalArgumentException.class, () -> IdempotencyStore.validate(" "));
+        assertThrows(IllegalArgumentException.class,
+                () -> IdempotencyStore.validate("k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1)));
+    }
+}
@@ -0,0 +1,164 @@
+package com.trades.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.portfolio.repository.PortfolioRepository;
+import com.stock.dto.StockRequestDto;
+import com.stock.dto.StockResponseDto;
+import com.stock.service.StockService;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+import com.trades.dto.TradeRequestDto;
+import com.trades.repository.TradeRepository;
+import com.user.entity.User;
+import com.user.repository.UserRepository;
+
+// Trade throughput with every thread buying the same position (fully serialized by its stripe and row lock) versus
+// each thread trading its own position (independent stripes and rows, limited by the connection pool).
+// Excluded from the default build; run with: mvn test -Pbenchmark
+@Tag("benchmark")
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class TradeExecutionBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeExecutionBenchmarkTest.class);
+    private static final int THREADS = 8;
+    private static final int TRADES = 4000;
+    private static final int WARMUP_TRADES = 1000;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<StockResponseDto> stocks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < THREADS; i++) {
+            users.add(userRepository.save(createUser("bench-trader-" + i)));
+            StockRequestDto request = new StockRequestDto();
+            request.setSymbol("BEN" + (char) ('A' + i));
+            request.setName("Bench " + i);
+            request.setPrice(new BigDecimal("10.00"));
+            stocks.add(stockService.create(request));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (User user : users) {
+            portfolioRepository.deleteAll(portfolioRepository.findByUserId(user.getId()));
+            tradeRepository.deleteAll(tradeRepository.findByUserId(user.getId()));
+            userRepository.delete(user);
+        }
+        stocks.forEach(stock -> stockService.delete(stock.getId()));
+    }
+
+    @Test
+    void compareOneContendedPositionWithManyIndependentPositions() throws Exception {
+        run("warmup", true, WARMUP_TRADES);
+        Result onePosition = run("one", true, TRADES);
+        Result manyPositions = run("many", false, TRADES);
+
+        log.info("{}", onePosition);
+        log.info("{}", manyPositions);
+        log.info("many/one throughput: {}x",
+                String.format("%.2f", manyPositions.throughput() / onePosition.throughput()));
+
+        assertEquals(TRADES, onePosition.completed());
+        assertEquals(TRADES, manyPositions.completed());
+    }
+
+    // Thread t trades as user t; with a shared position every thread buys stock 0 as user 0
+    private Result run(String mode, boolean shared, int trades) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> workers = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                User user = users.get(shared ? 0 : t);
+                TradeRequestDto buy = buy(stocks.get(shared ? 0 : t).getSymbol());
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    int done = 0;
+                    for (int i = 0; i < trades / THREADS; i++) {
+                        tradeService.executeTrade(user.getId(), buy);
+                        done++;
+                    }
+                    return done;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            int completed = 0;
+            for (Future<Integer> worker : workers) {
+                completed += worker.get(5, TimeUnit.MINUTES);
+            }
+            return new Result(mode, completed, System.nanoTime() - begin);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static TradeRequestDto buy(String symbol) {
+        TradeRequestDto request = new TradeRequestDto();
+        request.setSymbol(symbol);
+        request.setType("BUY");
+        request.setQuantity(1);
+        request.setPrice(new BigDecimal("10.00"));
+        return request;
+    }
+
+    private static User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("hashed-password");
+        user.setRole("ROLE_USER");
+        return user;
+    }
+
+    private record Result(String mode, int completed, long elapsedNanos) {
+
+        double throughput() {
+            return completed / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-5s position(s): %d trades in %d ms (%.0f trades/s)", mode, completed,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), throughput());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.trades.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.portfolio.repository.PortfolioRepository;
+import com.stock.dto.StockRequestDto;
+import com.stock.dto.StockResponseDto;
+import com.stock.service.StockService;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+import com.trades.dto.TradeHistoryPageDto;
+import com.trades.dto.TradeResponseDto;
+import com.trades.repository.TradeRepository;
+import com.user.entity.User;
+import com.user.repository.UserRepository;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class TradeHistoryReaderIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 3, 9, 30);
+
+    @Autowired
+    private TradeHistoryReader tradeHistoryReader;
+
+    @Autowired
+    private TradeImportService tradeImportService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private final List<StockResponseDto> stocks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        user = new User();
+        user.setUsername("history-reader");
+        user.setPasswordHash("hashed-password");
+        user.setRole("ROLE_USER");
+        user = userRepository.save(user);
+        for (String symbol : List.of("HSTA", "HSTB")) {
+            StockRequestDto request = new StockRequestDto();
+            request.setSymbol(symbol);
+            request.setName(symbol + " Corp");
+            request.setPrice(new BigDecimal("10.00"));
+            stocks.add(stockService.create(request));
+        }
+
+        // 90 trades over 45 distinct timestamps, so pages must break ties on id; every third trade sells
+        StringBuilder csv = new StringBuilder("timestamp,symbol,type,quantity,price\n");
+        for (int i = 0; i < 90; i++) {
+            csv.append(START.plusMinutes(i / 2)).append(',').append(i % 2 == 0 ? "HSTA" : "HSTB").append(',')
+                    .append(i % 3 == 2 ? "SELL" : "BUY").append(",1,10.00\n");
+        }
+        tradeImportService.importTrades(user.getId(),
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                TradeImportService.Format.CSV);
+    }
+
+    @AfterEach
+    void tearDown() {
+        portfolioRepository.deleteAll(portfolioRepository.findByUserId(user.getId()));
+        tradeRepository.deleteAll(tradeRepository.findByUserId(user.getId()));
+        userRepository.delete(user);
+        stocks.forEach(stock -> stockService.delete(stock.getId()));
+    }
+
+    @Test
+    void pagesWalkTheWholeHistoryNewestFirstWithoutGapsOrRepeats() {
+        List<TradeResponseDto> all = readAll(null, 7);
+
+        assertEquals(90, all.size());
+        assertEquals(90, all.stream().map(TradeResponseDto::getId).distinct().count());
+        List<Long> expected = all.stream()
+                .sorted(Comparator.comparing(TradeResponseDto::getTimestamp)
+                        .thenComparing(TradeResponseDto::getId).reversed())
+                .map(TradeResponseDto::getId)
+                .toList();
+        assertEquals(expected, all.stream().map(TradeResponseDto::getId).toList());
+        assertEquals(START.plusMinutes(44), all.getFirst().getTimestamp());
+        assertEquals("HSTB Corp", all.getFirst().getStockName());
+    }
+
+    @Test
+    void filtersBySymbolSideAndRange() {
+        TradeHistoryReader.Filter filter = new TradeHistoryReader.Filter(START.plusMinutes(10), START.plusMinutes(20),
+                "hsta", "sell");
+
+        List<TradeResponseDto> trades = readAll(filter, 2);
+
+        // HSTA trades are the even indexes 20..38; of those, the sells are i % 3 == 2: 20, 26, 32, 38
+        assertEquals(4, trades.size());
+        assertTrue(trades.stream().allMatch(t -> t.getStockSymbol().equals("HSTA") && t.getType().equals("SELL")));
+        assertEquals(START.plusMinutes(19), trades.getFirst().getTimestamp());
+        assertEquals(START.plusMinutes(10), trades.getLast().getTimestamp());
+    }
+
+    @Test
+    void unknownSymbolIsAnEmptyPageAndBadInputIsRejected() {
+        TradeHistoryPageDto page = tradeHistoryReader.page(user.getId(),
+                new TradeHistoryReader.Filter(null, null, "NOPE", null), null, null);
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.isHasMore());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeHistoryReader.page(user.getId(), null, "not-a-cursor", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeHistoryReader.page(user.getId(), null, null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TradeHistoryReader.Filter(null, null, null, "HOLD"));
+    }
+
+    @Test
+    void exportWritesEveryMatchingTradeAsCsvOrNdjson() {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        tradeHistoryReader.export(user.getId(), null, TradeHistoryReader.Format.CSV, csv);
+
+        List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(91, lines.size());
+        assertEquals("id,timestamp,symbol,name,type,quantity,price", lines.getFirst());
+        List<Long> pagedIds = readAll(null, 50).stream().map(TradeResponseDto::getId).toList();
+        assertEquals(pagedIds, lines.stream().skip(1).map(line -> Long.valueOf(line.split(",")[0])).toList());
+        assertTrue(lines.get(1).endsWith(",HSTB,HSTB Corp,SELL,1,10.00"), lines.get(1));
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        tradeHistoryReader.export(user.getId(), new TradeHistoryReader.Filter(null, null, "HSTA", "SELL"),
+                TradeHistoryReader.Format.NDJSON, ndjson);
+
+        List<String> rows = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(15, rows.size());
+        assertTrue(rows.stream().allMatch(row -> row.contains("\"stockSymbol\":\"HSTA\"")
+                && row.contains("\"type\":\"SELL\"")), rows.getFirst());
+    }
+
+    private List<TradeResponseDto> readAll(TradeHistoryReader.Filter filter, int limit) {
+        List<TradeResponseDto> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            TradeHistoryPageDto page = tradeHistoryReader.page(user.getId(), filter, cursor, limit);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.isHasMore());
+        } while (cursor != null);
+        return all;
+    }
+}
@@ -0,0 +1,249 @@
+package com.trades.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.portfolio.entity.Portfolio;
+import com.portfolio.repository.PortfolioRepository;
+import com.stock.dto.StockRequestDto;
+import com.stock.dto.StockResponseDto;
+import com.stock.service.StockService;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+import com.trades.dto.TradeImportResultDto;
+import com.trades.dto.TradeRequestDto;
+import com.trades.entity.Trade;
+import com.trades.repository.TradeRepository;
+import com.user.entity.User;
+import com.user.repository.UserRepository;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class TradeImportServiceIntegrationTest {
+
+    private static final List<String> SYMBOLS = List.of("IMPA", "IMPB", "IMPC");
+
+    @Autowired
+    private TradeImportService tradeImportService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeHistoryReader tradeHistoryReader;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<StockResponseDto> stocks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (String symbol : SYMBOLS) {
+            StockRequestDto request = new StockRequestDto();
+            request.setSymbol(symbol);
+            request.setName(symbol + " Corp");
+            request.setPrice(new BigDecimal("10.00"));
+            stocks.add(stockService.create(request));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (User user : users) {
+            portfolioRepository.deleteAll(portfolioRepository.findByUserId(user.getId()));
+            tradeRepository.deleteAll(tradeRepository.findByUserId(user.getId()));
+            userRepository.delete(user);
+        }
+        stocks.forEach(stock -> stockService.delete(stock.getId()));
+    }
+
+    @Test
+    void csvImportLeavesTheSamePositionsAsExecutingEachTrade() throws Exception {
+        User imported = createUser("import-bulk");
+        User replayed = createUser("import-replay");
+        // A held position to start from, so the import also merges into existing rows
+        tradeService.executeTrade(imported.getId(), trade("IMPA", "BUY", 7, "9.10"));
+        tradeService.executeTrade(replayed.getId(), trade("IMPA", "BUY", 7, "9.10"));
+
+        List<TradeRequestDto> trades = randomTrades(500);
+        StringBuilder csv = new StringBuilder("timestamp,symbol,type,quantity,price,broker_ref\n");
+        LocalDateTime time = LocalDateTime.of(2025, 1, 2, 9, 30);
+        for (int i = 0; i < trades.size(); i++) {
+            TradeRequestDto trade = trades.get(i);
+            csv.append(time.plusMinutes(i)).append(',').append(trade.getSymbol()).append(',')
+                    .append(trade.getType().toLowerCase()).append(',').append(trade.getQuantity()).append(',')
+                    .append(trade.getPrice()).append(",ref-").append(i).append('\n');
+            tradeService.executeTrade(replayed.getId(), trade);
+        }
+
+        TradeImportResultDto result = tradeImportService.importTrades(imported.getId(), body(csv.toString()),
+                TradeImportService.Format.CSV);
+
+        assertEquals(500, result.getTradesImported());
+        assertPositionsMatch(replayed, imported);
+        List<Trade> history = tradeRepository.findByUserId(imported.getId());
+        assertEquals(501, history.size());
+        assertTrue(history.stream().anyMatch(t -> t.getTimestamp().equals(time)));
+    }
+
+    @Test
+    void csvExportReimportsIntoTheSamePositions() throws Exception {
+        StockRequestDto quotedName = new StockRequestDto();
+        quotedName.setSymbol("IMPQ");
+        quotedName.setName("Quote, \"Comma\"\nHoldings, Inc.");
+        quotedName.setPrice(new BigDecimal("10.00"));
+        stocks.add(stockService.create(quotedName));
+        User original = createUser("import-export-source");
+        User reimported = createUser("import-export-target");
+        tradeService.executeTrade(original.getId(), trade("IMPQ", "BUY", 10, "12.00"));
+        tradeService.executeTrade(original.getId(), trade("IMPQ", "SELL", 4, "13.50"));
+        for (TradeRequestDto trade : randomTrades(60)) {
+            if (trade.getSymbol().equals("IMPA")) {
+                // randomTrades assumes 7 IMPA shares are already held
+                continue;
+            }
+            tradeService.executeTrade(original.getId(), trade);
+        }
+
+        // The export lists trades newest first and quotes the company names
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        tradeHistoryReader.export(original.getId(), null, TradeHistoryReader.Format.CSV, csv);
+        assertTrue(csv.toString(StandardCharsets.UTF_8).contains("\"Quote, \"\"Comma\"\"\nHoldings, Inc.\""));
+        TradeImportResultDto result = tradeImportService.importTrades(reimported.getId(),
+                new ByteArrayInputStream(csv.toByteArray()), TradeImportService.Format.CSV);
+
+        assertEquals(tradeRepository.findByUserId(original.getId()).size(), result.getTradesImported());
+        assertPositionsMatch(original, reimported);
+    }
+
+    @Test
+    void invalidRowsRejectTheWholeFileWithLineNumbers() {
+        User user = createUser("import-invalid");
+        String ndjson = """
+                {"symbol":"IMPA","type":"BUY","quantity":5,"price":10.5}
+                {"symbol":"NOPE","type":"BUY","quantity":5,"price":10.5}
+                {"symbol":"IMPB","type":"HOLD","quantity":5,"price":10.5}
+                not json
+                """;
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> tradeImportService.importTrades(user.getId(), body(ndjson), TradeImportService.Format.NDJSON));
+
+        assertTrue(error.getMessage().contains("3 invalid rows"), error.getMessage());
+        assertTrue(error.getMessage().contains("line 2: unknown symbol NOPE"), error.getMessage());
+        assertTrue(error.getMessage().contains("line 3: type must be BUY or SELL"), error.getMessage());
+        assertTrue(error.getMessage().contains("line 4: unreadable JSON"), error.getMessage());
+        assertEquals(0, tradeRepository.findByUserId(user.getId()).size());
+    }
+
+    @Test
+    void overSellingRollsBackTheWholeImport() {
+        User user = createUser("import-oversell");
+        String ndjson = """
+                {"symbol":"IMPA","type":"BUY","quantity":5,"price":10.5}
+                {"symbol":"IMPA","type":"SELL","quantity":5,"price":11}
+                {"symbol":"IMPA","type":"SELL","quantity":1,"price":11}
+                """;
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> tradeImportService.importTrades(user.getId(), body(ndjson), TradeImportService.Format.NDJSON));
+
+        assertEquals("Line 3: insufficient shares to sell IMPA", error.getMessage());
+        assertEquals(0, tradeRepository.findByUserId(user.getId()).size());
+        assertEquals(0, portfolioRepository.findByUserId(user.getId()).size());
+    }
+
+    // Buys and sells across the symbols at two-decimal prices; sells never exceed the shares bought so far
+    private static List<TradeRequestDto> randomTrades(int count) {
+        Random random = new Random(42);
+        int[] held = new int[SYMBOLS.size()];
+        held[0] = 7;
+        List<TradeRequestDto> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int s = random.nextInt(SYMBOLS.size());
+            String price = BigDecimal.valueOf(500 + random.nextInt(2000), 2).toPlainString();
+            if (held[s] > 0 && random.nextInt(3) == 0) {
+                // Sometimes sell everything, closing the position so a later buy reopens it
+                int quantity = random.nextBoolean() ? held[s] : 1 + random.nextInt(held[s]);
+                held[s] -= quantity;
+                trades.add(trade(SYMBOLS.get(s), "SELL", quantity, price));
+            } else {
+                int quantity = 1 + random.nextInt(50);
+                held[s] += quantity;
+                trades.add(trade(SYMBOLS.get(s), "BUY", quantity, price));
+            }
+        }
+        return trades;
+    }
+
+    private void assertPositionsMatch(User expectedUser, User actualUser) {
+        List<Portfolio> expected = positions(expectedUser);
+        List<Portfolio> actual = positions(actualUser);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getQuantity(), actual.get(i).getQuantity());
+            assertEquals(0, expected.get(i).getAvgCost().compareTo(actual.get(i).getAvgCost()));
+            assertEquals(0, expected.get(i).getRealizedPnl().compareTo(actual.get(i).getRealizedPnl()));
+        }
+    }
+
+    private List<Portfolio> positions(User user) {
+        return portfolioRepository.findByUserId(user.getId()).stream()
+                .sorted(Comparator.comparing(p -> p.getStock().getId()))
+                .toList();
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("hashed-password");
+        user.setRole("ROLE_USER");
+        User saved = userRepository.save(user);
+        users.add(saved);
+        return saved;
+    }
+
+    private static TradeRequestDto trade(String symbol, String type, int quantity, String price) {
+        TradeRequestDto request = new TradeRequestDto();
+        request.setSymbol(symbol);
+        request.setType(type);
+        request.setQuantity(quantity);
+        request.setPrice(new BigDecimal(price));
+        return request;
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,164 @@
+package com.trades.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.portfolio.entity.Portfolio;
+import com.portfolio.repository.PortfolioRepository;
+import com.stock.dto.StockRequestDto;
+import com.stock.dto.StockResponseDto;
+import com.stock.service.StockService;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+import com.trades.dto.TradeRequestDto;
+import com.trades.repository.TradeRepository;
+import com.user.entity.User;
+import com.user.repository.UserRepository;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class TradeServiceConcurrencyIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int TRADES_PER_THREAD = 25;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private StockResponseDto stock;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(createUser("concurrent-trader"));
+        StockRequestDto request = new StockRequestDto();
+        request.setSymbol("LOCK");
+        request.setName("Lock Corp");
+        request.setPrice(new BigDecimal("10.00"));
+        stock = stockService.create(request);
+    }
+
+    @AfterEach
+    void tearDown() {
+        portfolioRepository.deleteAll(portfolioRepository.findByUserId(user.getId()));
+        tradeRepository.deleteAll(tradeRepository.findByUserId(user.getId()));
+        userRepository.delete(user);
+        stockService.delete(stock.getId());
+    }
+
+    @Test
+    void concurrentBuysOnOnePositionKeepEveryShare() throws Exception {
+        // Every buy races to open and then grow the same position; a lost update would drop shares
+        runConcurrently(THREADS * TRADES_PER_THREAD, i -> trade("BUY", i % 3 + 1, "10.00"));
+
+        int expected = 0;
+        for (int i = 0; i < THREADS * TRADES_PER_THREAD; i++) {
+            expected += i % 3 + 1;
+        }
+        Portfolio position = position();
+        assertEquals(expected, position.getQuantity());
+        assertEquals(0, new BigDecimal("10.00").compareTo(position.getAvgCost()));
+        assertEquals(THREADS * TRADES_PER_THREAD, tradeRepository.findByUserId(user.getId()).size());
+    }
+
+    @Test
+    void concurrentSellsNeverSellMoreSharesThanAreHeld() throws Exception {
+        int held = 50;
+        tradeService.executeTrade(user.getId(), trade("BUY", held, "10.00"));
+
+        AtomicInteger rejected = new AtomicInteger();
+        int attempts = THREADS * TRADES_PER_THREAD;
+        runConcurrently(attempts, i -> {
+            try {
+                tradeService.executeTrade(user.getId(), trade("SELL", 1, "12.00"));
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertEquals(attempts - held, rejected.get());
+        assertEquals(0, portfolioRepository.findByUserId(user.getId()).size());
+        assertEquals(held + 1, tradeRepository.findByUserId(user.getId()).size());
+    }
+
+    private interface TradeTask {
+        TradeRequestDto run(int index);
+    }
+
+    // Starts every trade at once from THREADS threads; a task that returns a request has it executed
+    private void runConcurrently(int count, TradeTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    TradeRequestDto request = task.run(index);
+                    if (request != null) {
+                        tradeService.executeTrade(user.getId(), request);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Portfolio position() {
+        return portfolioRepository.findByUserIdAndStockId(user.getId(), stock.getId()).orElseThrow();
+    }
+
+    private static TradeRequestDto trade(String type, int quantity, String price) {
+        TradeRequestDto request = new TradeRequestDto();
+        request.setSymbol("LOCK");
+        request.setType(type);
+        request.setQuantity(quantity);
+        request.setPrice(new BigDecimal(price));
+        return request;
+    }
+
+    private static User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("hashed-password");
+        user.setRole("ROLE_USER");
+        return user;
+    }
+}
@@ -0,0 +1,151 @@
+package com.trades.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.portfolio.repository.PortfolioRepository;
+import com.stock.dto.StockRequestDto;
+import com.stock.dto.StockResponseDto;
+import com.stock.repository.StockRepository;
+import com.stock.service.StockService;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+import com.trades.dto.TradeRequestDto;
+import com.trades.dto.TradeResponseDto;
+import com.trades.entity.Trade;
+import com.trades.repository.TradeRepository;
+import com.user.entity.User;
+import com.user.repository.UserRepository;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = StockManagerApplication.class,
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class TradeServiceIdempotencyIntegrationTest {
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private StockResponseDto stock;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("idempotent-trader");
+        user.setPasswordHash("hashed-password");
+        user.setRole("ROLE_USER");
+        user = userRepository.save(user);
+        StockRequestDto request = new StockRequestDto();
+        request.setSymbol("IDEM");
+        request.setName("Idem Corp");
+        request.setPrice(new BigDecimal("10.00"));
+        stock = stockService.create(request);
+    }
+
+    @AfterEach
+    void tearDown() {
+        portfolioRepository.deleteAll(portfolioRepository.findByUserId(user.getId()));
+        tradeRepository.deleteAll(tradeRepository.findByUserId(user.getId()));
+        userRepository.delete(user);
+        stockService.delete(stock.getId());
+    }
+
+    @Test
+    void concurrentRetriesWithOneKeyRecordOneTrade() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TradeResponseDto>> retries = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                retries.add(executor.submit(() -> {
+                    start.await();
+                    return tradeService.executeTrade(user.getId(), buy(5), "mobile-retry-1");
+                }));
+            }
+            start.countDown();
+            Long tradeId = retries.getFirst().get(1, TimeUnit.MINUTES).getId();
+            for (Future<TradeResponseDto> retry : retries) {
+                assertEquals(tradeId, retry.get(1, TimeUnit.MINUTES).getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, tradeRepository.findByUserId(user.getId()).size());
+        assertEquals(5, portfolioRepository.findByUserIdAndStockId(user.getId(), stock.getId()).orElseThrow()
+                .getQuantity());
+    }
+
+    @Test
+    void keyRecordedElsewhereIsFoundThroughTheUniqueConstraint() {
+        // As if another instance recorded the trade, so this instance's memory has never seen the key
+        Trade recorded = new Trade();
+        recorded.setUser(user);
+        recorded.setStock(stockRepository.getReferenceById(stock.getId()));
+        recorded.setType("BUY");
+        recorded.setQuantity(5);
+        recorded.setPrice(new BigDecimal("10.00"));
+        recorded.setIdempotencyKey("other-instance-1");
+        recorded = tradeRepository.save(recorded);
+
+        TradeResponseDto replayed = tradeService.executeTrade(user.getId(), buy(5), "other-instance-1");
+
+        assertEquals(recorded.getId(), replayed.getId());
+        // Read through the lazy stock of the stored trade while the lookup's transaction was still open
+        assertEquals("IDEM", replayed.getStockSymbol());
+        assertEquals("Idem Corp", replayed.getStockName());
+        assertEquals(1, tradeRepository.findByUserId(user.getId()).size());
+        assertEquals(0, portfolioRepository.findByUserId(user.getId()).size());
+        // Now remembered, so a mismatched reuse is caught without a query
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeService.executeTrade(user.getId(), buy(6), "other-instance-1"));
+    }
+
+    @Test
+    void tradesWithoutAKeyAreNeverDeduplicated() {
+        tradeService.executeTrade(user.getId(), buy(1));
+        tradeService.executeTrade(user.getId(), buy(1));
+
+        assertEquals(2, tradeRepository.findByUserId(user.getId()).size());
+    }
+
+    private static TradeRequestDto buy(int quantity) {
+        TradeRequestDto request = new TradeRequestDto();
+        request.setSymbol("IDEM");
+        request.setType("BUY");
+        request.setQuantity(quantity);
+        request.setPrice(new BigDecimal("10.00"));
+        return request;
+    }
+}
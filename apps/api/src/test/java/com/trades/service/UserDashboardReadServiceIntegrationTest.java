@@ -33,7 +33,7 @@ class UserDashboardReadServiceIntegrationTest {
     private PortfolioService portfolioService;
 
     @Autowired
-    private TradeService tradeService;
+    private TradeHistoryReader tradeHistoryReader;
 
     @Autowired
     private PortfolioRepository portfolioRepository;
@@ -90,7 +90,7 @@ class UserDashboardReadServiceIntegrationTest {
         trade.setTimestamp(LocalDateTime.of(2026, 4, 6, 10, 15));
         tradeRepository.save(trade);
 
-        List<com.trades.dto.TradeResponseDto> result = tradeService.getTradeHistory(user.getId());
+        List<com.trades.dto.TradeResponseDto> result = tradeHistoryReader.page(user.getId(), null, null, null).getItems();
 
         assertEquals(1, result.size());
         assertEquals("MSFT", result.getFirst().getStockSymbol());
@@ -0,0 +1,183 @@
+package com.trades.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.portfolio.dto.PortfolioResponseDto;
+import com.portfolio.repository.PortfolioRepository;
+import com.portfolio.service.PortfolioService;
+import com.stock.dto.StockRequestDto;
+import com.stock.dto.StockResponseDto;
+import com.stock.service.StockService;
+import com.stockManagePortfolio.stockManager.StockManagerApplication;
+import com.trades.dto.TradeHistoryPageDto;
+import com.trades.dto.TradeRequestDto;
+import com.trades.repository.TradeRepository;
+import com.user.entity.User;
+import com.user.repository.UserRepository;
+
+// Guards the dashboard read paths against N+1 loads: each must issue one SQL statement however many stocks the user
+// holds or trades. Statements are counted at the JDBC connection, so JPA and JdbcTemplate reads are both covered.
+@ActiveProfiles("test")
+@SpringBootTest(
+        classes = {StockManagerApplication.class, UserDashboardStatementCountIntegrationTest.CountingConfig.class},
+        properties = "JWT_SECRET=test-jwt-secret-key-with-32-characters")
+class UserDashboardStatementCountIntegrationTest {
+
+    private static final int STOCKS = 6;
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "createStatement", "prepareCall");
+    // Only statements issued by the test thread count, so background jobs cannot skew the numbers
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    @TestConfiguration
+    static class CountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CountingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    static final class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                        int[] count = STATEMENTS.get();
+                        if (count != null && STATEMENT_METHODS.contains(method.getName())) {
+                            count[0]++;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private TradeHistoryReader tradeHistoryReader;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private final List<StockResponseDto> stocks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("statement-counter");
+        user.setPasswordHash("hashed-password");
+        user.setRole("ROLE_USER");
+        user = userRepository.save(user);
+        for (int i = 0; i < STOCKS; i++) {
+            StockRequestDto request = new StockRequestDto();
+            request.setSymbol("CNT" + (char) ('A' + i));
+            request.setName("Count " + i);
+            request.setPrice(new BigDecimal("20.00"));
+            StockResponseDto stock = stockService.create(request);
+            stocks.add(stock);
+
+            TradeRequestDto buy = new TradeRequestDto();
+            buy.setSymbol(stock.getSymbol());
+            buy.setType("BUY");
+            buy.setQuantity(2);
+            buy.setPrice(new BigDecimal("15.00"));
+            tradeService.executeTrade(user.getId(), buy);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        portfolioRepository.deleteAll(portfolioRepository.findByUserId(user.getId()));
+        tradeRepository.deleteAll(tradeRepository.findByUserId(user.getId()));
+        userRepository.delete(user);
+        stocks.forEach(stock -> stockService.delete(stock.getId()));
+    }
+
+    @Test
+    void portfolioIsReadWithOneStatement() {
+        List<PortfolioResponseDto> portfolio = countStatements(1, () -> portfolioService.getUserPortfolio(user.getId()));
+
+        assertEquals(STOCKS, portfolio.size());
+        assertEquals(new BigDecimal("10.00"), portfolio.getFirst().getUnrealizedProfit());
+        assertEquals(new BigDecimal("60.00"), countStatements(1, () -> portfolioService.getTotalProfit(user.getId())));
+    }
+
+    @Test
+    void tradeHistoryPageIsReadWithOneStatement() {
+        TradeHistoryPageDto page = countStatements(1, () -> tradeHistoryReader.page(user.getId(), null, null, null));
+
+        assertEquals(STOCKS, page.getItems().size());
+        assertEquals(STOCKS, page.getItems().stream().map(t -> t.getStockName()).distinct().count());
+    }
+
+    private static <T> T countStatements(int expected, Supplier<T> read) {
+        STATEMENTS.set(new int[1]);
+        try {
+            T result = read.get();
+            assertEquals(expected, STATEMENTS.get()[0], "SQL statements issued");
+            return result;
+        } finally {
+            STATEMENTS.remove();
+        }
+    }
+}
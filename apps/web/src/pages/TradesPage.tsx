@@ -1,25 +1,28 @@
 import { useEffect, useState } from "react";
 import api from "../services/api";
-import type { Trade } from "../services/types";
+import type { Trade, TradeHistoryPage } from "../services/types";
 
 function TradesPage() {
   const [trades, setTrades] = useState<Trade[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
 
-  useEffect(() => {
-    const fetchTrades = async () => {
-      try {
-        const res = await api.get("/api/trades/history");
-        if (res.data.success) {
-          setTrades(res.data.data || []);
-        } else {
-          alert("Failed to get Trade History: " + res.data.message);
-        }
-      } catch (err) {
-        const error = err as { response?: { data?: { message?: string } }, message?: string };
-        alert("Failed to get Trade History: " + (error.response?.data?.message || error.message));
+  const fetchTrades = async (after?: string) => {
+    try {
+      const res = await api.get("/api/trades/history", { params: { after } });
+      if (res.data.success) {
+        const page = res.data.data as TradeHistoryPage;
+        setTrades((current) => (after ? [...current, ...page.items] : page.items));
+        setNextCursor(page.hasMore ? page.nextCursor : null);
+      } else {
+        alert("Failed to get Trade History: " + res.data.message);
       }
-    };
+    } catch (err) {
+      const error = err as { response?: { data?: { message?: string } }, message?: string };
+      alert("Failed to get Trade History: " + (error.response?.data?.message || error.message));
+    }
+  };
 
+  useEffect(() => {
     void fetchTrades();
   }, []);
 
@@ -51,6 +54,11 @@ function TradesPage() {
             ))}
           </tbody>
         </table>
+        {nextCursor && (
+          <button style={{ marginTop: "12px" }} onClick={() => void fetchTrades(nextCursor)}>
+            Load more
+          </button>
+        )}
       </div>
     </div>
   );
@@ -47,6 +47,12 @@ export interface Trade {
   stockSymbol: string;
 }
 
+export interface TradeHistoryPage {
+  items: Trade[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 export interface User {
   id: number;
   username: string;